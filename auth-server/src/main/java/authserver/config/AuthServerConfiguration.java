@@ -17,6 +17,7 @@
 package authserver.config;
 
 import authserver.config.properties.ClientProperties;
+import authserver.service.UserIdTokenEnhancer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -33,11 +34,13 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Aut
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.client.BaseClientDetails;
 import org.springframework.security.oauth2.provider.client.InMemoryClientDetailsService;
+import org.springframework.security.oauth2.provider.token.TokenEnhancerChain;
 import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -46,6 +49,7 @@ public class AuthServerConfiguration extends AuthorizationServerConfigurerAdapte
     private final AuthenticationManager authenticationManager;
     private final PasswordEncoder passwordEncoder;
     private final ClientProperties clientProperties;
+    private final UserIdTokenEnhancer userIdTokenEnhancer;
 
     @Value("${oauth.jwt-key}")
     private String jwtKey;
@@ -53,10 +57,12 @@ public class AuthServerConfiguration extends AuthorizationServerConfigurerAdapte
     @Autowired
     public AuthServerConfiguration(AuthenticationManager authenticationManager,
                                    PasswordEncoder encoder,
-                                   ClientProperties clientProperties) {
+                                   ClientProperties clientProperties,
+                                   UserIdTokenEnhancer userIdTokenEnhancer) {
         this.authenticationManager = authenticationManager;
         this.passwordEncoder = encoder;
         this.clientProperties = clientProperties;
+        this.userIdTokenEnhancer = userIdTokenEnhancer;
     }
 
     @Bean
@@ -73,10 +79,14 @@ public class AuthServerConfiguration extends AuthorizationServerConfigurerAdapte
 
     @Override
     public void configure(AuthorizationServerEndpointsConfigurer endpoints) {
+        TokenEnhancerChain tokenEnhancer = new TokenEnhancerChain();
+        tokenEnhancer.setTokenEnhancers(List.of(userIdTokenEnhancer, jwtAccessTokenConverter()));
+
         endpoints
                 .authenticationManager(authenticationManager)
                 .tokenStore(tokenStore())
                 .accessTokenConverter(jwtAccessTokenConverter())
+                .tokenEnhancer(tokenEnhancer)
                 .allowedTokenEndpointRequestMethods(HttpMethod.GET, HttpMethod.POST);
     }
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package authserver.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenEnhancer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adds an ID of the authenticated user to access tokens, so resource servers
+ * can check ownership without looking the user up by email.
+ */
+@Component
+public class UserIdTokenEnhancer implements TokenEnhancer {
+    public static final String USER_ID_CLAIM = "user_id";
+
+    private final UserDetailsService userDetailsService;
+
+    @Autowired
+    public UserIdTokenEnhancer(UserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        if (authentication.isClientOnly()) {
+            return accessToken;
+        }
+
+        UserDetails user = userDetailsService.loadUserByUsername(authentication.getName());
+        if (!(user instanceof AbstractUser)) {
+            return accessToken;
+        }
+
+        Map<String, Object> information = new HashMap<>(accessToken.getAdditionalInformation());
+        information.put(USER_ID_CLAIM, ((AbstractUser) user).getId());
+
+        DefaultOAuth2AccessToken enhanced = new DefaultOAuth2AccessToken(accessToken);
+        enhanced.setAdditionalInformation(information);
+        return enhanced;
+    }
+}
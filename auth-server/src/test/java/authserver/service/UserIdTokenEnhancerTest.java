@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package authserver.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Tag("category.UnitTest")
+public class UserIdTokenEnhancerTest {
+
+    @Test
+    public void shouldAddUserIdToAccessToken() {
+        BasicUser user = BasicUser.builder()
+                .withId(1L)
+                .withLogin("user@gmail.com")
+                .withPassword("12345678")
+                .build();
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("user@gmail.com")).thenReturn(user);
+
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "client",
+                Collections.emptyList(), true, Collections.emptySet(), Collections.emptySet(),
+                null, Collections.emptySet(), Collections.emptyMap());
+        UsernamePasswordAuthenticationToken userAuthentication =
+                new UsernamePasswordAuthenticationToken("user@gmail.com", null, Collections.emptyList());
+
+        UserIdTokenEnhancer enhancer = new UserIdTokenEnhancer(userDetailsService);
+        OAuth2AccessToken token = enhancer.enhance(new DefaultOAuth2AccessToken("token"),
+                new OAuth2Authentication(request, userAuthentication));
+
+        assertThat(token.getAdditionalInformation().get(UserIdTokenEnhancer.USER_ID_CLAIM), is(equalTo(1L)));
+    }
+}
@@ -19,6 +19,7 @@ package clientservice.data;
 import clientservice.service.Client;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -37,4 +38,14 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
      * @return the client with the given name or Optional#empty() if none found
      */
     Optional<Client> findByEmail(String email);
+
+    /**
+     * Retrieves the version of the client with the specified ID without loading the client itself.
+     *
+     * @param id ID of the client
+     *
+     * @return the version or Optional#empty() if none found
+     */
+    @Query("SELECT c.version FROM Client c WHERE c.id = ?1")
+    Optional<Long> findVersionById(long id);
 }
@@ -16,6 +16,7 @@
 
 package clientservice.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 
@@ -26,6 +27,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.Valid;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -64,6 +66,11 @@ public class Client implements Serializable {
     @Valid
     private PersonalData personalData;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     /**
      * @return Client builder
      */
@@ -99,6 +106,7 @@ public class Client implements Serializable {
         password = other.password;
         isEnabled = other.isEnabled;
         personalData = (other.personalData == null) ? null : other.personalData;
+        version = other.version;
     }
 
     public Long getId() {
@@ -145,6 +153,14 @@ public class Client implements Serializable {
         this.personalData = personalData;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
@@ -19,6 +19,7 @@ package clientservice.service;
 import clientservice.service.exception.ClientsModificationException;
 import clientservice.service.exception.RemoteResourceException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +49,30 @@ public interface ClientService {
      */
     Optional<Client> findById(long id);
 
+    /**
+     * Looks for the version of the client with the specified ID in the remote client repository
+     * without loading the client itself.
+     *
+     * @param id ID of the client
+     *
+     * @return the version of the client or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote client repository
+     */
+    Optional<Long> findVersionById(long id);
+
+    /**
+     * Looks for all clients with the specified IDs in the remote client repository.
+     * IDs with no matching client are ignored.
+     *
+     * @param ids IDs of the clients to get
+     *
+     * @return all clients with the specified IDs in the remote client repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote client repository
+     */
+    List<Client> findAllByIds(Collection<Long> ids);
+
     /**
      * Looks for a client with the specified email in the remote client repository
      *
@@ -35,6 +35,7 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -82,6 +83,26 @@ public class ClientServiceImpl implements ClientService {
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> repository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Client database unavailable", e);
+        }
+    }
+
+    @Override
+    public List<Client> findAllByIds(Collection<Long> ids) {
+        try {
+            Supplier<List<Client>> findAllById = () -> repository.findAllById(ids);
+            return circuitBreaker.decorateSupplier(findAllById).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Client database unavailable", e);
+        }
+    }
+
     @Override
     public Optional<Client> findByEmail(String email) {
         try {
@@ -73,6 +73,25 @@ public class ClientAccessHandler {
         return authentication.getName().equals(ownerEmail);
     }
 
+    /**
+     * Decides whether the current user can access any client without loading it,
+     * so conditional requests are answered from the client version alone.
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetAny() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (!auth.isAuthenticated()) {
+            return false;
+        }
+
+        return auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority -> authority.equals("INTERNAL")
+                        || authority.equals("DOCTOR")
+                        || authority.equals("TOP_MANAGER"));
+    }
+
     /**
      * Decides whether the current user can delete the client with the specified ID.
      *
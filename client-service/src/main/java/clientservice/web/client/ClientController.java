@@ -18,12 +18,14 @@ package clientservice.web.client;
 
 import clientservice.service.Client;
 import clientservice.service.ClientService;
+import clientservice.web.ETags;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.repository.query.Param;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -37,11 +39,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/clients", produces = "application/json")
@@ -49,12 +53,15 @@ import java.util.NoSuchElementException;
 public class ClientController {
     private final ClientService clientService;
     private final ClientModelAssembler modelAssembler;
+    private final ClientAccessHandler accessHandler;
 
     @Autowired
     public ClientController(ClientService clientService,
-                            ClientModelAssembler modelAssembler) {
+                            ClientModelAssembler modelAssembler,
+                            ClientAccessHandler accessHandler) {
         this.clientService = clientService;
         this.modelAssembler = modelAssembler;
+        this.accessHandler = accessHandler;
     }
 
     @GetMapping
@@ -73,13 +80,31 @@ public class ClientController {
         return modelAssembler.toModel(client);
     }
 
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasAnyAuthority('INTERNAL', 'DOCTOR', 'TOP_MANAGER')")
+    public CollectionModel<EntityModel<Client>> getAllByIds(@RequestParam List<Long> ids) {
+        List<Client> clients = clientService.findAllByIds(ids);
+        return modelAssembler.toCollectionModel(clients);
+    }
+
     @GetMapping("/{id}")
-    @PostAuthorize("hasAuthority('USER') and returnObject.content.email == authentication.name " +
+    @PostAuthorize("returnObject == null " +
+            "or hasAuthority('USER') and returnObject.body.content.email == authentication.name " +
             "or hasAnyAuthority('INTERNAL', 'DOCTOR', 'TOP_MANAGER')")
-    public EntityModel<Client> getById(@PathVariable @Param("id") Long id) {
+    public ResponseEntity<EntityModel<Client>> getById(@PathVariable @Param("id") Long id, WebRequest request) {
+        // Nothing is returned only if the client is not modified and the caller can access any client
+        if (accessHandler.canGetAny()) {
+            Optional<Long> version = clientService.findVersionById(id);
+            if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
+
         Client client = clientService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Client not found: " + id));
-        return modelAssembler.toModel(client);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(client.getVersion()))
+                .body(modelAssembler.toModel(client));
     }
 
     @PostMapping(consumes = "application/json")
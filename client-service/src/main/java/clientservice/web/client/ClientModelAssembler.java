@@ -35,7 +35,7 @@ public class ClientModelAssembler implements RepresentationModelAssembler<Client
     @Override
     public EntityModel<Client> toModel(Client entity) {
         return EntityModel.of(entity,
-                linkTo(methodOn(ClientController.class).getById(entity.getId())).withSelfRel(),
+                linkTo(methodOn(ClientController.class).getById(entity.getId(), null)).withSelfRel(),
                 linkTo(methodOn(ClientController.class).getAll()).withRel("all"));
     }
 
@@ -163,6 +163,16 @@ public class ClientServiceImplTest {
         assertThat(saved, is(equalTo(clients)));
     }
 
+    @Test
+    public void shouldReturnListOfClientsByIdsWhenContainsMultipleClients() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        List<Client> clients = List.of(client, client, client);
+        when(repository.findAllById(ids)).thenReturn(clients);
+
+        List<Client> saved = clientService.findAllByIds(ids);
+        assertThat(saved, is(equalTo(clients)));
+    }
+
     @Test
     public void shouldCount5ClientsWhenContains5Clients() {
         when(repository.count()).thenReturn(5L);
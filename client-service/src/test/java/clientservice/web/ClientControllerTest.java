@@ -26,6 +26,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -44,6 +45,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
@@ -172,6 +174,68 @@ public class ClientControllerTest {
         getByIdAndExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(authorities = "INTERNAL")
+    public void shouldReturnNotModifiedOnConditionalClientGetByIdRequestWhenClientIsNotModified()
+            throws Exception {
+        String eTag = getETag();
+        getByIdIfNoneMatchAndExpect(eTag, status().isNotModified());
+    }
+
+    private String getETag() throws Exception {
+        return mvc.perform(get("/clients/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private void getByIdIfNoneMatchAndExpect(String eTag, ResultMatcher status) throws Exception {
+        mvc.perform(get("/clients/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(username = "alexander@gmail.com", authorities = "USER")
+    public void shouldReturnNotModifiedOnConditionalClientGetByIdRequestWhenUserIsResourceOwner()
+            throws Exception {
+        String eTag = getETag();
+        getByIdIfNoneMatchAndExpect(eTag, status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(authorities = "INTERNAL")
+    public void shouldReturnClientOnConditionalClientGetByIdRequestWhenETagIsOutdated() throws Exception {
+        getByIdIfNoneMatchAndExpect("W/\"-1\"", status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "robert@gmail.com", authorities = "USER")
+    public void shouldDenyConditionalClientGetByIdRequestWhenUserIsNotResourceOwner() throws Exception {
+        getByIdIfNoneMatchAndExpect("W/\"0\"", status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(authorities = "INTERNAL")
+    public void shouldReturnClientsOnClientsGetByIdsRequestWhenUserIsInternal() throws Exception {
+        getAllByIdsAndExpect(status().isOk());
+    }
+
+    private void getAllByIdsAndExpect(ResultMatcher status) throws Exception {
+        mvc.perform(get("/clients").param("ids", "1,2"))
+                .andDo(print())
+                .andExpect(status)
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "USER" })
+    public void shouldDenyAccessToClientsByIdsWhenUserIsNotInternalOrDoctorOrTopManager() throws Exception {
+        getAllByIdsAndExpect(status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser(authorities = "TOP_MANAGER")
     public void shouldReturnClientOnClientGetByEmailRequestWhenUserIsTopManager() throws Exception {
@@ -23,6 +23,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * A DepartmentRepository abstracts a collection of Department objects.
@@ -39,4 +40,14 @@ public interface DepartmentRepository extends JpaRepository<Department, Long> {
      */
     @Query("SELECT f.departments FROM MedicalFacility f WHERE f.id = ?1")
     List<Department> findAllByFacilityId(long facilityId);
+
+    /**
+     * Retrieves the version of the department with the specified ID without loading the department itself.
+     *
+     * @param id ID of the department
+     *
+     * @return the version or Optional#empty() if none found
+     */
+    @Query("SELECT d.version FROM Department d WHERE d.id = ?1")
+    Optional<Long> findVersionById(long id);
 }
@@ -24,6 +24,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * A FacilityRepository abstracts a collection of MedicalFacility objects.
@@ -61,4 +62,14 @@ public interface FacilityRepository extends JpaRepository<MedicalFacility, Long>
             "WHERE department_id = ?1 AND facility_id = ?2")
     @Modifying
     void deleteFromDepartment(long departmentId, long facilityId);
+
+    /**
+     * Retrieves the version of the facility with the specified ID without loading the facility itself.
+     *
+     * @param id ID of the facility
+     *
+     * @return the version or Optional#empty() if none found
+     */
+    @Query("SELECT f.version FROM MedicalFacility f WHERE f.id = ?1")
+    Optional<Long> findVersionById(long id);
 }
@@ -20,6 +20,7 @@ import clinicservice.service.facility.MedicalFacility;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -30,6 +31,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
@@ -62,6 +64,11 @@ public class Department implements Serializable {
     @JsonIgnore
     private Set<MedicalFacility> facilities;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     /**
      * @return Department builder
      */
@@ -93,6 +100,7 @@ public class Department implements Serializable {
         id = other.id;
         address = (other.address == null) ? null : new Address(other.address);
         facilities = new HashSet<>(other.facilities);
+        version = other.version;
     }
 
     /**
@@ -145,6 +153,14 @@ public class Department implements Serializable {
         this.facilities = facilities;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
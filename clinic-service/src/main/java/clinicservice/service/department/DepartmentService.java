@@ -48,6 +48,18 @@ public interface DepartmentService {
      */
     Optional<Department> findById(long id);
 
+    /**
+     * Looks for the version of the department with the specified ID in the remote department repository
+     * without loading the department itself.
+     *
+     * @param id ID of the department
+     *
+     * @return the version of the department or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote department repository
+     */
+    Optional<Long> findVersionById(long id);
+
     /**
      * Looks for all departments that contain facilities with a specified ID
      * in the remote department repository.
@@ -88,6 +88,16 @@ public class DepartmentServiceImpl implements DepartmentService {
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> repository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Department database unavailable", e);
+        }
+    }
+
     @Override
     public long count() {
         try {
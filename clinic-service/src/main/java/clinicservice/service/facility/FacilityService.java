@@ -59,6 +59,18 @@ public interface FacilityService {
      */
     Optional<MedicalFacility> findById(long id);
 
+    /**
+     * Looks for the version of the facility with the specified ID in the remote facility repository
+     * without loading the facility itself.
+     *
+     * @param id ID of the facility
+     *
+     * @return the version of the facility or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote facility repository
+     */
+    Optional<Long> findVersionById(long id);
+
     /**
      * Counts the number of medical facilities in the remote facility repository.
      *
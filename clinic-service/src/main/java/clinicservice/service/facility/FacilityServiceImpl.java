@@ -93,6 +93,16 @@ public class FacilityServiceImpl implements FacilityService {
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> facilityRepository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Facility database unavailable", e);
+        }
+    }
+
     @Override
     public long count() {
         try {
@@ -18,6 +18,7 @@ package clinicservice.service.facility;
 
 import clinicservice.service.department.Department;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import javax.persistence.Column;
@@ -28,6 +29,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 
@@ -56,6 +58,11 @@ public class MedicalFacility implements Serializable {
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Set<Department> departments;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     /**
      * @return MedicalFacility builder
      */
@@ -87,6 +94,7 @@ public class MedicalFacility implements Serializable {
         id = other.id;
         name = other.name;
         departments = other.departments;
+        version = other.version;
     }
     
     /**
@@ -135,6 +143,14 @@ public class MedicalFacility implements Serializable {
         this.departments = departments;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
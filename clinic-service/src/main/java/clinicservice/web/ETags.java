@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package clinicservice.web;
+
+/**
+ * Builds entity tags of resource representations from entity versions.
+ * Tags are weak: a representation is identified by the version of its entity,
+ * not by its bytes.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Builds an entity tag of a representation of the entity with the specified version.
+     *
+     * @param version entity version
+     *
+     * @return weak entity tag
+     */
+    public static String of(long version) {
+        return "W/\"" + version + "\"";
+    }
+}
@@ -18,11 +18,13 @@ package clinicservice.web.department;
 
 import clinicservice.service.department.Department;
 import clinicservice.service.department.DepartmentService;
+import clinicservice.web.ETags;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,11 +36,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/departments", produces = "application/json")
@@ -67,10 +71,17 @@ public class DepartmentController {
     }
 
     @GetMapping("/{id}")
-    public EntityModel<Department> getById(@PathVariable Long id) {
+    public ResponseEntity<EntityModel<Department>> getById(@PathVariable Long id, WebRequest request) {
+        Optional<Long> version = departmentService.findVersionById(id);
+        if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+            return null;
+        }
+
         Department department = departmentService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Department not found: " + id));
-        return modelAssembler.toModel(department);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(department.getVersion()))
+                .body(modelAssembler.toModel(department));
     }
 
     @PostMapping(consumes = "application/json")
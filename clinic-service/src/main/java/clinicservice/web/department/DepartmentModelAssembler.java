@@ -39,7 +39,7 @@ public class DepartmentModelAssembler
         long id = entity.getId();
         return EntityModel.of(entity,
                 linkTo(methodOn(FacilityController.class).getAllByDepartmentId(id)).withRel("facilities"),
-                linkTo(methodOn(DepartmentController.class).getById(id)).withSelfRel(),
+                linkTo(methodOn(DepartmentController.class).getById(id, null)).withSelfRel(),
                 linkTo(methodOn(DepartmentController.class).getAll()).withRel("all"));
     }
 
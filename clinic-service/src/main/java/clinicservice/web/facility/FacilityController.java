@@ -18,11 +18,13 @@ package clinicservice.web.facility;
 
 import clinicservice.service.facility.FacilityService;
 import clinicservice.service.facility.MedicalFacility;
+import clinicservice.web.ETags;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,11 +36,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/facilities", produces = "application/json")
@@ -67,10 +71,17 @@ public class FacilityController {
     }
 
     @GetMapping("/{id}")
-    public EntityModel<MedicalFacility> getById(@PathVariable Long id) {
+    public ResponseEntity<EntityModel<MedicalFacility>> getById(@PathVariable Long id, WebRequest request) {
+        Optional<Long> version = facilityService.findVersionById(id);
+        if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+            return null;
+        }
+
         MedicalFacility facility = facilityService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("No medical facility with id " + id));
-        return modelAssembler.toModel(facility);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(facility.getVersion()))
+                .body(modelAssembler.toModel(facility));
     }
 
     @PostMapping(consumes = "application/json")
@@ -38,7 +38,7 @@ public class FacilityModelAssembler
     public EntityModel<MedicalFacility> toModel(MedicalFacility entity) {
         long id = entity.getId();
         return EntityModel.of(entity,
-                linkTo(methodOn(FacilityController.class).getById(id)).withSelfRel(),
+                linkTo(methodOn(FacilityController.class).getById(id, null)).withSelfRel(),
                 linkTo(methodOn(FacilityController.class).getAll()).withRel("all"),
                 linkTo(methodOn(DepartmentController.class).getAllByFacilityId(id)).withRel("departments"));
     }
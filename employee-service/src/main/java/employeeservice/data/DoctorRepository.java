@@ -23,6 +23,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,6 +60,36 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
      */
     List<Doctor> findAllBySpecialty(String specialty);
 
+    /**
+     * Retrieves all doctors with any of the specified specialties.
+     *
+     * @param specialties specialties of the doctors to get
+     *
+     * @return all doctors with any of the given specialties
+     */
+    @Query("SELECT m FROM Doctor m WHERE m.specialty IN ?1")
+    List<Doctor> findAllBySpecialtyIn(Collection<String> specialties);
+
+    /**
+     * Retrieves all doctors with the specified IDs.
+     *
+     * @param ids IDs of the doctors to get
+     *
+     * @return all doctors with the given IDs
+     */
+    @Query("SELECT m FROM Doctor m WHERE m.id IN ?1")
+    List<Doctor> findAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Retrieves the version of the doctor with the specified ID without loading the doctor itself.
+     *
+     * @param id ID of the doctor
+     *
+     * @return the version or Optional#empty() if none found
+     */
+    @Query("SELECT m.version FROM Doctor m WHERE m.id = ?1")
+    Optional<Long> findVersionById(long id);
+
     // The default implementation does not work for an unknown reason
     @Override
     @Query("SELECT m FROM Doctor m WHERE m.id = ?1")
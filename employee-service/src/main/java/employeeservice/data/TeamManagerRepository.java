@@ -50,6 +50,16 @@ public interface TeamManagerRepository extends JpaRepository<TeamManager, Long>
      */
     List<TeamManager> findAllByDepartmentId(long departmentId);
 
+    /**
+     * Retrieves the version of the manager with the specified ID without loading the manager itself.
+     *
+     * @param id ID of the manager
+     *
+     * @return the version or Optional#empty() if none found
+     */
+    @Query("SELECT m.version FROM TeamManager m WHERE m.id = ?1")
+    Optional<Long> findVersionById(long id);
+
     // The default implementation does not work for an unknown reason
     @Override
     @Query("SELECT m FROM TeamManager m WHERE m.id = ?1")
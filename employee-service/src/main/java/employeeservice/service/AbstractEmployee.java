@@ -16,6 +16,7 @@
 
 package employeeservice.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 
@@ -33,6 +34,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
+import javax.persistence.Version;
 import javax.validation.Valid;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -74,6 +76,11 @@ public abstract class AbstractEmployee implements Serializable {
     @Column(name = "is_enabled", nullable = false)
     private Boolean isEnabled = true;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     /**
      * Constructs a new enabled AbstractEmployee.
      */
@@ -92,6 +99,7 @@ public abstract class AbstractEmployee implements Serializable {
         personalData = other.personalData;
         department = other.department;
         isEnabled = other.isEnabled;
+        version = other.version;
     }
 
     public Long getId() {
@@ -142,6 +150,14 @@ public abstract class AbstractEmployee implements Serializable {
         isEnabled = enabled;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
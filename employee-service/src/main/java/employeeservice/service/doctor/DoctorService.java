@@ -19,6 +19,7 @@ package employeeservice.service.doctor;
 import employeeservice.service.exception.IllegalModificationException;
 import employeeservice.service.exception.RemoteResourceException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,6 +59,29 @@ public interface DoctorService {
      */
     List<Doctor> findAllBySpecialty(String specialty);
 
+    /**
+     * Looks for all doctors with any of the specified specialties in the remote employee repository.
+     *
+     * @param specialties specialties of the doctors to get
+     *
+     * @return all doctors with any of the specified specialties in the remote employee repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote employee repository
+     */
+    List<Doctor> findAllBySpecialties(Collection<String> specialties);
+
+    /**
+     * Looks for all doctors with the specified IDs in the remote employee repository.
+     * IDs with no matching doctor are ignored.
+     *
+     * @param ids IDs of the doctors to get
+     *
+     * @return all doctors with the specified IDs in the remote employee repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote employee repository
+     */
+    List<Doctor> findAllByIds(Collection<Long> ids);
+
     /**
      * Looks for a doctor with the specified ID in the remote employee repository.
      *
@@ -70,6 +94,18 @@ public interface DoctorService {
      */
     Optional<Doctor> findById(long id);
 
+    /**
+     * Looks for the version of the doctor with the specified ID in the remote employee repository
+     * without loading the doctor itself.
+     *
+     * @param id ID of the doctor
+     *
+     * @return the version of the doctor or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote employee repository
+     */
+    Optional<Long> findVersionById(long id);
+
     /**
      * Looks for a doctor with the specified email in the remote employee repository.
      *
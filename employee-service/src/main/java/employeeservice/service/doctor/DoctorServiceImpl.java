@@ -39,6 +39,7 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -99,6 +100,26 @@ public class DoctorServiceImpl implements DoctorService {
         }
     }
 
+    @Override
+    public List<Doctor> findAllBySpecialties(Collection<String> specialties) {
+        try {
+            Supplier<List<Doctor>> findBySpecialties = () -> doctorRepository.findAllBySpecialtyIn(specialties);
+            return circuitBreaker.decorateSupplier(findBySpecialties).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Employee database unavailable", e);
+        }
+    }
+
+    @Override
+    public List<Doctor> findAllByIds(Collection<Long> ids) {
+        try {
+            Supplier<List<Doctor>> findByIds = () -> doctorRepository.findAllByIdIn(ids);
+            return circuitBreaker.decorateSupplier(findByIds).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Employee database unavailable", e);
+        }
+    }
+
     @Override
     public Optional<Doctor> findById(long id) {
         try {
@@ -109,6 +130,16 @@ public class DoctorServiceImpl implements DoctorService {
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> doctorRepository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Employee database unavailable", e);
+        }
+    }
+
     @Override
     public Optional<Doctor> findByEmail(String email) {
         try {
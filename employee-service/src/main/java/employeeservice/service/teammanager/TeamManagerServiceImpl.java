@@ -104,6 +104,16 @@ public class TeamManagerServiceImpl implements TeamManagerService {
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> managerRepository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Employee database unavailable", e);
+        }
+    }
+
     @Override
     public Optional<TeamManager> findByEmail(String email) {
         try {
@@ -221,7 +231,7 @@ public class TeamManagerServiceImpl implements TeamManagerService {
             managerToUpdate = prepareUpdateData(managerToUpdate, manager);
             validate(managerToUpdate);
 
-            TeamManager updated = persistManger(manager);
+            TeamManager updated = persistManger(managerToUpdate);
             logger.info("Manager " + updated.getId() + " updated");
             return updated;
         } catch (IllegalModificationException | RemoteResourceException e) {
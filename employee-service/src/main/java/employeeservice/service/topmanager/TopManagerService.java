@@ -45,6 +45,18 @@ public interface TopManagerService {
      */
     Optional<TopManager> findById(long id);
 
+    /**
+     * Looks for the version of the manager with the specified ID in the remote employee repository
+     * without loading the manager itself.
+     *
+     * @param id ID of the manager
+     *
+     * @return the version of the manager or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote employee repository
+     */
+    Optional<Long> findVersionById(long id);
+
     /**
      * Looks for a manager with the specified email in the remote employee repository.
      *
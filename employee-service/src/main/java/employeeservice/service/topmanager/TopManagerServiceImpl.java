@@ -82,6 +82,16 @@ public class TopManagerServiceImpl implements TopManagerService {
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> managerRepository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Employee database unavailable", e);
+        }
+    }
+
     @Override
     public Optional<TopManager> findByEmail(String email) {
         try {
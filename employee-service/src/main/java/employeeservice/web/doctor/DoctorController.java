@@ -18,11 +18,13 @@ package employeeservice.web.doctor;
 
 import employeeservice.service.doctor.Doctor;
 import employeeservice.service.doctor.DoctorService;
+import employeeservice.web.ETags;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -37,11 +39,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/doctors", produces = "application/json")
@@ -110,15 +114,44 @@ public class DoctorController {
         return modelAssembler.toCollectionModel(doctors);
     }
 
+    @GetMapping(params = "specialties")
+    public CollectionModel<EntityModel<Doctor>> getAllBySpecialties(@RequestParam List<String> specialties) {
+        List<Doctor> doctors = doctorService.findAllBySpecialties(specialties);
+        if (isUnauthorized()) {
+            doctors.forEach(this::resetPrivateFields);
+        }
+
+        return modelAssembler.toCollectionModel(doctors);
+    }
+
+    @GetMapping(params = "ids")
+    public CollectionModel<EntityModel<Doctor>> getAllByIds(@RequestParam List<Long> ids) {
+        List<Doctor> doctors = doctorService.findAllByIds(ids);
+        if (isUnauthorized()) {
+            doctors.forEach(this::resetPrivateFields);
+        }
+
+        return modelAssembler.toCollectionModel(doctors);
+    }
+
     @GetMapping("/{id}")
-    public EntityModel<Doctor> getById(@PathVariable Long id) {
+    public ResponseEntity<EntityModel<Doctor>> getById(@PathVariable Long id, WebRequest request) {
+        boolean isUnauthorized = isUnauthorized();
+        String variant = isUnauthorized ? "public" : "private";
+        Optional<Long> version = doctorService.findVersionById(id);
+        if (version.isPresent() && request.checkNotModified(ETags.of(version.get(), variant))) {
+            return null;
+        }
+
         Doctor doctor = doctorService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("No doctor with id " + id));
-        if (isUnauthorized()) {
+        if (isUnauthorized) {
             resetPrivateFields(doctor);
         }
 
-        return modelAssembler.toModel(doctor);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(doctor.getVersion(), variant))
+                .body(modelAssembler.toModel(doctor));
     }
 
     @GetMapping(value = "/{email}", params = "email")
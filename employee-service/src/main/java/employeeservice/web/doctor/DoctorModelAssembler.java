@@ -43,7 +43,7 @@ public class DoctorModelAssembler implements RepresentationModelAssembler<Doctor
 
         long id = entity.getId();
         return EntityModel.of(entity,
-                linkTo(methodOn(DoctorController.class).getById(id)).withSelfRel(),
+                linkTo(methodOn(DoctorController.class).getById(id, null)).withSelfRel(),
                 linkTo(methodOn(DoctorController.class).getAll()).withRel("all"),
                 departmentLink);
     }
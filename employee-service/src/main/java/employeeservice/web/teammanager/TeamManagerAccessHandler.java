@@ -69,6 +69,17 @@ public class TeamManagerAccessHandler {
         return authentication.getName().equals(ownerEmail);
     }
 
+    /**
+     * Decides whether the current user can access any team manager without loading it,
+     * so conditional requests are answered from the manager version alone.
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetAny() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth.isAuthenticated() && isManager(auth);
+    }
+
     /**
      * Decides whether the current user can delete the team manager with the specified ID.
      *
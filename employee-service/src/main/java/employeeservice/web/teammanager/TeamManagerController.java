@@ -18,11 +18,13 @@ package employeeservice.web.teammanager;
 
 import employeeservice.service.teammanager.TeamManager;
 import employeeservice.service.teammanager.TeamManagerService;
+import employeeservice.web.ETags;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -36,11 +38,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/team-managers", produces = "application/json")
@@ -48,12 +52,15 @@ import java.util.NoSuchElementException;
 public class TeamManagerController {
     private final TeamManagerService managerService;
     private final TeamManagerModelAssembler modelAssembler;
+    private final TeamManagerAccessHandler accessHandler;
 
     @Autowired
     public TeamManagerController(TeamManagerService managerService,
-                                 TeamManagerModelAssembler modelAssembler) {
+                                 TeamManagerModelAssembler modelAssembler,
+                                 TeamManagerAccessHandler accessHandler) {
         this.managerService = managerService;
         this.modelAssembler = modelAssembler;
+        this.accessHandler = accessHandler;
     }
 
     @GetMapping
@@ -79,11 +86,22 @@ public class TeamManagerController {
     }
 
     @GetMapping("/{id}")
-    @PostAuthorize("returnObject.content.email == authentication.name or hasAuthority('TOP_MANAGER')")
-    public EntityModel<TeamManager> getById(@PathVariable Long id) {
+    @PostAuthorize("returnObject == null or returnObject.body.content.email == authentication.name " +
+            "or hasAuthority('TOP_MANAGER')")
+    public ResponseEntity<EntityModel<TeamManager>> getById(@PathVariable Long id, WebRequest request) {
+        // Nothing is returned only if the manager is not modified and the caller can access any manager
+        if (accessHandler.canGetAny()) {
+            Optional<Long> version = managerService.findVersionById(id);
+            if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
+
         TeamManager manager = managerService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("No manager with id " + id));
-        return modelAssembler.toModel(manager);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(manager.getVersion()))
+                .body(modelAssembler.toModel(manager));
     }
 
     @PostMapping
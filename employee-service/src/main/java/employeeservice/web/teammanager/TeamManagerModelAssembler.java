@@ -44,7 +44,7 @@ public class TeamManagerModelAssembler
 
         long id = entity.getId();
         return EntityModel.of(entity,
-                linkTo(methodOn(TeamManagerController.class).getById(id)).withSelfRel(),
+                linkTo(methodOn(TeamManagerController.class).getById(id, null)).withSelfRel(),
                 linkTo(methodOn(TeamManagerController.class).getAll()).withRel("all"),
                 departmentLink);
     }
@@ -18,11 +18,13 @@ package employeeservice.web.topmanager;
 
 import employeeservice.service.topmanager.TopManager;
 import employeeservice.service.topmanager.TopManagerService;
+import employeeservice.web.ETags;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -35,11 +37,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/top-managers", produces = "application/json")
@@ -76,11 +80,18 @@ public class TopManagerController {
     }
 
     @GetMapping("/{id}")
-    public EntityModel<TopManager> getById(@PathVariable Long id) {
+    public ResponseEntity<EntityModel<TopManager>> getById(@PathVariable Long id, WebRequest request) {
+        Optional<Long> version = managerService.findVersionById(id);
+        if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+            return null;
+        }
+
         TopManager manager = managerService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("No manager with id " + id));
         resetPrivateFields(manager);
-        return modelAssembler.toModel(manager);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(manager.getVersion()))
+                .body(modelAssembler.toModel(manager));
     }
 
     @PostMapping
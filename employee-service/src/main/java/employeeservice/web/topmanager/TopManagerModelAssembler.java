@@ -34,7 +34,7 @@ public class TopManagerModelAssembler
     public EntityModel<TopManager> toModel(TopManager entity) {
         long id = entity.getId();
         return EntityModel.of(entity,
-                linkTo(methodOn(TopManagerController.class).getById(id)).withSelfRel(),
+                linkTo(methodOn(TopManagerController.class).getById(id, null)).withSelfRel(),
                 linkTo(methodOn(TopManagerController.class).getAll()).withRel("all"));
     }
 
@@ -202,6 +202,26 @@ public class DoctorServiceImplTest {
         assertThat(saved, is(equalTo(doctors)));
     }
 
+    @Test
+    public void shouldReturnListOfDoctorsBySpecialtiesWhenContainsMultipleDoctors() {
+        List<String> specialties = List.of("Surgery", "Cardiology");
+        List<Doctor> doctors = List.of(doctor, doctor, doctor);
+        when(doctorRepository.findAllBySpecialtyIn(specialties)).thenReturn(doctors);
+
+        List<Doctor> saved = doctorService.findAllBySpecialties(specialties);
+        assertThat(saved, is(equalTo(doctors)));
+    }
+
+    @Test
+    public void shouldReturnListOfDoctorsByIdsWhenContainsMultipleDoctors() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        List<Doctor> doctors = List.of(doctor, doctor, doctor);
+        when(doctorRepository.findAllByIdIn(ids)).thenReturn(doctors);
+
+        List<Doctor> saved = doctorService.findAllByIds(ids);
+        assertThat(saved, is(equalTo(doctors)));
+    }
+
     @Test
     public void shouldCount5DoctorsWhenContains5Doctors() {
         when(doctorRepository.count()).thenReturn(5L);
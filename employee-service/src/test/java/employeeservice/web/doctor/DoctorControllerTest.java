@@ -27,6 +27,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -46,6 +47,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
@@ -155,6 +157,36 @@ public class DoctorControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    public void shouldReturnNotModifiedOnConditionalDoctorGetByIdRequestWhenDoctorIsNotModified()
+            throws Exception {
+        String eTag = getETag("/doctors/1");
+        getIfNoneMatchAndExpect("/doctors/1", eTag, status().isNotModified());
+    }
+
+    private String getETag(String url) throws Exception {
+        return mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private void getIfNoneMatchAndExpect(String url, String eTag, ResultMatcher status) throws Exception {
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnDoctorOnConditionalDoctorGetByIdRequestWhenETagIsOfPublicVariant() throws Exception {
+        String eTag = getETag("/doctors/1");
+        String publicETag = eTag.replace("-private", "-public");
+        getIfNoneMatchAndExpect("/doctors/1", publicETag, status().isOk());
+    }
+
     @Test
     public void shouldReturnDoctorOnDoctorGetByEmailRequest() throws Exception {
         mvc.perform(get("/doctors").param("email", "alex@gmail.com"))
@@ -179,6 +211,22 @@ public class DoctorControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    public void shouldReturnDoctorsOnDoctorsGetBySpecialtiesRequest() throws Exception {
+        mvc.perform(get("/doctors").param("specialties", "Surgery,Cardiology"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldReturnDoctorsOnDoctorsGetByIdsRequest() throws Exception {
+        mvc.perform(get("/doctors").param("ids", "1,2,3"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     @WithMockUser(authorities = "TOP_MANAGER")
     public void shouldReturnSavedDoctorOnDoctorsPostRequestWhenUserIsTopManager() throws Exception {
@@ -27,6 +27,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -47,6 +48,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Tag("category.IntegrationTest")
@@ -245,6 +247,42 @@ public class TeamManagerControllerTest {
         getByIdAndExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnNotModifiedOnConditionalManagerGetByIdRequestWhenUserIsTopManager() throws Exception {
+        String eTag = getETag("/team-managers/6");
+        getIfNoneMatchAndExpect("/team-managers/6", eTag, status().isNotModified());
+    }
+
+    private String getETag(String url) throws Exception {
+        return mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private void getIfNoneMatchAndExpect(String url, String eTag, ResultMatcher status) throws Exception {
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(username = "oliver@gmail.com", authorities = "TEAM_MANAGER")
+    public void shouldReturnNotModifiedOnConditionalManagerGetByIdRequestWhenUserIsResourceOwner()
+            throws Exception {
+        String eTag = getETag("/team-managers/6");
+        getIfNoneMatchAndExpect("/team-managers/6", eTag, status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(username = "lucas@gmail.com", authorities = "TEAM_MANAGER")
+    public void shouldDenyConditionalManagerGetByIdRequestWhenUserIsNotResourceOwner() throws Exception {
+        getIfNoneMatchAndExpect("/team-managers/6", "W/\"0\"", status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser(authorities = { "ADMIN", "DOCTOR", "USER", "INTERNAL" })
     public void shouldDenyAccessToManagerByIdWhenUserIsNotTopManager() throws Exception {
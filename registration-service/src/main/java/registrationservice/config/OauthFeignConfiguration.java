@@ -16,6 +16,8 @@
 
 package registrationservice.config;
 
+import feign.Capability;
+import feign.Client;
 import feign.Logger;
 import feign.RequestInterceptor;
 
@@ -27,6 +29,9 @@ import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
 import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
 import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
 
+import registrationservice.config.properties.RemoteCacheProperties;
+import registrationservice.service.external.RevalidatingClient;
+
 import java.util.List;
 
 @Configuration
@@ -54,6 +59,21 @@ public class OauthFeignConfiguration {
         return Logger.Level.FULL;
     }
 
+    /**
+     * Makes Feign clients revalidate responses they got before instead of fetching them again,
+     * so projections of remote entities expired from local caches are refreshed with 304 responses
+     * while the entities stay unchanged.
+     */
+    @Bean
+    public Capability revalidatingCapability(RemoteCacheProperties properties) {
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return new RevalidatingClient(client, properties.getRevalidatedResponses());
+            }
+        };
+    }
+
     private OAuth2ProtectedResourceDetails resource() {
         ClientCredentialsResourceDetails details = new ClientCredentialsResourceDetails();
         details.setAccessTokenUri(accessTokenUri);
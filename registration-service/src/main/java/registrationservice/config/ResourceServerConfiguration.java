@@ -26,10 +26,13 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
+import java.util.Map;
+
 @Configuration
 @EnableResourceServer
 @EnableGlobalMethodSecurity(prePostEnabled = true)
@@ -45,7 +48,16 @@ public class ResourceServerConfiguration extends ResourceServerConfigurerAdapter
 
     @Bean
     public JwtAccessTokenConverter jwtAccessTokenConverter() {
-        JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+        JwtAccessTokenConverter converter = new JwtAccessTokenConverter() {
+
+            // Exposes token claims such as user_id via OAuth2AuthenticationDetails#getDecodedDetails()
+            @Override
+            public OAuth2Authentication extractAuthentication(Map<String, ?> claims) {
+                OAuth2Authentication authentication = super.extractAuthentication(claims);
+                authentication.setDetails(claims);
+                return authentication;
+            }
+        };
         converter.setSigningKey(jwtKey);
         return converter;
     }
@@ -76,6 +88,8 @@ public class ResourceServerConfiguration extends ResourceServerConfigurerAdapter
                     .hasAnyAuthority("DOCTOR", "TOP_MANAGER")
                 .mvcMatchers(HttpMethod.DELETE, "/registrations/**")
                     .hasAuthority("TOP_MANAGER")
+                .mvcMatchers(HttpMethod.GET, "/doctors/**")
+                    .hasAnyAuthority("DOCTOR", "TOP_MANAGER")
                 .and()
             .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.NEVER);
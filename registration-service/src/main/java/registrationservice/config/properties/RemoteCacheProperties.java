@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Remote projection cache properties loaded from configuration file.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "remote-cache")
+@Component
+public class RemoteCacheProperties {
+    private Cache doctors = new Cache();
+    private Cache clients = new Cache();
+    private int revalidatedResponses = 1000;
+
+    public Cache getDoctors() {
+        return doctors;
+    }
+
+    public void setDoctors(Cache doctors) {
+        this.doctors = doctors;
+    }
+
+    public Cache getClients() {
+        return clients;
+    }
+
+    public void setClients(Cache clients) {
+        this.clients = clients;
+    }
+
+    public int getRevalidatedResponses() {
+        return revalidatedResponses;
+    }
+
+    public void setRevalidatedResponses(int revalidatedResponses) {
+        this.revalidatedResponses = revalidatedResponses;
+    }
+
+    public static class Cache {
+        private long maximumSize = 1000;
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * Doctor slot properties loaded from configuration file.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "slots")
+@Component
+public class SlotProperties {
+    private Duration length = Duration.ofMinutes(30);
+    private LocalTime workdayStart = LocalTime.of(9, 0);
+    private LocalTime workdayEnd = LocalTime.of(18, 0);
+
+    public Duration getLength() {
+        return length;
+    }
+
+    public void setLength(Duration length) {
+        this.length = length;
+    }
+
+    public LocalTime getWorkdayStart() {
+        return workdayStart;
+    }
+
+    public void setWorkdayStart(LocalTime workdayStart) {
+        this.workdayStart = workdayStart;
+    }
+
+    public LocalTime getWorkdayEnd() {
+        return workdayEnd;
+    }
+
+    public void setWorkdayEnd(LocalTime workdayEnd) {
+        this.workdayEnd = workdayEnd;
+    }
+}
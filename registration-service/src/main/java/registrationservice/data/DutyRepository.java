@@ -17,10 +17,13 @@
 package registrationservice.data;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import registrationservice.service.duty.Duty;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -37,4 +40,14 @@ public interface DutyRepository extends JpaRepository<Duty, Long> {
      * @return the duty with the specified name or Optional#empty() if none found
      */
     Optional<Duty> findByName(String name);
+
+    /**
+     * Retrieves IDs of existing duties among the specified ones.
+     *
+     * @param ids IDs of duties to check
+     *
+     * @return IDs of existing duties
+     */
+    @Query("SELECT d.id FROM Duty d WHERE d.id IN ?1")
+    List<Long> findAllIdsByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import registrationservice.service.registration.Registration;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC implementation of RegistrationBatchRepository.
+ * Registration IDs are generated by the database, which makes Hibernate
+ * insert rows one by one, so batches are sent through JDBC directly.
+ * MySQL sends a batch as a single statement only if the connection uses rewriteBatchedStatements=true.
+ */
+public class RegistrationBatchRepositoryImpl implements RegistrationBatchRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO registration(date, is_active, client_id, client_email, client_name, " +
+            "doctor_id, doctor_email, doctor_name, duty_id, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RegistrationBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Registration> registrations) {
+        for (int i = 0; i < registrations.size(); i += BATCH_SIZE) {
+            insertBatch(registrations.subList(i, Math.min(i + BATCH_SIZE, registrations.size())));
+        }
+    }
+
+    private void insertBatch(List<Registration> batch) {
+        PreparedStatementCreator creator =
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+        PreparedStatementCallback<Void> callback = statement -> {
+            for (Registration registration : batch) {
+                statement.setTimestamp(1, Timestamp.valueOf(registration.getDate()));
+                statement.setObject(2, registration.isActive(), Types.BOOLEAN);
+                statement.setLong(3, registration.getClient().getId());
+                statement.setString(4, registration.getClient().getEmail());
+                statement.setString(5, registration.getClient().getName());
+                statement.setLong(6, registration.getDoctor().getId());
+                statement.setString(7, registration.getDoctor().getEmail());
+                statement.setString(8, registration.getDoctor().getName());
+                statement.setLong(9, registration.getDuty().getId());
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (Registration registration : batch) {
+                    if (!keys.next()) {
+                        throw new DataRetrievalFailureException("Generated registration IDs missing");
+                    }
+
+                    registration.setId(keys.getLong(1));
+                    registration.setVersion(0L);
+                }
+            }
+
+            return null;
+        };
+
+        jdbcTemplate.execute(creator, callback);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.data;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import registrationservice.service.registration.RegistrationIntake;
+import registrationservice.service.registration.RegistrationIntake.Status;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A RegistrationIntakeRepository abstracts a collection of RegistrationIntake objects.
+ */
+@Repository
+public interface RegistrationIntakeRepository extends JpaRepository<RegistrationIntake, Long> {
+
+    /**
+     * Retrieves IDs of the oldest intakes with the specified status.
+     *
+     * @param status status of intakes to get
+     * @param pageable number of IDs to get
+     *
+     * @return IDs of intakes ordered by ID
+     */
+    @Query("SELECT i.id FROM RegistrationIntake i WHERE i.status = ?1 ORDER BY i.id")
+    List<Long> findIdsByStatus(Status status, Pageable pageable);
+
+    /**
+     * Retrieves intakes claimed with the specified claim.
+     *
+     * @param claim claim of intakes to get
+     *
+     * @return claimed intakes ordered by ID
+     */
+    List<RegistrationIntake> findAllByClaimOrderById(String claim);
+
+    /**
+     * Counts intakes with the specified status.
+     *
+     * @param status status of intakes to count
+     *
+     * @return the number of intakes
+     */
+    long countByStatus(Status status);
+
+    /**
+     * Marks pending intakes with the specified IDs as processing with the specified claim.
+     * Intakes claimed concurrently by another worker are skipped.
+     *
+     * @param ids IDs of intakes to claim
+     * @param claim unique claim of the worker
+     * @param pending pending status
+     * @param processing processing status
+     * @param now current time
+     *
+     * @return the number of claimed intakes
+     */
+    @Modifying
+    @Query("UPDATE RegistrationIntake i SET i.status = ?4, i.claim = ?2, i.updatedAt = ?5 " +
+            "WHERE i.id IN ?1 AND i.status = ?3")
+    int claim(Collection<Long> ids, String claim, Status pending, Status processing, LocalDateTime now);
+
+    /**
+     * Returns intakes being processed with the specified claim to pending state.
+     *
+     * @param claim claim of intakes to release
+     * @param processing processing status
+     * @param pending pending status
+     *
+     * @return the number of released intakes
+     */
+    @Modifying
+    @Query("UPDATE RegistrationIntake i SET i.status = ?3, i.claim = null " +
+            "WHERE i.claim = ?1 AND i.status = ?2")
+    int release(String claim, Status processing, Status pending);
+
+    /**
+     * Returns intakes being processed since before the specified time to pending state.
+     *
+     * @param before claim time threshold
+     * @param processing processing status
+     * @param pending pending status
+     *
+     * @return the number of released intakes
+     */
+    @Modifying
+    @Query("UPDATE RegistrationIntake i SET i.status = ?3, i.claim = null " +
+            "WHERE i.status = ?2 AND i.updatedAt < ?1")
+    int releaseAllClaimedBefore(LocalDateTime before, Status processing, Status pending);
+}
@@ -16,18 +16,31 @@
 
 package registrationservice.data;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import registrationservice.service.registration.Registration;
 
+import javax.persistence.QueryHint;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 /**
  * A RegistrationRepository abstracts a collection of Registration objects.
  */
 @Repository
-public interface RegistrationRepository extends JpaRepository<Registration, Long> {
+public interface RegistrationRepository extends JpaRepository<Registration, Long>, RegistrationBatchRepository,
+        RegistrationSearchRepository {
 
     /**
      * Retrieves all registrations with the specified client ID.
@@ -55,4 +68,165 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
      * @return all registrations with the specified duty ID
      */
     List<Registration> findAllByDutyId(long dutyId);
+
+    /**
+     * Retrieves a slice of registrations with IDs greater than the specified one.
+     *
+     * @param id ID after which the slice starts
+     * @param pageable slice size and order
+     *
+     * @return a slice of registrations with IDs greater than the specified one
+     */
+    Slice<Registration> findAllByIdGreaterThan(long id, Pageable pageable);
+
+    /**
+     * Retrieves a slice of registrations with the specified client ID
+     * and IDs greater than the specified one.
+     *
+     * @param clientId client ID of registration to get
+     * @param id ID after which the slice starts
+     * @param pageable slice size and order
+     *
+     * @return a slice of registrations with the specified client ID
+     */
+    Slice<Registration> findAllByClientIdAndIdGreaterThan(long clientId, long id, Pageable pageable);
+
+    /**
+     * Retrieves a slice of registrations with the specified doctor ID
+     * and IDs greater than the specified one.
+     *
+     * @param doctorId doctor ID of registration to get
+     * @param id ID after which the slice starts
+     * @param pageable slice size and order
+     *
+     * @return a slice of registrations with the specified doctor ID
+     */
+    Slice<Registration> findAllByDoctorIdAndIdGreaterThan(long doctorId, long id, Pageable pageable);
+
+    /**
+     * Retrieves registrations of the doctor with the specified ID within the specified period
+     * ordered by date.
+     *
+     * @param doctorId doctor ID of registrations to get
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     *
+     * @return registrations of the doctor within the period
+     */
+    @Query("SELECT r FROM Registration r LEFT JOIN FETCH r.duty " +
+            "WHERE r.doctor.id = ?1 AND r.date >= ?2 AND r.date < ?3 ORDER BY r.date, r.id")
+    List<Registration> findAllByDoctorIdWithin(long doctorId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Retrieves IDs of the doctor and the client of the registration with the specified ID
+     * without loading the registration itself.
+     *
+     * @param id ID of the registration
+     *
+     * @return owners of the registration or Optional#empty() if none found
+     */
+    @Query("SELECT r.doctor.id AS doctorId, r.client.id AS clientId FROM Registration r WHERE r.id = ?1")
+    Optional<RegistrationOwners> findOwnersById(long id);
+
+    /**
+     * Retrieves the version of the registration with the specified ID without loading the registration itself.
+     *
+     * @param id ID of the registration
+     *
+     * @return the version or Optional#empty() if none found
+     */
+    @Query("SELECT r.version FROM Registration r WHERE r.id = ?1")
+    Optional<Long> findVersionById(long id);
+
+    /**
+     * Retrieves slots booked by active registrations starting from the specified date.
+     *
+     * @param from date to start from
+     *
+     * @return slots booked by active registrations
+     */
+    @Query("SELECT r.id AS id, r.doctor.id AS doctorId, r.date AS date FROM Registration r " +
+            "WHERE r.isActive = true AND r.date >= ?1")
+    List<BookedSlot> findAllBookedSlotsFrom(LocalDateTime from);
+
+    /**
+     * Removes the duty with the specified ID from all registrations with a single statement.
+     *
+     * @param dutyId ID of the duty to remove
+     *
+     * @return the number of updated registrations
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED Registration r SET r.duty = null WHERE r.duty.id = ?1")
+    int detachDuty(long dutyId);
+
+    /**
+     * Deactivates active registrations of the doctor with the specified ID
+     * within the specified period with a single statement.
+     *
+     * @param doctorId doctor ID of registrations to deactivate
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     *
+     * @return the number of deactivated registrations
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED Registration r SET r.isActive = false " +
+            "WHERE r.doctor.id = ?1 AND r.date >= ?2 AND r.date < ?3 AND r.isActive = true")
+    int deactivateAllByDoctorId(long doctorId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Retrieves distinct doctor data stored on registration rows.
+     *
+     * @return distinct doctor snapshots
+     */
+    @Query("SELECT DISTINCT r.doctor.id AS id, r.doctor.email AS email, r.doctor.name AS name " +
+            "FROM Registration r")
+    List<OwnerSnapshot> findAllDoctorSnapshots();
+
+    /**
+     * Retrieves distinct client data stored on registration rows.
+     *
+     * @return distinct client snapshots
+     */
+    @Query("SELECT DISTINCT r.client.id AS id, r.client.email AS email, r.client.name AS name " +
+            "FROM Registration r")
+    List<OwnerSnapshot> findAllClientSnapshots();
+
+    /**
+     * Replaces doctor data stored on all registrations of the doctor with the specified ID.
+     *
+     * @param doctorId ID of the doctor
+     * @param email new doctor email
+     * @param name new doctor name
+     *
+     * @return the number of updated registrations
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Registration r SET r.doctor.email = ?2, r.doctor.name = ?3 WHERE r.doctor.id = ?1")
+    int updateDoctorSnapshot(long doctorId, String email, String name);
+
+    /**
+     * Replaces client data stored on all registrations of the client with the specified ID.
+     *
+     * @param clientId ID of the client
+     * @param email new client email
+     * @param name new client name
+     *
+     * @return the number of updated registrations
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Registration r SET r.client.email = ?2, r.client.name = ?3 WHERE r.client.id = ?1")
+    int updateClientSnapshot(long clientId, String email, String name);
+
+    /**
+     * Streams all registrations ordered by ID. Rows are fetched from the database
+     * in batches, so the stream must be consumed inside a transaction and closed afterwards.
+     * MySQL honours the fetch size only if the connection uses useCursorFetch=true.
+     *
+     * @return a stream of all registrations
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Registration r LEFT JOIN FETCH r.duty ORDER BY r.id")
+    Stream<Registration> streamAll();
 }
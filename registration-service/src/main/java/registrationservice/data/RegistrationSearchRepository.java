@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.data;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import registrationservice.service.registration.Registration;
+
+/**
+ * Searches registrations by arbitrary criteria.
+ */
+public interface RegistrationSearchRepository {
+
+    /**
+     * Retrieves a slice of registrations matching the specified criteria
+     * with IDs greater than the specified one. Unlike Page queries,
+     * no count query is run: one extra row is fetched to tell if more registrations exist.
+     *
+     * @param specification search criteria, may be null
+     * @param afterId ID after which the slice starts
+     * @param size slice size
+     *
+     * @return a slice of registrations ordered by ID
+     */
+    Slice<Registration> search(Specification<Registration> specification, long afterId, int size);
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import registrationservice.service.registration.Registration;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import java.util.List;
+
+/**
+ * Criteria API implementation of RegistrationSearchRepository.
+ * Slices are read without a count query: one row more than requested is fetched
+ * and dropped if present.
+ */
+public class RegistrationSearchRepositoryImpl implements RegistrationSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public RegistrationSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<Registration> search(Specification<Registration> specification, long afterId, int size) {
+        Specification<Registration> afterCursor = (root, query, builder) -> builder.gt(root.get("id"), afterId);
+        Specification<Registration> criteria = afterCursor.and(specification);
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Registration> query = builder.createQuery(Registration.class);
+        Root<Registration> root = query.from(Registration.class);
+        query.select(root)
+                .where(criteria.toPredicate(root, query, builder))
+                .orderBy(builder.asc(root.get("id")));
+
+        List<Registration> registrations = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = registrations.size() > size;
+        List<Registration> content = hasNext ? registrations.subList(0, size) : registrations;
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by("id")), hasNext);
+    }
+}
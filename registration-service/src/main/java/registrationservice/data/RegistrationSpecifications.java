@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.data;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import registrationservice.service.registration.Registration;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registration search criteria. Every method returns null for a null argument,
+ * so the criterion is skipped when combined with Specification#where and Specification#and.
+ */
+public final class RegistrationSpecifications {
+
+    private RegistrationSpecifications() {
+    }
+
+    public static Specification<Registration> hasDoctorId(Long doctorId) {
+        return (doctorId == null) ? null
+                : (root, query, builder) -> builder.equal(root.get("doctor").get("id"), doctorId);
+    }
+
+    public static Specification<Registration> hasClientId(Long clientId) {
+        return (clientId == null) ? null
+                : (root, query, builder) -> builder.equal(root.get("client").get("id"), clientId);
+    }
+
+    public static Specification<Registration> hasDutyId(Long dutyId) {
+        return (dutyId == null) ? null
+                : (root, query, builder) -> builder.equal(root.get("duty").get("id"), dutyId);
+    }
+
+    public static Specification<Registration> isActive(Boolean isActive) {
+        return (isActive == null) ? null
+                : (root, query, builder) -> builder.equal(root.get("isActive"), isActive);
+    }
+
+    public static Specification<Registration> startsFrom(LocalDateTime from) {
+        return (from == null) ? null
+                : (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("date"), from);
+    }
+
+    public static Specification<Registration> startsBefore(LocalDateTime to) {
+        return (to == null) ? null
+                : (root, query, builder) -> builder.lessThan(root.get("date"), to);
+    }
+}
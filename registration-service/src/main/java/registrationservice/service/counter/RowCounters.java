@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.counter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import registrationservice.data.DutyRepository;
+import registrationservice.data.RegistrationRepository;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory row counts of the service tables, so info and metrics endpoints
+ * read them in O(1) instead of scanning the tables.
+ * Counts are seeded at startup, changed by services after their transactions commit
+ * and periodically reconciled against the database, which fixes any drift
+ * caused by changes made outside the services.
+ */
+@Component
+public class RowCounters {
+    public static final String REGISTRATIONS = "registrations";
+    public static final String DUTIES = "duties";
+
+    private static final Logger logger = LogManager.getLogger(RowCounters.class);
+
+    private final Map<String, LongSupplier> sources;
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RowCounters(RegistrationRepository registrationRepository,
+                       DutyRepository dutyRepository,
+                       MeterRegistry meterRegistry) {
+        this.sources = Map.of(REGISTRATIONS, registrationRepository::count,
+                DUTIES, dutyRepository::count);
+        sources.keySet().forEach(table -> {
+            AtomicLong count = new AtomicLong();
+            counts.put(table, count);
+            Gauge.builder("table.rows", count, AtomicLong::get)
+                    .description("Number of rows in the table")
+                    .tag("table", table)
+                    .register(meterRegistry);
+        });
+    }
+
+    /**
+     * Seeds the counts from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+        logger.info("Row counters loaded: " + counts);
+    }
+
+    /**
+     * Replaces the counts with the actual numbers of rows in the database.
+     */
+    @Scheduled(fixedDelayString = "${row-counters.reconcile-millis:300000}",
+            initialDelayString = "${row-counters.reconcile-millis:300000}")
+    public void reconcile() {
+        sources.forEach((table, source) -> {
+            try {
+                long actual = source.getAsLong();
+                long previous = counts.get(table).getAndSet(actual);
+                if (previous != actual) {
+                    logger.debug("Row counter " + table + " reconciled: " + previous + " -> " + actual);
+                }
+            } catch (Exception e) {
+                logger.warn("Row counter " + table + " cannot be reconciled: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Returns the current row count of the specified table.
+     *
+     * @param table name of the table
+     *
+     * @return the row count
+     *
+     * @throws NoSuchElementException if the table is not counted
+     */
+    public long get(String table) {
+        return counterOf(table).get();
+    }
+
+    private AtomicLong counterOf(String table) {
+        AtomicLong count = counts.get(table);
+        if (count == null) {
+            throw new NoSuchElementException("No row counter for table " + table);
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds the specified delta to the row count of the specified table
+     * after the current transaction commits, or immediately if there is no transaction.
+     *
+     * @param table name of the table
+     * @param delta number of inserted rows, negative for deleted rows
+     *
+     * @throws NoSuchElementException if the table is not counted
+     */
+    public void add(String table, long delta) {
+        AtomicLong count = counterOf(table);
+        if (delta != 0) {
+            afterCommit(() -> count.addAndGet(delta));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
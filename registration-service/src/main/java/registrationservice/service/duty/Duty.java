@@ -16,6 +16,8 @@
 
 package registrationservice.service.duty;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import registrationservice.service.external.employee.Doctor;
 
 import javax.persistence.Column;
@@ -25,6 +27,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
@@ -66,6 +69,11 @@ public class Duty implements Serializable {
     @Transient
     private Collection<Doctor> doctors;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     /**
      * @return Duty builder
      */
@@ -100,6 +108,7 @@ public class Duty implements Serializable {
         neededSpecialty = other.neededSpecialty;
         price = other.price;
         doctors = new ArrayList<>(other.doctors);
+        version = other.version;
     }
 
     public Long getId() {
@@ -150,6 +159,14 @@ public class Duty implements Serializable {
         this.doctors = doctors;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
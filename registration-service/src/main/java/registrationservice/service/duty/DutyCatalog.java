@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.duty;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Holds an immutable snapshot of all duties with their doctors.
+ * A new snapshot replaces the previous one as a whole, so readers
+ * never see a partially updated catalog and do not need locks.
+ */
+@Component
+public class DutyCatalog {
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * @return the current snapshot or null if the catalog has not been built yet or was invalidated
+     */
+    public Snapshot get() {
+        return snapshot.get();
+    }
+
+    /**
+     * Replaces the current snapshot with a snapshot of the specified duties.
+     * Every published snapshot gets a new version, even after invalidation.
+     *
+     * @param duties duties to publish
+     *
+     * @return the published snapshot
+     */
+    public Snapshot publish(List<Duty> duties) {
+        Snapshot published = new Snapshot(versions.incrementAndGet(), duties);
+        snapshot.set(published);
+        return published;
+    }
+
+    /**
+     * Drops the current snapshot, so the next read rebuilds it.
+     */
+    public void invalidate() {
+        snapshot.set(null);
+    }
+
+    /**
+     * Immutable state of the duty catalog.
+     */
+    public static class Snapshot {
+        private final long version;
+        private final List<Duty> duties;
+
+        private Snapshot(long version, List<Duty> duties) {
+            this.version = version;
+            this.duties = duties.stream()
+                    .map(Duty::new)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return duties of the snapshot. Returned duties are shared, so they must not be modified
+         */
+        public List<Duty> getDuties() {
+            return duties;
+        }
+    }
+}
@@ -33,9 +33,33 @@ public interface DutyService {
      * @return all duties from the remote duty repository
      *
      * @throws RemoteResourceException if there is any problem with the remote duty repository
+     * or doctors of duties cannot be loaded
      */
     List<Duty> findAll();
 
+    /**
+     * Returns the current snapshot of the duty catalog, building it if needed.
+     * The snapshot is rebuilt after every change of duties and periodically
+     * to pick up changes of doctors.
+     *
+     * @return the current snapshot of the duty catalog
+     *
+     * @throws RemoteResourceException if there is any problem with the remote duty repository
+     */
+    DutyCatalog.Snapshot getCatalog();
+
+    /**
+     * Rebuilds the snapshot of the duty catalog from the remote duty repository.
+     * A snapshot is never published without doctors of its duties: if they cannot be loaded,
+     * the catalog is invalidated instead.
+     *
+     * @return the new snapshot of the duty catalog
+     *
+     * @throws RemoteResourceException if there is any problem with the remote duty repository
+     * or doctors of duties cannot be loaded
+     */
+    DutyCatalog.Snapshot refreshCatalog();
+
     /**
      * Looks for a duty with the specified ID in the remote duty repository.
      *
@@ -25,23 +25,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import registrationservice.data.DutyRepository;
 import registrationservice.data.RegistrationRepository;
+import registrationservice.service.counter.RowCounters;
 import registrationservice.service.exception.IllegalModificationException;
 import registrationservice.service.exception.RemoteResourceException;
 import registrationservice.service.external.employee.EmployeeServiceFeignClient;
 import registrationservice.service.external.employee.Doctor;
-import registrationservice.service.registration.Registration;
+import registrationservice.service.registration.AgendaCache;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
-import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -57,18 +62,27 @@ public class DutyServiceImpl implements DutyService {
     private final EmployeeServiceFeignClient employeeService;
     private final Validator validator;
     private final CircuitBreaker circuitBreaker;
+    private final DutyCatalog catalog;
+    private final AgendaCache agendaCache;
+    private final RowCounters rowCounters;
 
     @Autowired
     public DutyServiceImpl(DutyRepository dutyRepository,
                            RegistrationRepository registrationRepository,
                            EmployeeServiceFeignClient employeeService,
                            Validator validator,
-                           CircuitBreaker circuitBreaker) {
+                           CircuitBreaker circuitBreaker,
+                           DutyCatalog catalog,
+                           AgendaCache agendaCache,
+                           RowCounters rowCounters) {
         this.dutyRepository = dutyRepository;
         this.registrationRepository = registrationRepository;
         this.employeeService = employeeService;
         this.validator = validator;
         this.circuitBreaker = circuitBreaker;
+        this.catalog = catalog;
+        this.agendaCache = agendaCache;
+        this.rowCounters = rowCounters;
     }
 
     @Override
@@ -76,7 +90,7 @@ public class DutyServiceImpl implements DutyService {
         try {
             Supplier<List<Duty>> findAll = dutyRepository::findAll;
             List<Duty> duties = circuitBreaker.decorateSupplier(findAll).get();
-            duties.forEach(this::loadDoctors);
+            loadDoctors(duties);
             return duties;
         } catch (RemoteResourceException e) {
             throw e;
@@ -85,19 +99,96 @@ public class DutyServiceImpl implements DutyService {
         }
     }
 
-    private void loadDoctors(Duty duty) {
+    // A single duty is still served if its doctors cannot be loaded
+    private void tryLoadDoctors(Duty duty) {
         try {
+            loadDoctors(List.of(duty));
+        } catch (RemoteResourceException e) {
+            logger.error("Employee microservice unavailable: " + e.getCause().getMessage());
+        }
+    }
+
+    private void loadDoctors(List<Duty> duties) {
+        // Duties needing the same specialty share a single doctor set
+        Map<String, List<Duty>> dutiesBySpecialty = duties.stream()
+                .filter(duty -> duty.getNeededSpecialty() != null)
+                .collect(Collectors.groupingBy(duty -> specialtyKey(duty.getNeededSpecialty())));
+        if (dutiesBySpecialty.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<String> specialties = dutiesBySpecialty.values().stream()
+                    .map(group -> group.get(0).getNeededSpecialty())
+                    .collect(Collectors.toList());
             Supplier<CollectionModel<EntityModel<Doctor>>> find = () ->
-                    employeeService.findAllDoctorsBySpecialty(duty.getNeededSpecialty());
-            Collection<Doctor> doctors = circuitBreaker.decorateSupplier(find)
+                    employeeService.findAllDoctorsBySpecialties(specialties);
+            Map<String, Set<Doctor>> doctorsBySpecialty = circuitBreaker.decorateSupplier(find)
                     .get()
                     .getContent()
                     .stream()
                     .map(EntityModel::getContent)
-                    .collect(Collectors.toSet());
-            duty.setDoctors(doctors);
+                    .filter(doctor -> doctor.getSpecialty() != null)
+                    .collect(Collectors.groupingBy(doctor -> specialtyKey(doctor.getSpecialty()),
+                            Collectors.toUnmodifiableSet()));
+            dutiesBySpecialty.forEach((specialty, group) -> {
+                Set<Doctor> doctors = doctorsBySpecialty.getOrDefault(specialty, Collections.emptySet());
+                group.forEach(duty -> duty.setDoctors(doctors));
+            });
         } catch (Exception e) {
-            logger.error("Employee microservice unavailable: " + e.getMessage());
+            throw new RemoteResourceException("Employee microservice unavailable", e);
+        }
+    }
+
+    // Specialties are compared the way the employee database does, ignoring case
+    private String specialtyKey(String specialty) {
+        return specialty.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public DutyCatalog.Snapshot getCatalog() {
+        DutyCatalog.Snapshot snapshot = catalog.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        synchronized (this) {
+            snapshot = catalog.get();
+            return (snapshot == null) ? refreshCatalog() : snapshot;
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${duty-catalog.refresh-millis:300000}",
+            initialDelayString = "${duty-catalog.refresh-millis:300000}")
+    public synchronized DutyCatalog.Snapshot refreshCatalog() {
+        try {
+            return catalog.publish(findAll());
+        } catch (RemoteResourceException e) {
+            catalog.invalidate();
+            throw e;
+        }
+    }
+
+    private void refreshCatalogAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tryRefreshCatalog();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tryRefreshCatalog();
+            }
+        });
+    }
+
+    private void tryRefreshCatalog() {
+        try {
+            refreshCatalog();
+        } catch (RemoteResourceException e) {
+            logger.error("Duty catalog not refreshed: " + e.getMessage());
         }
     }
 
@@ -106,7 +197,7 @@ public class DutyServiceImpl implements DutyService {
         try {
             Supplier<Optional<Duty>> findById = () -> dutyRepository.findById(id);
             Optional<Duty> duty = circuitBreaker.decorateSupplier(findById).get();
-            duty.ifPresent(this::loadDoctors);
+            duty.ifPresent(this::tryLoadDoctors);
             return duty;
         } catch (RemoteResourceException e) {
             throw e;
@@ -120,7 +211,7 @@ public class DutyServiceImpl implements DutyService {
         try {
             Supplier<Optional<Duty>> findByName = () -> dutyRepository.findByName(name);
             Optional<Duty> duty = circuitBreaker.decorateSupplier(findByName).get();
-            duty.ifPresent(this::loadDoctors);
+            duty.ifPresent(this::tryLoadDoctors);
             return duty;
         } catch (RemoteResourceException e) {
             throw e;
@@ -145,7 +236,9 @@ public class DutyServiceImpl implements DutyService {
             validate(duty);
             Duty dutyToSave = prepareSaveData(duty);
             Duty saved = persistDuty(dutyToSave);
-            loadDoctors(saved);
+            tryLoadDoctors(saved);
+            refreshCatalogAfterCommit();
+            rowCounters.add(RowCounters.DUTIES, 1);
             logger.info("Duty " + saved.getName() + " saved. ID - " + saved.getId());
             return saved;
         } catch (IllegalModificationException | RemoteResourceException e) {
@@ -196,7 +289,9 @@ public class DutyServiceImpl implements DutyService {
             validate(dutyToUpdate);
 
             Duty updated = persistDuty(dutyToUpdate);
-            loadDoctors(updated);
+            tryLoadDoctors(updated);
+            refreshCatalogAfterCommit();
+            agendaCache.clear();
             logger.info("Duty " + updated.getId() + " updated");
             return updated;
         } catch (IllegalModificationException | RemoteResourceException e) {
@@ -217,6 +312,9 @@ public class DutyServiceImpl implements DutyService {
         try {
             deleteDutyFromRegistrations(id);
             deleteDuty(id);
+            refreshCatalogAfterCommit();
+            agendaCache.clear();
+            rowCounters.add(RowCounters.DUTIES, -1);
             logger.info("Duty " + id + " deleted");
         } catch (EmptyResultDataAccessException e) {
             throw new IllegalModificationException("No duty with id " + id, e);
@@ -226,19 +324,9 @@ public class DutyServiceImpl implements DutyService {
     }
 
     private void deleteDutyFromRegistrations(long dutyId) {
-        Supplier<List<Registration>> findAllByDuty = () -> registrationRepository.findAllByDutyId(dutyId);
-        List<Registration> registrations = circuitBreaker.decorateSupplier(findAllByDuty).get();
-        registrations.forEach(registration -> registration.setDuty(null));
-        persistRegistrations(registrations);
-    }
-
-    private void persistRegistrations(List<Registration> registrations) {
-        Runnable save = () -> {
-            registrationRepository.saveAll(registrations);
-            registrationRepository.flush();
-        };
-
-        circuitBreaker.decorateRunnable(save).run();
+        Supplier<Integer> detachDuty = () -> registrationRepository.detachDuty(dutyId);
+        int updated = circuitBreaker.decorateSupplier(detachDuty).get();
+        logger.info("Duty " + dutyId + " removed from " + updated + " registrations");
     }
 
     private void deleteDuty(long id) {
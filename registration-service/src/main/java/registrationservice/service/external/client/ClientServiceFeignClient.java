@@ -19,12 +19,17 @@ package registrationservice.service.external.client;
 import feign.FeignException.FeignClientException;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import registrationservice.config.OauthFeignConfiguration;
 
+import java.util.Collection;
+
 /**
  * Provides access to client microservice.
  */
@@ -44,4 +49,33 @@ public interface ClientServiceFeignClient {
             value = "/clients/{id}",
             consumes = "application/json")
     Client findClientById(@PathVariable Long id);
+
+    /**
+     * Looks for a client with the specified email.
+     *
+     * @param email email of the client to get
+     *
+     * @return client with the specified email
+     *
+     * @throws FeignClientException if there is any problem with feign client
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = "/clients",
+            consumes = "application/json")
+    Client findClientByEmail(@RequestParam("email") String email);
+
+    /**
+     * Looks for all clients with the specified IDs in a single request.
+     * IDs with no matching client are ignored.
+     *
+     * @param ids IDs of the clients to get
+     *
+     * @return all clients with the specified IDs
+     *
+     * @throws FeignClientException if there is any problem with feign client
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = "/clients",
+            consumes = "application/json")
+    CollectionModel<EntityModel<Client>> findAllClientsByIds(@RequestParam("ids") Collection<Long> ids);
 }
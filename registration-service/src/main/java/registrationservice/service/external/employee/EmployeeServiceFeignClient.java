@@ -24,9 +24,12 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import registrationservice.config.OauthFeignConfiguration;
 
+import java.util.Collection;
+
 /**
  * Provides access to employee microservice.
  */
@@ -48,16 +51,46 @@ public interface EmployeeServiceFeignClient {
     Doctor findDoctorById(@PathVariable Long id);
 
     /**
-     * Looks for all doctors with the specified speciality.
+     * Looks for a doctor with the specified email.
+     *
+     * @param email email of the doctor to get
+     *
+     * @return doctor with the specified email
+     *
+     * @throws FeignClientException if there is any problem with feign client
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = "/doctors/{email}?email={email}",
+            consumes = "application/json")
+    Doctor findDoctorByEmail(@PathVariable("email") String email);
+
+    /**
+     * Looks for all doctors with any of the specified specialities in a single request.
+     *
+     * @param specialties specialities of the doctors to get
+     *
+     * @return all doctors with any of the specified specialities
+     *
+     * @throws FeignClientException if there is any problem with feign client
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = "/doctors",
+            consumes = "application/json")
+    CollectionModel<EntityModel<Doctor>> findAllDoctorsBySpecialties(
+            @RequestParam("specialties") Collection<String> specialties);
+
+    /**
+     * Looks for all doctors with the specified IDs in a single request.
+     * IDs with no matching doctor are ignored.
      *
-     * @param specialty speciality of the doctors to get
+     * @param ids IDs of the doctors to get
      *
-     * @return all doctors with the specified speciality
+     * @return all doctors with the specified IDs
      *
      * @throws FeignClientException if there is any problem with feign client
      */
     @RequestMapping(method = RequestMethod.GET,
-            value = "/doctors?specialty={specialty}",
+            value = "/doctors",
             consumes = "application/json")
-    CollectionModel<EntityModel<Doctor>> findAllDoctorsBySpecialty(@PathVariable String specialty);
+    CollectionModel<EntityModel<Doctor>> findAllDoctorsByIds(@RequestParam("ids") Collection<Long> ids);
 }
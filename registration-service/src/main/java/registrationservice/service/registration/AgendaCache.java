@@ -0,0 +1,235 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import registrationservice.config.properties.AgendaProperties;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory LRU cache of doctor agendas keyed by doctor ID and day.
+ * Cached agendas are kept up to date incrementally: changes of registrations
+ * are applied after the transaction that made them commits.
+ */
+@Component
+public class AgendaCache {
+    private final Map<AgendaKey, DoctorAgenda> agendas;
+    private final Map<Long, AgendaKey> keysByRegistration = new HashMap<>();
+
+    // Incremented on every change, so an agenda loaded concurrently with a change is not cached
+    private long version;
+
+    @Autowired
+    public AgendaCache(AgendaProperties properties) {
+        int capacity = properties.getCapacity();
+        this.agendas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AgendaKey, DoctorAgenda> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+
+                unindex(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the agenda of the specified doctor for the specified day.
+     * The agenda is loaded and cached if it is not cached yet.
+     *
+     * @param doctorId ID of the doctor
+     * @param day agenda day
+     * @param loader loads registrations of the doctor within the day
+     *
+     * @return the agenda
+     */
+    public DoctorAgenda get(long doctorId, LocalDate day, Supplier<List<Registration>> loader) {
+        AgendaKey key = new AgendaKey(doctorId, day);
+        long loadedAt;
+        synchronized (this) {
+            DoctorAgenda agenda = agendas.get(key);
+            if (agenda != null) {
+                return agenda;
+            }
+
+            loadedAt = version;
+        }
+
+        List<Registration> registrations = loader.get().stream()
+                .map(Registration::new)
+                .collect(Collectors.toList());
+        DoctorAgenda agenda = new DoctorAgenda(doctorId, day, registrations);
+        synchronized (this) {
+            if (version == loadedAt) {
+                store(key, agenda);
+            }
+        }
+
+        return agenda;
+    }
+
+    /**
+     * Adds the specified registration to the cached agenda of its doctor and day
+     * or replaces it there, removing it from any other agenda.
+     *
+     * @param registration saved registration
+     */
+    public void put(Registration registration) {
+        Registration copy = new Registration(registration);
+        afterCommit(() -> doPut(copy));
+    }
+
+    private synchronized void doPut(Registration registration) {
+        version++;
+        doRemove(registration.getId());
+        AgendaKey key = keyOf(registration);
+        DoctorAgenda agenda = agendas.get(key);
+        if (agenda != null) {
+            store(key, agenda.with(registration));
+        }
+    }
+
+    /**
+     * Removes the registration with the specified ID from cached agendas.
+     *
+     * @param registrationId ID of the deleted registration
+     */
+    public void remove(long registrationId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                doRemove(registrationId);
+            }
+        });
+    }
+
+    private void doRemove(long registrationId) {
+        AgendaKey key = keysByRegistration.remove(registrationId);
+        DoctorAgenda agenda = (key == null) ? null : agendas.get(key);
+        if (agenda != null) {
+            store(key, agenda.without(registrationId));
+        }
+    }
+
+    /**
+     * Deactivates registrations of the doctor with the specified ID within the specified period
+     * in cached agendas.
+     *
+     * @param doctorId ID of the doctor
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     */
+    public void deactivateAll(long doctorId, LocalDateTime from, LocalDateTime to) {
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                List<AgendaKey> keys = agendas.keySet().stream()
+                        .filter(key -> key.doctorId == doctorId)
+                        .filter(key -> key.day.plusDays(1).atStartOfDay().isAfter(from))
+                        .filter(key -> key.day.atStartOfDay().isBefore(to))
+                        .collect(Collectors.toCollection(ArrayList::new));
+                keys.forEach(key -> store(key, agendas.get(key).deactivated(from, to)));
+            }
+        });
+    }
+
+    /**
+     * Drops all cached agendas. Use it when changes affect registrations
+     * of many doctors, e.g. a duty or stored doctor data was changed.
+     */
+    public void clear() {
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                agendas.clear();
+                keysByRegistration.clear();
+            }
+        });
+    }
+
+    private void store(AgendaKey key, DoctorAgenda agenda) {
+        agendas.put(key, agenda);
+        agenda.getRegistrations().forEach(registration -> keysByRegistration.put(registration.getId(), key));
+    }
+
+    private void unindex(DoctorAgenda agenda) {
+        agenda.getRegistrations().forEach(registration -> keysByRegistration.remove(registration.getId()));
+    }
+
+    private AgendaKey keyOf(Registration registration) {
+        return new AgendaKey(registration.getDoctor().getId(), registration.getDate().toLocalDate());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class AgendaKey {
+        private final long doctorId;
+        private final LocalDate day;
+
+        private AgendaKey(long doctorId, LocalDate day) {
+            this.doctorId = doctorId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+
+            AgendaKey key = (AgendaKey) other;
+            return doctorId == key.doctorId && day.equals(key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, day);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of saving a single registration of a batch.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    /**
+     * Batch item status.
+     */
+    public enum Status { CREATED, REJECTED }
+
+    private final int index;
+    private final Status status;
+    private final Registration registration;
+    private final String error;
+
+    private BatchItemResult(int index, Status status, Registration registration, String error) {
+        this.index = index;
+        this.status = status;
+        this.registration = registration;
+        this.error = error;
+    }
+
+    /**
+     * Creates a result of a saved registration.
+     *
+     * @param index position of the registration in the batch
+     * @param registration the saved registration
+     *
+     * @return a result of the saved registration
+     */
+    public static BatchItemResult created(int index, Registration registration) {
+        return new BatchItemResult(index, Status.CREATED, registration, null);
+    }
+
+    /**
+     * Creates a result of a rejected registration.
+     *
+     * @param index position of the registration in the batch
+     * @param error reason of the rejection
+     *
+     * @return a result of the rejected registration
+     */
+    public static BatchItemResult rejected(int index, String error) {
+        return new BatchItemResult(index, Status.REJECTED, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Registration getRegistration() {
+        return registration;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Registrations of a doctor within a single day ordered by date.
+ * An agenda is immutable, every change produces a new agenda.
+ */
+public class DoctorAgenda {
+    private static final Comparator<Registration> BY_DATE = Comparator.comparing(Registration::getDate)
+            .thenComparing(Registration::getId);
+
+    private final long doctorId;
+    private final LocalDate day;
+    private final List<Registration> registrations;
+    private final int active;
+
+    /**
+     * Constructs a new DoctorAgenda.
+     *
+     * @param doctorId ID of the doctor
+     * @param day agenda day
+     * @param registrations registrations of the doctor within the day in any order
+     */
+    public DoctorAgenda(long doctorId, LocalDate day, List<Registration> registrations) {
+        List<Registration> sorted = new ArrayList<>(registrations);
+        sorted.sort(BY_DATE);
+
+        this.doctorId = doctorId;
+        this.day = day;
+        this.registrations = Collections.unmodifiableList(sorted);
+        this.active = (int) sorted.stream()
+                .filter(registration -> Boolean.TRUE.equals(registration.isActive()))
+                .count();
+    }
+
+    /**
+     * Returns a copy of this agenda with the specified registration added or replaced.
+     *
+     * @param registration registration to put
+     *
+     * @return a new agenda
+     */
+    public DoctorAgenda with(Registration registration) {
+        List<Registration> changed = registrations.stream()
+                .filter(existing -> !existing.getId().equals(registration.getId()))
+                .collect(Collectors.toCollection(ArrayList::new));
+        changed.add(registration);
+        return new DoctorAgenda(doctorId, day, changed);
+    }
+
+    /**
+     * Returns a copy of this agenda without the registration with the specified ID.
+     *
+     * @param registrationId ID of the registration to remove
+     *
+     * @return a new agenda
+     */
+    public DoctorAgenda without(long registrationId) {
+        List<Registration> changed = registrations.stream()
+                .filter(existing -> existing.getId() != registrationId)
+                .collect(Collectors.toList());
+        return new DoctorAgenda(doctorId, day, changed);
+    }
+
+    /**
+     * Returns a copy of this agenda with registrations within the specified period deactivated.
+     *
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     *
+     * @return a new agenda
+     */
+    public DoctorAgenda deactivated(LocalDateTime from, LocalDateTime to) {
+        List<Registration> changed = registrations.stream()
+                .map(registration -> {
+                    if (registration.getDate().isBefore(from) || !registration.getDate().isBefore(to)) {
+                        return registration;
+                    }
+
+                    Registration deactivated = new Registration(registration);
+                    deactivated.setActive(false);
+                    return deactivated;
+                })
+                .collect(Collectors.toList());
+        return new DoctorAgenda(doctorId, day, changed);
+    }
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public List<Registration> getRegistrations() {
+        return registrations;
+    }
+
+    public int getTotal() {
+        return registrations.size();
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getInactive() {
+        return registrations.size() - active;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import feign.FeignException;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import registrationservice.data.OwnerSnapshot;
+import registrationservice.data.RegistrationRepository;
+import registrationservice.service.external.client.Client;
+import registrationservice.service.external.client.ClientServiceFeignClient;
+import registrationservice.service.external.employee.Doctor;
+import registrationservice.service.external.employee.EmployeeServiceFeignClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps doctor and client data stored on registration rows up to date.
+ * Changes noticed while serving requests are queued and written in the background,
+ * and all stored data is periodically compared with the remote services.
+ */
+@Component
+public class OwnerSnapshotRefresher {
+    private static final Logger logger = LogManager.getLogger(OwnerSnapshotRefresher.class);
+
+    // Keeps multi-get request URLs well below common server limits
+    private static final int IDS_PER_REQUEST = 100;
+
+    private final RegistrationRepository repository;
+    private final EmployeeServiceFeignClient employeeService;
+    private final ClientServiceFeignClient clientService;
+    private final CircuitBreaker circuitBreaker;
+    private final AgendaCache agendaCache;
+
+    private final Map<Long, Doctor> pendingDoctors = new ConcurrentHashMap<>();
+    private final Map<Long, Client> pendingClients = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OwnerSnapshotRefresher(RegistrationRepository repository,
+                                  EmployeeServiceFeignClient employeeService,
+                                  ClientServiceFeignClient clientService,
+                                  CircuitBreaker circuitBreaker,
+                                  AgendaCache agendaCache) {
+        this.repository = repository;
+        this.employeeService = employeeService;
+        this.clientService = clientService;
+        this.circuitBreaker = circuitBreaker;
+        this.agendaCache = agendaCache;
+    }
+
+    /**
+     * Queues stored data of the specified doctor to be replaced.
+     *
+     * @param doctor up-to-date doctor
+     */
+    public void refresh(Doctor doctor) {
+        pendingDoctors.put(doctor.getId(), new Doctor(doctor));
+    }
+
+    /**
+     * Queues stored data of the specified client to be replaced.
+     *
+     * @param client up-to-date client
+     */
+    public void refresh(Client client) {
+        pendingClients.put(client.getId(), new Client(client));
+    }
+
+    /**
+     * Writes queued doctor and client data to registration rows.
+     */
+    @Scheduled(fixedDelayString = "${owner-snapshots.flush-millis:5000}")
+    @Transactional
+    public void flushPending() {
+        int total = 0;
+        for (Long id : new ArrayList<>(pendingDoctors.keySet())) {
+            Doctor doctor = pendingDoctors.remove(id);
+            int updated = repository.updateDoctorSnapshot(id, doctor.getEmail(), doctor.getName());
+            logger.info("Doctor " + id + " data refreshed on " + updated + " registrations");
+            total += updated;
+        }
+
+        for (Long id : new ArrayList<>(pendingClients.keySet())) {
+            Client client = pendingClients.remove(id);
+            int updated = repository.updateClientSnapshot(id, client.getEmail(), client.getName());
+            logger.info("Client " + id + " data refreshed on " + updated + " registrations");
+            total += updated;
+        }
+
+        if (total > 0) {
+            agendaCache.clear();
+        }
+    }
+
+    /**
+     * Compares all stored doctor and client data with the remote services
+     * and queues the outdated data to be replaced.
+     */
+    @Scheduled(fixedDelayString = "${owner-snapshots.refresh-millis:3600000}",
+            initialDelayString = "${owner-snapshots.refresh-millis:3600000}")
+    @Transactional(readOnly = true)
+    public void refreshAll() {
+        try {
+            refreshDoctors();
+            refreshClients();
+        } catch (FeignException e) {
+            logger.error("Owner data not refreshed: " + e.getMessage());
+        }
+    }
+
+    private void refreshDoctors() {
+        Map<Long, OwnerSnapshot> stored = byId(repository.findAllDoctorSnapshots());
+        for (List<Long> chunk : partition(stored.keySet())) {
+            Supplier<CollectionModel<EntityModel<Doctor>>> findDoctors =
+                    () -> employeeService.findAllDoctorsByIds(chunk);
+            circuitBreaker.decorateSupplier(findDoctors).get().getContent().stream()
+                    .map(EntityModel::getContent)
+                    .filter(doctor -> isOutdated(stored.get(doctor.getId()), doctor.getEmail(), doctor.getName()))
+                    .forEach(this::refresh);
+        }
+    }
+
+    private void refreshClients() {
+        Map<Long, OwnerSnapshot> stored = byId(repository.findAllClientSnapshots());
+        for (List<Long> chunk : partition(stored.keySet())) {
+            Supplier<CollectionModel<EntityModel<Client>>> findClients =
+                    () -> clientService.findAllClientsByIds(chunk);
+            circuitBreaker.decorateSupplier(findClients).get().getContent().stream()
+                    .map(EntityModel::getContent)
+                    .filter(client -> isOutdated(stored.get(client.getId()), client.getEmail(), client.getName()))
+                    .forEach(this::refresh);
+        }
+    }
+
+    // A doctor or client stored with different data on different rows is refreshed as well
+    private Map<Long, OwnerSnapshot> byId(List<OwnerSnapshot> snapshots) {
+        Map<Long, OwnerSnapshot> byId = new HashMap<>();
+        for (OwnerSnapshot snapshot : snapshots) {
+            byId.put(snapshot.getId(), byId.containsKey(snapshot.getId()) ? null : snapshot);
+        }
+
+        return byId;
+    }
+
+    private boolean isOutdated(OwnerSnapshot snapshot, String email, String name) {
+        return snapshot == null
+                || !Objects.equals(snapshot.getEmail(), email)
+                || !Objects.equals(snapshot.getName(), name);
+    }
+
+    private List<List<Long>> partition(Iterable<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(IDS_PER_REQUEST);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == IDS_PER_REQUEST) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(IDS_PER_REQUEST);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+}
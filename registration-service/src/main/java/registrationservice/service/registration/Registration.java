@@ -16,6 +16,7 @@
 
 package registrationservice.service.registration;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import registrationservice.service.duty.Duty;
@@ -28,8 +29,10 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 
 import java.io.Serializable;
@@ -40,7 +43,11 @@ import java.util.Objects;
  * Registration domain class.
  */
 @Entity
-@Table(name = "registration")
+@Table(name = "registration", indexes = {
+        @Index(name = "idx_registration_doctor_date", columnList = "doctor_id, date"),
+        @Index(name = "idx_registration_client_date", columnList = "client_id, date"),
+        @Index(name = "idx_registration_duty_active", columnList = "duty_id, is_active")
+})
 @JsonIgnoreProperties(value = { "clientId", "doctorId" }, allowSetters = true)
 public class Registration implements Serializable {
 
@@ -66,6 +73,11 @@ public class Registration implements Serializable {
     @NotNull(message = "Client is mandatory")
     private Client client;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     /**
      * @return Registration builder
      */
@@ -92,6 +104,7 @@ public class Registration implements Serializable {
         isActive = other.isActive;
         doctor = (other.doctor == null) ? null : new Doctor(other.doctor);
         client = (other.client == null) ? null :new Client(other.client);
+        version = other.version;
     }
 
     public Long getId() {
@@ -142,6 +155,14 @@ public class Registration implements Serializable {
         this.isActive = isActive;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import registrationservice.service.duty.Duty;
+import registrationservice.service.external.client.Client;
+import registrationservice.service.external.employee.Doctor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A registration request accepted for asynchronous processing.
+ * Intakes are stored first and turned into registrations by background workers.
+ */
+@Entity
+@Table(name = "registration_intake")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegistrationIntake {
+
+    public enum Status { PENDING, PROCESSING, CREATED, REJECTED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private LocalDateTime date;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive;
+
+    @Column(name = "duty_id")
+    private Long dutyId;
+
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "registration_id")
+    private Long registrationId;
+
+    private String error;
+
+    @JsonIgnore
+    private String claim;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected RegistrationIntake() {
+    }
+
+    /**
+     * Constructs a new pending RegistrationIntake of the specified registration.
+     *
+     * @param registration registration to create
+     */
+    public RegistrationIntake(Registration registration) {
+        status = Status.PENDING;
+        date = registration.getDate();
+        isActive = (registration.isActive() == null) ? Boolean.TRUE : registration.isActive();
+        dutyId = (registration.getDuty() == null) ? null : registration.getDuty().getId();
+        doctorId = (registration.getDoctor() == null) ? null : registration.getDoctor().getId();
+        clientId = (registration.getClient() == null) ? null : registration.getClient().getId();
+        receivedAt = LocalDateTime.now();
+        updatedAt = receivedAt;
+    }
+
+    /**
+     * @return the registration this intake asks to create
+     */
+    public Registration toRegistration() {
+        return Registration.builder()
+                .withDate(date)
+                .isActive(isActive)
+                .withDuty(Duty.builder().withId(dutyId).build())
+                .withDoctor(Doctor.builder().withId(doctorId).build())
+                .withClient(Client.builder().withId(clientId).build())
+                .build();
+    }
+
+    /**
+     * Records the outcome of processing of this intake.
+     *
+     * @param result result of saving the registration
+     */
+    public void complete(BatchItemResult result) {
+        if (result.getStatus() == BatchItemResult.Status.CREATED) {
+            status = Status.CREATED;
+            registrationId = result.getRegistration().getId();
+        } else {
+            status = Status.REJECTED;
+            error = result.getError();
+        }
+
+        claim = null;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public Long getRegistrationId() {
+        return registrationId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import registrationservice.service.exception.RemoteResourceException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Provides asynchronous registration intake business logic.
+ */
+public interface RegistrationIntakeService {
+
+    /**
+     * Stores the specified registration to be created in the background.
+     * No remote services are called.
+     *
+     * @param registration registration to create
+     *
+     * @return the stored intake
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    RegistrationIntake accept(Registration registration);
+
+    /**
+     * Looks for an intake with the specified ID.
+     *
+     * @param id ID of the intake to get
+     *
+     * @return the intake with the specified ID or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Optional<RegistrationIntake> findById(long id);
+
+    /**
+     * Claims up to the specified number of the oldest pending intakes for processing.
+     *
+     * @param size maximum number of intakes to claim
+     *
+     * @return the claim of the intakes or Optional#empty() if there was nothing to claim
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Optional<String> claimPending(int size);
+
+    /**
+     * Creates registrations of the intakes with the specified claim as a single batch
+     * and records the outcome of every intake.
+     *
+     * @param claim claim of intakes to process
+     *
+     * @throws RemoteResourceException if there is any problem with remote resources,
+     * the intakes are left unchanged then
+     */
+    void process(String claim);
+
+    /**
+     * Returns intakes with the specified claim to pending state, so they are processed again.
+     *
+     * @param claim claim of intakes to release
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    void release(String claim);
+
+    /**
+     * Returns intakes claimed longer than the specified time ago to pending state.
+     * Use it to recover intakes of workers that stopped abnormally.
+     *
+     * @param timeout claim timeout
+     *
+     * @return the number of released intakes
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    int releaseExpired(Duration timeout);
+
+    /**
+     * Counts intakes waiting to be processed.
+     *
+     * @return the number of pending intakes
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    long countPending();
+}
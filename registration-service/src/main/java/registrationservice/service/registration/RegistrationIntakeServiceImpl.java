@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import registrationservice.data.RegistrationIntakeRepository;
+import registrationservice.service.exception.IllegalModificationException;
+import registrationservice.service.exception.RemoteResourceException;
+import registrationservice.service.registration.RegistrationIntake.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class RegistrationIntakeServiceImpl implements RegistrationIntakeService {
+    private static final Logger logger = LogManager.getLogger(RegistrationIntakeServiceImpl.class);
+
+    private final RegistrationIntakeRepository repository;
+    private final RegistrationService registrationService;
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public RegistrationIntakeServiceImpl(RegistrationIntakeRepository repository,
+                                         RegistrationService registrationService,
+                                         CircuitBreaker circuitBreaker) {
+        this.repository = repository;
+        this.registrationService = registrationService;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public RegistrationIntake accept(Registration registration) {
+        try {
+            Supplier<RegistrationIntake> save = () -> repository.save(new RegistrationIntake(registration));
+            RegistrationIntake intake = circuitBreaker.decorateSupplier(save).get();
+            logger.info("Registration intake accepted. ID - " + intake.getId());
+            return intake;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RegistrationIntake> findById(long id) {
+        try {
+            Supplier<Optional<RegistrationIntake>> findById = () -> repository.findById(id);
+            return circuitBreaker.decorateSupplier(findById).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    public Optional<String> claimPending(int size) {
+        try {
+            Supplier<Optional<String>> claimPending = () -> {
+                List<Long> ids = repository.findIdsByStatus(Status.PENDING, PageRequest.of(0, size));
+                if (ids.isEmpty()) {
+                    return Optional.empty();
+                }
+
+                String claim = UUID.randomUUID().toString();
+                int claimed = repository.claim(ids, claim, Status.PENDING, Status.PROCESSING, LocalDateTime.now());
+                return (claimed == 0) ? Optional.empty() : Optional.of(claim);
+            };
+
+            return circuitBreaker.decorateSupplier(claimPending).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    public void process(String claim) {
+        try {
+            List<RegistrationIntake> intakes = repository.findAllByClaimOrderById(claim);
+            if (intakes.isEmpty()) {
+                return;
+            }
+
+            List<Registration> registrations = intakes.stream()
+                    .map(RegistrationIntake::toRegistration)
+                    .collect(Collectors.toList());
+            List<BatchItemResult> results = registrationService.saveAll(registrations);
+            for (int i = 0; i < intakes.size(); i++) {
+                intakes.get(i).complete(results.get(i));
+            }
+
+            repository.saveAll(intakes);
+            logger.info("Registration intake processed: " + intakes.size() + " intakes");
+        } catch (IllegalModificationException | RemoteResourceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    public void release(String claim) {
+        try {
+            Supplier<Integer> release = () -> repository.release(claim, Status.PROCESSING, Status.PENDING);
+            circuitBreaker.decorateSupplier(release).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    public int releaseExpired(Duration timeout) {
+        try {
+            LocalDateTime before = LocalDateTime.now().minus(timeout);
+            Supplier<Integer> release = () ->
+                    repository.releaseAllClaimedBefore(before, Status.PROCESSING, Status.PENDING);
+            return circuitBreaker.decorateSupplier(release).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countPending() {
+        try {
+            Supplier<Long> count = () -> repository.countByStatus(Status.PENDING);
+            return circuitBreaker.decorateSupplier(count).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import registrationservice.config.properties.IntakeProperties;
+import registrationservice.service.exception.RemoteResourceException;
+
+import javax.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns pending registration intakes into registrations in the background.
+ * Intakes are claimed in batches and processed by a bounded pool of workers.
+ * No more batches are claimed while the pool is saturated, so pending intakes
+ * wait in the database instead of memory.
+ */
+@Component
+public class RegistrationIntakeWorker {
+    private static final Logger logger = LogManager.getLogger(RegistrationIntakeWorker.class);
+
+    private final RegistrationIntakeService intakeService;
+    private final ThreadPoolTaskExecutor executor;
+    private final int batchSize;
+    private final Duration claimTimeout;
+    private final AtomicLong pending = new AtomicLong();
+
+    @Autowired
+    public RegistrationIntakeWorker(RegistrationIntakeService intakeService,
+                                    IntakeProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.intakeService = intakeService;
+        this.batchSize = properties.getBatchSize();
+        this.claimTimeout = properties.getClaimTimeout();
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("registration-intake-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+
+        Gauge.builder("registration.intake.pending", pending, AtomicLong::get)
+                .description("Registration intakes waiting to be processed")
+                .register(meterRegistry);
+        Gauge.builder("registration.intake.queued.batches", executor,
+                        pool -> pool.getThreadPoolExecutor().getQueue().size())
+                .description("Claimed intake batches waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("registration.intake.active.workers", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Workers processing intake batches")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims pending intakes and hands them to workers while the pool has free capacity.
+     */
+    @Scheduled(fixedDelayString = "${registration-intake.poll-millis:200}")
+    public void poll() {
+        try {
+            pending.set(intakeService.countPending());
+            while (hasCapacity()) {
+                Optional<String> claim = intakeService.claimPending(batchSize);
+                if (claim.isEmpty() || !submit(claim.get())) {
+                    return;
+                }
+            }
+        } catch (RemoteResourceException e) {
+            logger.error("Registration intakes not claimed: " + e.getMessage());
+        }
+    }
+
+    private boolean hasCapacity() {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        return pool.getActiveCount() < pool.getMaximumPoolSize()
+                || pool.getQueue().remainingCapacity() > 0;
+    }
+
+    private boolean submit(String claim) {
+        try {
+            executor.execute(() -> process(claim));
+            return true;
+        } catch (RejectedExecutionException e) {
+            tryRelease(claim);
+            return false;
+        }
+    }
+
+    private void process(String claim) {
+        try {
+            intakeService.process(claim);
+        } catch (Exception e) {
+            // Remote services are unavailable, the batch is retried later
+            logger.error("Registration intake batch not processed: " + e.getMessage());
+            tryRelease(claim);
+        }
+    }
+
+    private void tryRelease(String claim) {
+        try {
+            intakeService.release(claim);
+        } catch (RemoteResourceException e) {
+            // Released by recovery once the claim expires
+            logger.error("Registration intake batch not released: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns intakes of workers that stopped abnormally to pending state.
+     */
+    @Scheduled(fixedDelayString = "${registration-intake.recovery-millis:60000}")
+    public void recover() {
+        try {
+            int released = intakeService.releaseExpired(claimTimeout);
+            if (released > 0) {
+                logger.info(released + " expired registration intakes released");
+            }
+        } catch (RemoteResourceException e) {
+            logger.error("Registration intakes not recovered: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        executor.shutdown();
+    }
+}
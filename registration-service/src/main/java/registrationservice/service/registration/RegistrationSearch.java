@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registration search criteria. Null criteria are ignored.
+ */
+public class RegistrationSearch {
+    private Long doctorId;
+    private Long clientId;
+    private Long dutyId;
+    private Boolean isActive;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    /**
+     * Returns a RegistrationSearch builder with no criteria set.
+     *
+     * @return RegistrationSearch builder
+     */
+    public static Builder builder() {
+        return new RegistrationSearch().new Builder();
+    }
+
+    private RegistrationSearch() {
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public Long getDutyId() {
+        return dutyId;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    /**
+     * @return start of the registration date range, inclusive
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * @return end of the registration date range, exclusive
+     */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "doctorId=" + doctorId +
+                ", clientId=" + clientId +
+                ", dutyId=" + dutyId +
+                ", isActive=" + isActive +
+                ", from=" + from +
+                ", to=" + to +
+                '}';
+    }
+
+    /**
+     * RegistrationSearch object builder.
+     */
+    public class Builder {
+
+        private Builder() {
+        }
+
+        public RegistrationSearch build() {
+            return RegistrationSearch.this;
+        }
+
+        public Builder withDoctorId(Long doctorId) {
+            RegistrationSearch.this.doctorId = doctorId;
+            return this;
+        }
+
+        public Builder withClientId(Long clientId) {
+            RegistrationSearch.this.clientId = clientId;
+            return this;
+        }
+
+        public Builder withDutyId(Long dutyId) {
+            RegistrationSearch.this.dutyId = dutyId;
+            return this;
+        }
+
+        public Builder withIsActive(Boolean isActive) {
+            RegistrationSearch.this.isActive = isActive;
+            return this;
+        }
+
+        public Builder withFrom(LocalDateTime from) {
+            RegistrationSearch.this.from = from;
+            return this;
+        }
+
+        public Builder withTo(LocalDateTime to) {
+            RegistrationSearch.this.to = to;
+            return this;
+        }
+    }
+}
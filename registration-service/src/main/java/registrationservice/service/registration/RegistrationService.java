@@ -16,11 +16,17 @@
 
 package registrationservice.service.registration;
 
+import org.springframework.data.domain.Slice;
+
+import registrationservice.data.RegistrationOwners;
 import registrationservice.service.exception.IllegalModificationException;
 import registrationservice.service.exception.RemoteResourceException;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Provides registration business logic.
@@ -60,6 +66,78 @@ public interface RegistrationService {
      */
     List<Registration> findAllByDoctorId(long doctorId);
 
+    /**
+     * Looks for a page of registrations in the remote registration repository.
+     * Registrations are ordered by ID, the page starts right after the specified ID.
+     * Only registrations of the returned page are loaded with remote content.
+     *
+     * @param afterId ID of the last registration of the previous page, 0 for the first page
+     * @param size maximum number of registrations to get
+     *
+     * @return a page of registrations from the remote registration repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Slice<Registration> findAll(long afterId, int size);
+
+    /**
+     * Looks for a page of registrations with the specified client ID
+     * in the remote registration repository.
+     * Registrations are ordered by ID, the page starts right after the specified ID.
+     *
+     * @param clientId client ID of registration to get
+     * @param afterId ID of the last registration of the previous page, 0 for the first page
+     * @param size maximum number of registrations to get
+     *
+     * @return a page of registrations with the specified client ID from the remote registration repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Slice<Registration> findAllByClientId(long clientId, long afterId, int size);
+
+    /**
+     * Looks for a page of registrations with the specified doctor ID
+     * in the remote registration repository.
+     * Registrations are ordered by ID, the page starts right after the specified ID.
+     *
+     * @param doctorId doctor ID of registration to get
+     * @param afterId ID of the last registration of the previous page, 0 for the first page
+     * @param size maximum number of registrations to get
+     *
+     * @return a page of registrations with the specified doctor ID from the remote registration repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Slice<Registration> findAllByDoctorId(long doctorId, long afterId, int size);
+
+    /**
+     * Retrieves a page of registrations matching all the specified criteria
+     * from the remote registration repository.
+     * Registrations are ordered by ID, the page starts right after the specified ID.
+     * No total count is computed, the page only tells whether more registrations exist.
+     *
+     * @param search search criteria
+     * @param afterId ID of the last registration of the previous page, 0 for the first page
+     * @param size maximum number of registrations to get
+     *
+     * @return a page of registrations matching the criteria from the remote registration repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Slice<Registration> search(RegistrationSearch search, long afterId, int size);
+
+    /**
+     * Passes all registrations from the remote registration repository to the specified consumer
+     * one by one, ordered by ID. Registrations are read and loaded with remote content
+     * in chunks of the specified size, so memory use does not depend on the number of registrations.
+     *
+     * @param chunkSize number of registrations to load with remote content at once
+     * @param consumer consumer of registrations
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    void exportAll(int chunkSize, Consumer<Registration> consumer);
+
     /**
      * Looks for a registration with the specified ID in the remote registration repository.
      *
@@ -72,6 +150,51 @@ public interface RegistrationService {
      */
     Optional<Registration> findById(long id);
 
+    /**
+     * Looks for the version of the registration with the specified ID in the remote registration repository
+     * without loading the registration itself.
+     *
+     * @param id ID of the registration
+     *
+     * @return the version of the registration or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Optional<Long> findVersionById(long id);
+
+    /**
+     * Replaces doctor and client data stored on the specified registrations with live data
+     * from remote services. Outdated stored data is refreshed in the background.
+     *
+     * @param registrations registrations to hydrate
+     */
+    void hydrate(List<Registration> registrations);
+
+    /**
+     * Returns the agenda of the doctor with the specified ID for the specified day.
+     * Agendas of recent days are served from memory.
+     *
+     * @param doctorId ID of the doctor
+     * @param day agenda day
+     *
+     * @return the agenda of the doctor
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    DoctorAgenda findAgenda(long doctorId, LocalDate day);
+
+    /**
+     * Looks for IDs of the doctor and the client of the registration with the specified ID.
+     * Neither the registration nor its doctor and client are loaded.
+     *
+     * @param id ID of the registration
+     *
+     * @return owners of the registration or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    Optional<RegistrationOwners> findOwnersById(long id);
+
     /**
      * Counts the number of the registrations in the remote registration repossitory.
      *
@@ -90,11 +213,26 @@ public interface RegistrationService {
      *
      * @return the saved registration
      *
-     * @throws IllegalModificationException either if a registration has invalid data or already exists
+     * @throws IllegalModificationException if a registration has invalid data, already exists
+     * or the doctor is already booked at the registration date
      * @throws RemoteResourceException if there is any problem with the remote registration repository
      */
     Registration save(Registration registration);
 
+    /**
+     * Saves the specified registrations in the remote registration repository.
+     * Every registration is validated separately, invalid ones are rejected
+     * while valid ones are saved in batches.
+     *
+     * @param registrations registrations to save
+     *
+     * @return results of saving in the same order as the registrations
+     *
+     * @throws IllegalModificationException if the batch is too large
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    List<BatchItemResult> saveAll(List<Registration> registrations);
+
     /**
      * Sets a status for the registration with the specified ID in the remote registration repository.
      * <br>
@@ -107,10 +245,36 @@ public interface RegistrationService {
      * @return the updated registration
      *
      * @throws IllegalModificationException if such a registration does not exist
+     * or the doctor is already booked at the registration date
      * @throws RemoteResourceException if there is any problem with the remote registration repository
      */
     Registration setActive(long id, boolean isActive);
 
+    /**
+     * Deactivates all active registrations of the doctor with the specified ID
+     * within the specified period with a single statement.
+     *
+     * @param doctorId doctor ID of registrations to deactivate
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     *
+     * @return the number of deactivated registrations
+     *
+     * @throws IllegalModificationException if the period is empty
+     * @throws RemoteResourceException if there is any problem with the remote registration repository
+     */
+    int deactivateAllByDoctorId(long doctorId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds free slots of the doctor with the specified ID during the specified day.
+     *
+     * @param doctorId doctor ID to look for free slots
+     * @param day day to look for free slots
+     *
+     * @return start times of free slots in ascending order
+     */
+    List<LocalDateTime> findFreeSlots(long doctorId, LocalDate day);
+
     /**
      * Deletes the registration with the specified ID in the remote registration repository.
      *
@@ -23,11 +23,26 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import registrationservice.config.CacheConfiguration;
+import registrationservice.data.DutyRepository;
+import registrationservice.data.RegistrationOwners;
 import registrationservice.data.RegistrationRepository;
+import registrationservice.data.RegistrationSpecifications;
+import registrationservice.service.counter.RowCounters;
 import registrationservice.service.duty.Duty;
 import registrationservice.service.exception.IllegalModificationException;
 import registrationservice.service.exception.RemoteResourceException;
@@ -36,93 +51,251 @@ import registrationservice.service.external.client.ClientServiceFeignClient;
 import registrationservice.service.external.employee.EmployeeServiceFeignClient;
 import registrationservice.service.external.employee.Doctor;
 
+import javax.persistence.EntityManager;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class RegistrationServiceImpl implements RegistrationService {
     private static final Logger logger = LogManager.getLogger(RegistrationServiceImpl.class);
 
+    // Keeps multi-get request URLs well below common server limits
+    private static final int IDS_PER_REQUEST = 100;
+    private static final int MAX_BATCH_SIZE = 5000;
+
     private final RegistrationRepository repository;
+    private final DutyRepository dutyRepository;
+    private final EntityManager entityManager;
     private final Validator validator;
     private final CircuitBreaker circuitBreaker;
 
     private final EmployeeServiceFeignClient employeeService;
     private final ClientServiceFeignClient clientService;
+    private final Cache doctorCache;
+    private final Cache clientCache;
+    private final SlotIndex slotIndex;
+    private final OwnerSnapshotRefresher snapshotRefresher;
+    private final AgendaCache agendaCache;
+    private final RowCounters rowCounters;
 
     @Autowired
     public RegistrationServiceImpl(RegistrationRepository repository,
+                                   DutyRepository dutyRepository,
+                                   EntityManager entityManager,
                                    EmployeeServiceFeignClient employeeService,
                                    ClientServiceFeignClient clientService,
                                    Validator validator,
-                                   CircuitBreaker circuitBreaker) {
+                                   CircuitBreaker circuitBreaker,
+                                   CacheManager cacheManager,
+                                   SlotIndex slotIndex,
+                                   OwnerSnapshotRefresher snapshotRefresher,
+                                   AgendaCache agendaCache,
+                                   RowCounters rowCounters) {
         this.repository = repository;
+        this.dutyRepository = dutyRepository;
+        this.entityManager = entityManager;
         this.employeeService = employeeService;
         this.clientService = clientService;
         this.validator = validator;
         this.circuitBreaker = circuitBreaker;
+        this.doctorCache = cacheManager.getCache(CacheConfiguration.DOCTOR_CACHE);
+        this.clientCache = cacheManager.getCache(CacheConfiguration.CLIENT_CACHE);
+        this.slotIndex = slotIndex;
+        this.snapshotRefresher = snapshotRefresher;
+        this.agendaCache = agendaCache;
+        this.rowCounters = rowCounters;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Registration> findAll() {
         try {
             Supplier<List<Registration>> findAll = repository::findAll;
             List<Registration> registrations = circuitBreaker.decorateSupplier(findAll).get();
-            registrations.forEach(this::loadContent);
+            loadMissingContent(registrations);
             return registrations;
         } catch (Exception e) {
             throw new RemoteResourceException("Registration database unavailable", e);
         }
     }
 
-    private void loadContent(Registration registration) {
-        registration.setDoctor(loadDoctor(registration.getDoctor().getId()));
-        registration.setClient(loadClient(registration.getClient().getId()));
+    // Registrations stored before doctor and client data was kept on rows are loaded remotely
+    private void loadMissingContent(List<Registration> registrations) {
+        List<Registration> incomplete = registrations.stream()
+                .filter(registration -> registration.getDoctor().getEmail() == null
+                        || registration.getClient().getEmail() == null)
+                .collect(Collectors.toList());
+        if (!incomplete.isEmpty()) {
+            loadContent(incomplete);
+        }
     }
 
-    private Doctor loadDoctor(long doctorId) {
+    private void loadContent(List<Registration> registrations) {
+        Set<Long> doctorIds = collectIds(registrations, registration -> registration.getDoctor().getId());
+        Set<Long> clientIds = collectIds(registrations, registration -> registration.getClient().getId());
+        Map<Long, Doctor> doctors = loadDoctors(doctorIds);
+        Map<Long, Client> clients = loadClients(clientIds);
+
+        Set<Long> refreshedDoctors = new HashSet<>();
+        Set<Long> refreshedClients = new HashSet<>();
+        for (Registration registration : registrations) {
+            Doctor doctor = doctors.get(registration.getDoctor().getId());
+            if (doctor != null) {
+                if (isOutdated(registration.getDoctor(), doctor) && refreshedDoctors.add(doctor.getId())) {
+                    snapshotRefresher.refresh(doctor);
+                }
+
+                registration.setDoctor(doctor);
+            }
+
+            Client client = clients.get(registration.getClient().getId());
+            if (client != null) {
+                if (isOutdated(registration.getClient(), client) && refreshedClients.add(client.getId())) {
+                    snapshotRefresher.refresh(client);
+                }
+
+                registration.setClient(client);
+            }
+        }
+    }
+
+    private boolean isOutdated(Doctor stored, Doctor actual) {
+        return !Objects.equals(stored.getEmail(), actual.getEmail())
+                || !Objects.equals(stored.getName(), actual.getName());
+    }
+
+    private boolean isOutdated(Client stored, Client actual) {
+        return !Objects.equals(stored.getEmail(), actual.getEmail())
+                || !Objects.equals(stored.getName(), actual.getName());
+    }
+
+    private Set<Long> collectIds(List<Registration> registrations, Function<Registration, Long> idExtractor) {
+        return registrations.stream()
+                .map(idExtractor)
+                .collect(Collectors.toSet());
+    }
+
+    private Map<Long, Doctor> loadDoctors(Set<Long> ids) {
+        Map<Long, Doctor> doctors = new HashMap<>();
         try {
-            Supplier<Doctor> findDoctor = () -> employeeService.findDoctorById(doctorId);
-            return circuitBreaker.decorateSupplier(findDoctor).get();
+            findDoctors(ids, doctors);
         } catch (FeignException e) {
-            if (e.status() == 404) {
-                logger.error("Doctor not found: " + doctorId);
+            logger.error("Employee microservice unavailable: " + e.getMessage());
+            return doctors;
+        }
+
+        ids.stream()
+                .filter(id -> !doctors.containsKey(id))
+                .forEach(id -> logger.error("Doctor not found: " + id));
+        return doctors;
+    }
+
+    private void findDoctors(Set<Long> ids, Map<Long, Doctor> doctors) {
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            Doctor cached = doctorCache.get(id, Doctor.class);
+            if (cached == null) {
+                missing.add(id);
             } else {
-                logger.error("Employee microservice unavailable: " + e.getMessage());
+                doctors.put(id, new Doctor(cached));
             }
+        }
 
-            return null;
+        for (List<Long> chunk : partition(missing)) {
+            Supplier<CollectionModel<EntityModel<Doctor>>> findDoctors =
+                    () -> employeeService.findAllDoctorsByIds(chunk);
+            circuitBreaker.decorateSupplier(findDoctors).get().getContent().stream()
+                    .map(EntityModel::getContent)
+                    .forEach(doctor -> {
+                        doctorCache.put(doctor.getId(), new Doctor(doctor));
+                        doctors.put(doctor.getId(), doctor);
+                    });
         }
     }
 
-    private Client loadClient(long clientId) {
+    private Map<Long, Client> loadClients(Set<Long> ids) {
+        Map<Long, Client> clients = new HashMap<>();
         try {
-            Supplier<Client> findClient = () -> clientService.findClientById(clientId);
-            return circuitBreaker.decorateSupplier(findClient).get();
+            findClients(ids, clients);
         } catch (FeignException e) {
-            if (e.status() == 404) {
-                logger.error("Client not found: " + clientId);
+            logger.error("Client microservice unavailable: " + e.getMessage());
+            return clients;
+        }
+
+        ids.stream()
+                .filter(id -> !clients.containsKey(id))
+                .forEach(id -> logger.error("Client not found: " + id));
+        return clients;
+    }
+
+    private void findClients(Set<Long> ids, Map<Long, Client> clients) {
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            Client cached = clientCache.get(id, Client.class);
+            if (cached == null) {
+                missing.add(id);
             } else {
-                logger.error("Client microservice unavailable: " + e.getMessage());
+                clients.put(id, new Client(cached));
             }
+        }
 
-            return null;
+        for (List<Long> chunk : partition(missing)) {
+            Supplier<CollectionModel<EntityModel<Client>>> findClients =
+                    () -> clientService.findAllClientsByIds(chunk);
+            circuitBreaker.decorateSupplier(findClients).get().getContent().stream()
+                    .map(EntityModel::getContent)
+                    .forEach(client -> {
+                        clientCache.put(client.getId(), new Client(client));
+                        clients.put(client.getId(), client);
+                    });
         }
     }
 
+    private List<List<Long>> partition(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += IDS_PER_REQUEST) {
+            chunks.add(all.subList(i, Math.min(i + IDS_PER_REQUEST, all.size())));
+        }
+
+        return chunks;
+    }
+
+    private void loadContent(Registration registration) {
+        loadContent(List.of(registration));
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<Registration> findAllByClientId(long clientId) {
         try {
             Supplier<List<Registration>> findAll = () -> repository.findAllByClientId(clientId);
             List<Registration> registrations = circuitBreaker.decorateSupplier(findAll).get();
-            registrations.forEach(this::loadContent);
+            loadMissingContent(registrations);
             return registrations;
         } catch (Exception e) {
             throw new RemoteResourceException("Registration database unavailable", e);
@@ -130,11 +303,12 @@ public class RegistrationServiceImpl implements RegistrationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Registration> findAllByDoctorId(long doctorId) {
         try {
             Supplier<List<Registration>> findAll = () -> repository.findAllByDoctorId(doctorId);
             List<Registration> registrations = circuitBreaker.decorateSupplier(findAll).get();
-            registrations.forEach(this::loadContent);
+            loadMissingContent(registrations);
             return registrations;
         } catch (Exception e) {
             throw new RemoteResourceException("Registration database unavailable", e);
@@ -142,17 +316,140 @@ public class RegistrationServiceImpl implements RegistrationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<Registration> findAll(long afterId, int size) {
+        return findPage(() -> repository.findAllByIdGreaterThan(afterId, pageOf(size)));
+    }
+
+    private Slice<Registration> findPage(Supplier<Slice<Registration>> findPage) {
+        try {
+            Slice<Registration> page = circuitBreaker.decorateSupplier(findPage).get();
+            loadMissingContent(page.getContent());
+            return page;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    private Pageable pageOf(int size) {
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Registration> findAllByClientId(long clientId, long afterId, int size) {
+        return findPage(() -> repository.findAllByClientIdAndIdGreaterThan(clientId, afterId, pageOf(size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Registration> findAllByDoctorId(long doctorId, long afterId, int size) {
+        return findPage(() -> repository.findAllByDoctorIdAndIdGreaterThan(doctorId, afterId, pageOf(size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Registration> search(RegistrationSearch search, long afterId, int size) {
+        Specification<Registration> specification = Specification
+                .where(RegistrationSpecifications.hasDoctorId(search.getDoctorId()))
+                .and(RegistrationSpecifications.hasClientId(search.getClientId()))
+                .and(RegistrationSpecifications.hasDutyId(search.getDutyId()))
+                .and(RegistrationSpecifications.isActive(search.getIsActive()))
+                .and(RegistrationSpecifications.startsFrom(search.getFrom()))
+                .and(RegistrationSpecifications.startsBefore(search.getTo()));
+        return findPage(() -> repository.search(specification, afterId, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(int chunkSize, Consumer<Registration> consumer) {
+        try (Stream<Registration> registrations = repository.streamAll()) {
+            List<Registration> chunk = new ArrayList<>(chunkSize);
+            registrations.forEach(registration -> {
+                chunk.add(registration);
+                if (chunk.size() == chunkSize) {
+                    exportChunk(chunk, consumer);
+                }
+            });
+
+            exportChunk(chunk, consumer);
+        } catch (RemoteResourceException | UncheckedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    private void exportChunk(List<Registration> chunk, Consumer<Registration> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Detach the chunk first so that loaded remote content is never flushed
+        entityManager.clear();
+        loadMissingContent(chunk);
+        chunk.forEach(consumer);
+        chunk.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Registration> findById(long id) {
         try {
             Supplier<Optional<Registration>> findById = () -> repository.findById(id);
             Optional<Registration> registration = circuitBreaker.decorateSupplier(findById).get();
-            registration.ifPresent(this::loadContent);
+            registration.ifPresent(found -> loadMissingContent(List.of(found)));
             return registration;
         } catch (Exception e) {
             throw new RemoteResourceException("Registration database unavailable", e);
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> repository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void hydrate(List<Registration> registrations) {
+        if (!registrations.isEmpty()) {
+            loadContent(registrations);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DoctorAgenda findAgenda(long doctorId, LocalDate day) {
+        // Cached agendas are returned without opening a database transaction
+        try {
+            return agendaCache.get(doctorId, day, () -> {
+                Supplier<List<Registration>> findAll = () -> repository.findAllByDoctorIdWithin(doctorId,
+                        day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                List<Registration> registrations = circuitBreaker.decorateSupplier(findAll).get();
+                loadMissingContent(registrations);
+                return registrations;
+            });
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    public Optional<RegistrationOwners> findOwnersById(long id) {
+        try {
+            Supplier<Optional<RegistrationOwners>> findOwners = () -> repository.findOwnersById(id);
+            return circuitBreaker.decorateSupplier(findOwners).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
     @Override
     public long count() {
         try {
@@ -168,7 +465,11 @@ public class RegistrationServiceImpl implements RegistrationService {
         try {
             validate(registration);
             Registration registrationToSave = prepareSaveData(registration);
-            Registration saved = persistRegistration(registrationToSave);
+            Registration saved = Boolean.TRUE.equals(registrationToSave.isActive())
+                    ? persistBooking(registrationToSave)
+                    : persistRegistration(registrationToSave);
+            addToAgenda(List.of(saved));
+            rowCounters.add(RowCounters.REGISTRATIONS, 1);
             loadContent(saved);
             logger.info("Registration " + saved.getDate() + " saved. ID - " + saved.getId());
             return saved;
@@ -179,25 +480,188 @@ public class RegistrationServiceImpl implements RegistrationService {
         }
     }
 
+    @Override
+    public List<BatchItemResult> saveAll(List<Registration> registrations) {
+        if (registrations.size() > MAX_BATCH_SIZE) {
+            throw new IllegalModificationException("Batch must not contain more than "
+                    + MAX_BATCH_SIZE + " registrations");
+        }
+
+        try {
+            BatchItemResult[] results = new BatchItemResult[registrations.size()];
+            Map<Integer, Registration> accepted = new LinkedHashMap<>();
+            for (int i = 0; i < registrations.size(); i++) {
+                Registration registration = registrations.get(i);
+                String error = findViolations(registration);
+                if (error == null) {
+                    error = findMissingId(registration);
+                }
+
+                if (error == null) {
+                    accepted.put(i, prepareSaveData(registration));
+                } else {
+                    results[i] = BatchItemResult.rejected(i, error);
+                }
+            }
+
+            rejectUnknownReferences(accepted, results);
+            List<Registration> saved = persistBatch(accepted, results);
+            addToAgenda(saved);
+            rowCounters.add(RowCounters.REGISTRATIONS, saved.size());
+            loadContent(saved);
+            accepted.forEach((index, registration) -> results[index] = BatchItemResult.created(index, registration));
+
+            logger.info("Registration batch saved: " + saved.size() + " of " + registrations.size());
+            return Arrays.asList(results);
+        } catch (IllegalModificationException | RemoteResourceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    private String findMissingId(Registration registration) {
+        if (registration.getDuty() == null || registration.getDuty().getId() == null) {
+            return "Duty ID is mandatory";
+        } else if (registration.getDoctor().getId() == null) {
+            return "Doctor ID is mandatory";
+        } else if (registration.getClient().getId() == null) {
+            return "Client ID is mandatory";
+        }
+
+        return null;
+    }
+
+    private void rejectUnknownReferences(Map<Integer, Registration> accepted, BatchItemResult[] results) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<Registration> registrations = new ArrayList<>(accepted.values());
+        Set<Long> dutyIds = collectIds(registrations, registration -> registration.getDuty().getId());
+        Supplier<List<Long>> findDuties = () -> dutyRepository.findAllIdsByIdIn(dutyIds);
+        Set<Long> duties = new HashSet<>(circuitBreaker.decorateSupplier(findDuties).get());
+
+        Map<Long, Doctor> doctors = new HashMap<>();
+        try {
+            findDoctors(collectIds(registrations, registration -> registration.getDoctor().getId()), doctors);
+        } catch (FeignException e) {
+            logger.error(e.getMessage());
+            throw new RemoteResourceException("Employee service unavailable", e);
+        }
+
+        Map<Long, Client> clients = new HashMap<>();
+        try {
+            findClients(collectIds(registrations, registration -> registration.getClient().getId()), clients);
+        } catch (FeignException e) {
+            logger.error(e.getMessage());
+            throw new RemoteResourceException("Client service unavailable", e);
+        }
+
+        accepted.entrySet().removeIf(entry -> {
+            Registration registration = entry.getValue();
+            String error = null;
+            if (!duties.contains(registration.getDuty().getId())) {
+                error = "No duty with id " + registration.getDuty().getId();
+            } else if (!doctors.containsKey(registration.getDoctor().getId())) {
+                error = "No doctor with id " + registration.getDoctor().getId();
+            } else if (!clients.containsKey(registration.getClient().getId())) {
+                error = "No client with id " + registration.getClient().getId();
+            }
+
+            if (error != null) {
+                results[entry.getKey()] = BatchItemResult.rejected(entry.getKey(), error);
+            } else {
+                registration.setDoctor(new Doctor(doctors.get(registration.getDoctor().getId())));
+                registration.setClient(new Client(clients.get(registration.getClient().getId())));
+            }
+
+            return error != null;
+        });
+    }
+
+    private List<Registration> persistBatch(Map<Integer, Registration> accepted, BatchItemResult[] results) {
+        Set<Long> doctorIds = collectIds(new ArrayList<>(accepted.values()),
+                registration -> registration.getDoctor().getId());
+        return slotIndex.withDoctorLocks(doctorIds, () -> {
+            Map<Long, NavigableSet<LocalDateTime>> booked = new HashMap<>();
+            accepted.entrySet().removeIf(entry -> {
+                Registration registration = entry.getValue();
+                if (!Boolean.TRUE.equals(registration.isActive())) {
+                    return false;
+                }
+
+                long doctorId = registration.getDoctor().getId();
+                NavigableSet<LocalDateTime> doctorSlots = booked.computeIfAbsent(doctorId, id -> new TreeSet<>());
+                if (!slotIndex.isFree(doctorId, registration.getDate(), null)
+                        || slotIndex.overlaps(doctorSlots, registration.getDate())) {
+                    String msg = "Doctor " + doctorId + " is already booked at " + registration.getDate();
+                    results[entry.getKey()] = BatchItemResult.rejected(entry.getKey(), msg);
+                    return true;
+                }
+
+                doctorSlots.add(registration.getDate());
+                return false;
+            });
+
+            List<Registration> registrations = new ArrayList<>(accepted.values());
+            Runnable insertAll = () -> repository.insertAll(registrations);
+            circuitBreaker.decorateRunnable(insertAll).run();
+            registrations.stream()
+                    .filter(registration -> Boolean.TRUE.equals(registration.isActive()))
+                    .forEach(slotIndex::add);
+            return registrations;
+        });
+    }
+
+    // Registrations are saved with duty IDs only, while agendas show whole duties
+    private void addToAgenda(List<Registration> registrations) {
+        Set<Long> dutyIds = registrations.stream()
+                .map(Registration::getDuty)
+                .filter(Objects::nonNull)
+                .map(Duty::getId)
+                .collect(Collectors.toSet());
+        Supplier<List<Duty>> findDuties = () -> dutyRepository.findAllById(dutyIds);
+        Map<Long, Duty> duties = circuitBreaker.decorateSupplier(findDuties).get().stream()
+                .collect(Collectors.toMap(Duty::getId, Function.identity()));
+
+        for (Registration registration : registrations) {
+            Registration entry = new Registration(registration);
+            if (entry.getDuty() != null && duties.containsKey(entry.getDuty().getId())) {
+                entry.setDuty(new Duty(duties.get(entry.getDuty().getId())));
+            }
+
+            agendaCache.put(entry);
+        }
+    }
+
     private void validate(Registration registration) {
         validateRegistration(registration);
         validateDuty(registration.getDuty());
-        validateDoctor(registration.getDoctor());
-        validateClient(registration.getClient());
+        registration.setDoctor(validateDoctor(registration.getDoctor()));
+        registration.setClient(validateClient(registration.getClient()));
     }
 
     private void validateRegistration(Registration registration) {
+        String violations = findViolations(registration);
+        if (violations != null) {
+            throw new IllegalModificationException(violations);
+        }
+    }
+
+    private String findViolations(Registration registration) {
         Set<ConstraintViolation<Registration>> violations = validator.validate(registration);
-        if (!violations.isEmpty()) {
-            StringBuilder builder = new StringBuilder();
-            for (ConstraintViolation<Registration> violation : violations) {
-                builder.append(violation.getMessage()).append(", ");
-            }
+        if (violations.isEmpty()) {
+            return null;
+        }
 
-            builder.delete(builder.length() - 2, builder.length() - 1);
-            String msg = builder.toString().toLowerCase(Locale.ROOT);
-            throw new IllegalModificationException(msg);
+        StringBuilder builder = new StringBuilder();
+        for (ConstraintViolation<Registration> violation : violations) {
+            builder.append(violation.getMessage()).append(", ");
         }
+
+        builder.delete(builder.length() - 2, builder.length() - 1);
+        return builder.toString().toLowerCase(Locale.ROOT);
     }
 
     private void validateDuty(Duty duty) {
@@ -206,14 +670,16 @@ public class RegistrationServiceImpl implements RegistrationService {
         }
     }
 
-    private void validateDoctor(Doctor doctor) {
+    private Doctor validateDoctor(Doctor doctor) {
         try {
             if (doctor.getId() == null) {
                 throw new IllegalModificationException("Doctor ID is mandatory");
             }
 
             Supplier<Doctor> findById = () -> employeeService.findDoctorById(doctor.getId());
-            circuitBreaker.decorateSupplier(findById).get();
+            Doctor found = circuitBreaker.decorateSupplier(findById).get();
+            doctorCache.put(found.getId(), new Doctor(found));
+            return found;
         } catch (FeignException e) {
             if (e.status() == 404) {
                 throw new IllegalModificationException("No doctor with id " + doctor.getId());
@@ -224,14 +690,16 @@ public class RegistrationServiceImpl implements RegistrationService {
         }
     }
 
-    private void validateClient(Client client) {
+    private Client validateClient(Client client) {
         try {
             if (client.getId() == null) {
                 throw new IllegalModificationException("Client ID is mandatory");
             }
 
             Supplier<Client> findById = () -> clientService.findClientById(client.getId());
-            circuitBreaker.decorateSupplier(findById).get();
+            Client found = circuitBreaker.decorateSupplier(findById).get();
+            clientCache.put(found.getId(), new Client(found));
+            return found;
         } catch (FeignException e) {
             if (e.status() == 404) {
                 throw new IllegalModificationException("No client with id " + client.getId());
@@ -259,26 +727,81 @@ public class RegistrationServiceImpl implements RegistrationService {
         return circuitBreaker.decorateSupplier(save).get();
     }
 
+    private Registration persistBooking(Registration registration) {
+        long doctorId = registration.getDoctor().getId();
+        return slotIndex.withDoctorLock(doctorId, () -> {
+            if (!slotIndex.isFree(doctorId, registration.getDate(), registration.getId())) {
+                String msg = "Doctor " + doctorId + " is already booked at " + registration.getDate();
+                throw new IllegalModificationException(msg);
+            }
+
+            Registration saved = persistRegistration(registration);
+            slotIndex.add(saved);
+            return saved;
+        });
+    }
+
     @Override
     public Registration setActive(long id, boolean isActive) {
         try {
-            Registration registrationToUpdate = findById(id)
+            Supplier<Optional<Registration>> findById = () -> repository.findById(id);
+            Registration registrationToUpdate = circuitBreaker.decorateSupplier(findById).get()
                     .orElseThrow(() -> new IllegalModificationException("No registration with id " + id));
             registrationToUpdate.setActive(isActive);
 
-            Registration updated = persistRegistration(registrationToUpdate);
+            Registration updated;
+            if (isActive) {
+                updated = persistBooking(registrationToUpdate);
+            } else {
+                updated = persistRegistration(registrationToUpdate);
+                slotIndex.remove(id);
+            }
+
+            addToAgenda(List.of(updated));
             loadContent(updated);
             logger.info("Registration status " + id + " changed");
             return updated;
+        } catch (IllegalModificationException e) {
+            throw e;
         } catch (Exception e) {
             throw new RemoteResourceException("Registration database unavailable", e);
         }
     }
 
+    @Override
+    public int deactivateAllByDoctorId(long doctorId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalModificationException("Period start must be before its end");
+        }
+
+        try {
+            Supplier<Integer> deactivateAll = () -> slotIndex.withDoctorLock(doctorId, () -> {
+                int updated = repository.deactivateAllByDoctorId(doctorId, from, to);
+                slotIndex.releaseAll(doctorId, from, to);
+                agendaCache.deactivateAll(doctorId, from, to);
+                return updated;
+            });
+
+            int updated = circuitBreaker.decorateSupplier(deactivateAll).get();
+            logger.info(updated + " registrations of doctor " + doctorId + " deactivated");
+            return updated;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Registration database unavailable", e);
+        }
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(long doctorId, LocalDate day) {
+        return slotIndex.findFreeSlots(doctorId, day);
+    }
+
     @Override
     public void deleteById(long id) {
         try {
             deleteRegistration(id);
+            slotIndex.remove(id);
+            agendaCache.remove(id);
+            rowCounters.add(RowCounters.REGISTRATIONS, -1);
             logger.info("Registration " + id + " deleted");
         } catch (EmptyResultDataAccessException e) {
             throw new IllegalModificationException("No registration with id " + id, e);
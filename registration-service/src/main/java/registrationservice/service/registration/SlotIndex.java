@@ -0,0 +1,343 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import registrationservice.config.properties.SlotProperties;
+import registrationservice.data.BookedSlot;
+import registrationservice.data.RegistrationRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of doctor slots booked by active registrations.
+ * Slots of every doctor are kept in a map sorted by start time, so checking
+ * a slot for conflicts takes O(log n). Changes of slots of a doctor
+ * are serialized by striped per-doctor locks, reads do not lock.
+ */
+@Component
+public class SlotIndex {
+    private static final Logger logger = LogManager.getLogger(SlotIndex.class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final RegistrationRepository repository;
+    private final Duration slotLength;
+    private final LocalTime workdayStart;
+    private final LocalTime workdayEnd;
+
+    private final Map<Long, NavigableMap<LocalDateTime, Set<Long>>> slotsByDoctor = new ConcurrentHashMap<>();
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    @Autowired
+    public SlotIndex(RegistrationRepository repository, SlotProperties properties) {
+        this.repository = repository;
+        this.slotLength = properties.getLength();
+        this.workdayStart = properties.getWorkdayStart();
+        this.workdayEnd = properties.getWorkdayEnd();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Loads slots of active registrations starting from today.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        List<BookedSlot> slots = repository.findAllBookedSlotsFrom(from);
+        slots.forEach(slot -> doAdd(slot.getId(), slot.getDoctorId(), slot.getDate()));
+        logger.info("Slot index loaded: " + slots.size() + " booked slots");
+    }
+
+    /**
+     * Removes slots that ended before today.
+     */
+    @Scheduled(cron = "${slots.eviction-cron:0 0 0 * * *}")
+    public void evictPast() {
+        LocalDateTime threshold = LocalDate.now().atStartOfDay().minus(slotLength);
+        bookings.forEach((id, booking) -> {
+            if (booking.start.isBefore(threshold)) {
+                doRemove(id);
+            }
+        });
+    }
+
+    /**
+     * Runs the specified action holding the lock of the specified doctor.
+     * Use it to check a slot and book it atomically.
+     *
+     * @param doctorId ID of the doctor to lock
+     * @param action action to run
+     * @param <T> action result type
+     *
+     * @return the action result
+     */
+    public <T> T withDoctorLock(long doctorId, Supplier<T> action) {
+        Lock lock = lockOf(doctorId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the specified action holding the locks of all the specified doctors.
+     * Locks are acquired in a fixed order, so concurrent callers cannot deadlock.
+     *
+     * @param doctorIds IDs of the doctors to lock
+     * @param action action to run
+     * @param <T> action result type
+     *
+     * @return the action result
+     */
+    public <T> T withDoctorLocks(Collection<Long> doctorIds, Supplier<T> action) {
+        SortedSet<Integer> stripes = doctorIds.stream()
+                .map(this::stripeOf)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Deque<Lock> acquired = new ArrayDeque<>();
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                acquired.push(locks[stripe]);
+            }
+
+            return action.get();
+        } finally {
+            acquired.forEach(Lock::unlock);
+        }
+    }
+
+    private Lock lockOf(long doctorId) {
+        return locks[stripeOf(doctorId)];
+    }
+
+    private int stripeOf(long doctorId) {
+        return Math.floorMod(Long.hashCode(doctorId), LOCK_STRIPES);
+    }
+
+    /**
+     * Checks whether a slot starting at the specified time does not overlap
+     * any slot booked for the specified doctor.
+     *
+     * @param doctorId ID of the doctor
+     * @param start slot start time
+     * @param registrationId ID of a registration whose own slot must be ignored, may be null
+     *
+     * @return true if the slot is free, false otherwise
+     */
+    public boolean isFree(long doctorId, LocalDateTime start, Long registrationId) {
+        NavigableMap<LocalDateTime, Set<Long>> slots = slotsByDoctor.get(doctorId);
+        if (slots == null) {
+            return true;
+        }
+
+        // Only slots starting within one slot length before or after can overlap
+        LocalDateTime lowerBound = start.minus(slotLength);
+        Map.Entry<LocalDateTime, Set<Long>> entry = slots.lowerEntry(start.plus(slotLength));
+        while (entry != null && entry.getKey().isAfter(lowerBound)) {
+            Set<Long> ids = entry.getValue();
+            if (registrationId == null || ids.size() > 1 || !ids.contains(registrationId)) {
+                return false;
+            }
+
+            entry = slots.lowerEntry(entry.getKey());
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether a slot starting at the specified time overlaps
+     * any slot starting at one of the specified times.
+     *
+     * @param starts start times of other slots
+     * @param start slot start time
+     *
+     * @return true if the slots overlap, false otherwise
+     */
+    public boolean overlaps(NavigableSet<LocalDateTime> starts, LocalDateTime start) {
+        LocalDateTime floor = starts.floor(start);
+        LocalDateTime ceiling = starts.ceiling(start);
+        return (floor != null && floor.plus(slotLength).isAfter(start))
+                || (ceiling != null && start.plus(slotLength).isAfter(ceiling));
+    }
+
+    /**
+     * Returns start times of free slots of the specified doctor within working hours of the specified day.
+     *
+     * @param doctorId ID of the doctor
+     * @param day day to look for free slots
+     *
+     * @return start times of free slots
+     */
+    public List<LocalDateTime> findFreeSlots(long doctorId, LocalDate day) {
+        List<LocalDateTime> freeSlots = new ArrayList<>();
+        LocalDateTime end = day.atTime(workdayEnd);
+        for (LocalDateTime slot = day.atTime(workdayStart);
+             !slot.plus(slotLength).isAfter(end);
+             slot = slot.plus(slotLength)) {
+            if (isFree(doctorId, slot, null)) {
+                freeSlots.add(slot);
+            }
+        }
+
+        return freeSlots;
+    }
+
+    /**
+     * Books a slot of the specified registration. The booking is undone
+     * if the current transaction rolls back.
+     *
+     * @param registration registration to book a slot for
+     */
+    public void add(Registration registration) {
+        long id = registration.getId();
+        doAdd(id, registration.getDoctor().getId(), registration.getDate());
+        onRollback(() -> doRemove(id));
+    }
+
+    private void doAdd(long registrationId, long doctorId, LocalDateTime start) {
+        withDoctorLock(doctorId, () -> {
+            doRemove(registrationId);
+            bookings.put(registrationId, new Booking(doctorId, start));
+            slotsByDoctor.computeIfAbsent(doctorId, id -> new ConcurrentSkipListMap<>())
+                    .merge(start, Set.of(registrationId), SlotIndex::union);
+            return null;
+        });
+    }
+
+    private static Set<Long> union(Set<Long> first, Set<Long> second) {
+        Set<Long> union = new HashSet<>(first);
+        union.addAll(second);
+        return Set.copyOf(union);
+    }
+
+    /**
+     * Releases a slot of the registration with the specified ID. The slot is booked
+     * again if the current transaction rolls back.
+     *
+     * @param registrationId ID of the registration to release a slot of
+     */
+    public void remove(long registrationId) {
+        Booking booking = doRemove(registrationId);
+        if (booking != null) {
+            onRollback(() -> doAdd(registrationId, booking.doctorId, booking.start));
+        }
+    }
+
+    /**
+     * Releases all slots of the doctor with the specified ID within the specified period.
+     * The slots are booked again if the current transaction rolls back.
+     *
+     * @param doctorId ID of the doctor to release slots of
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     */
+    public void releaseAll(long doctorId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, Set<Long>> slots = slotsByDoctor.get(doctorId);
+        if (slots == null) {
+            return;
+        }
+
+        List<Long> registrationIds = slots.subMap(from, true, to, false).values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toList());
+        registrationIds.forEach(this::remove);
+    }
+
+    private Booking doRemove(long registrationId) {
+        Booking booking = bookings.get(registrationId);
+        if (booking == null) {
+            return null;
+        }
+
+        return withDoctorLock(booking.doctorId, () -> {
+            if (!bookings.remove(registrationId, booking)) {
+                return null;
+            }
+
+            NavigableMap<LocalDateTime, Set<Long>> slots = slotsByDoctor.get(booking.doctorId);
+            slots.computeIfPresent(booking.start, (start, ids) -> {
+                Set<Long> rest = new HashSet<>(ids);
+                rest.remove(registrationId);
+                return rest.isEmpty() ? null : Set.copyOf(rest);
+            });
+
+            return booking;
+        });
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static class Booking {
+        private final long doctorId;
+        private final LocalDateTime start;
+
+        private Booking(long doctorId, LocalDateTime start) {
+            this.doctorId = doctorId;
+            this.start = start;
+        }
+    }
+}
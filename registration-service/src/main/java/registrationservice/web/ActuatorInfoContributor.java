@@ -21,29 +21,25 @@ import org.springframework.boot.actuate.info.Info;
 import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.stereotype.Component;
 
-import registrationservice.service.duty.DutyService;
-import registrationservice.service.registration.RegistrationService;
+import registrationservice.service.counter.RowCounters;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Component
 public class ActuatorInfoContributor implements InfoContributor {
-    private final DutyService dutyService;
-    private final RegistrationService registrationService;
+    private final RowCounters rowCounters;
 
     @Autowired
-    public ActuatorInfoContributor(DutyService dutyService,
-                                   RegistrationService registrationService) {
-        this.dutyService = dutyService;
-        this.registrationService = registrationService;
+    public ActuatorInfoContributor(RowCounters rowCounters) {
+        this.rowCounters = rowCounters;
     }
 
     @Override
     public void contribute(Info.Builder builder) {
         Map<String, Object> details = new HashMap<>();
-        details.put("The number of services: ", dutyService.count());
-        details.put("The number of registrations: ", registrationService.count());
+        details.put("The number of services: ", rowCounters.get(RowCounters.DUTIES));
+        details.put("The number of registrations: ", rowCounters.get(RowCounters.REGISTRATIONS));
 
         builder.withDetails(details);
     }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.web;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+import registrationservice.service.external.client.ClientServiceFeignClient;
+import registrationservice.service.external.employee.EmployeeServiceFeignClient;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Resolves IDs of authenticated users without loading their data.
+ * An ID is taken from the user_id claim of the access token. Tokens issued without the claim
+ * are resolved by email once and remembered, so ownership checks make no remote calls afterwards.
+ */
+@Component
+public class CallerIdResolver {
+    public static final String USER_ID_CLAIM = "user_id";
+
+    private static final Logger logger = LogManager.getLogger(CallerIdResolver.class);
+    private static final int MAX_RESOLVED_CALLERS = 10_000;
+
+    private final EmployeeServiceFeignClient employeeService;
+    private final ClientServiceFeignClient clientService;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<String, Long> resolvedCallers = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > MAX_RESOLVED_CALLERS;
+                }
+            });
+
+    @Autowired
+    public CallerIdResolver(EmployeeServiceFeignClient employeeService,
+                            ClientServiceFeignClient clientService,
+                            CircuitBreaker circuitBreaker) {
+        this.employeeService = employeeService;
+        this.clientService = clientService;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Resolves an ID of the specified user. A client ID is returned for users
+     * and an employee ID is returned for doctors.
+     *
+     * @param authentication authenticated user
+     *
+     * @return an ID of the user or Optional#empty() if it cannot be resolved
+     */
+    public Optional<Long> resolve(Authentication authentication) {
+        Optional<Long> claimed = findClaimedId(authentication);
+        if (claimed.isPresent()) {
+            return claimed;
+        }
+
+        String key = keyOf(authentication);
+        Long id = resolvedCallers.get(key);
+        if (id == null) {
+            id = lookUp(authentication);
+            if (id != null) {
+                resolvedCallers.put(key, id);
+            }
+        }
+
+        return Optional.ofNullable(id);
+    }
+
+    private Optional<Long> findClaimedId(Authentication authentication) {
+        if (!(authentication.getDetails() instanceof OAuth2AuthenticationDetails)) {
+            return Optional.empty();
+        }
+
+        Object claims = ((OAuth2AuthenticationDetails) authentication.getDetails()).getDecodedDetails();
+        if (!(claims instanceof Map)) {
+            return Optional.empty();
+        }
+
+        Object userId = ((Map<?, ?>) claims).get(USER_ID_CLAIM);
+        return (userId instanceof Number)
+                ? Optional.of(((Number) userId).longValue())
+                : Optional.empty();
+    }
+
+    private String keyOf(Authentication authentication) {
+        if (authentication.getDetails() instanceof OAuth2AuthenticationDetails) {
+            return ((OAuth2AuthenticationDetails) authentication.getDetails()).getTokenValue();
+        }
+
+        return authentication.getName();
+    }
+
+    private Long lookUp(Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            if (hasRole(authentication, "USER")) {
+                Supplier<Long> findClient = () -> clientService.findClientByEmail(email).getId();
+                return circuitBreaker.decorateSupplier(findClient).get();
+            }
+
+            if (hasRole(authentication, "DOCTOR")) {
+                Supplier<Long> findDoctor = () -> employeeService.findDoctorByEmail(email).getId();
+                return circuitBreaker.decorateSupplier(findDoctor).get();
+            }
+
+            return null;
+        } catch (Exception e) {
+            logger.error("Caller not resolved: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean hasRole(Authentication authentication, String role) {
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        return authorities.stream()
+                .anyMatch(authority -> authority.getAuthority().equals(role));
+    }
+}
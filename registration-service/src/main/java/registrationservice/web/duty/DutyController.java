@@ -19,7 +19,14 @@ package registrationservice.web.duty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -31,14 +38,26 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 
 import registrationservice.service.duty.Duty;
+import registrationservice.service.duty.DutyCatalog;
 import registrationservice.service.duty.DutyService;
+import registrationservice.service.external.employee.Doctor;
+import registrationservice.web.ETags;
 
 import javax.validation.Valid;
 
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(path = "/services", produces = "application/json")
@@ -46,18 +65,88 @@ import java.util.NoSuchElementException;
 public class DutyController {
     private final DutyService dutyService;
     private final DutyModelAssembler modelAssembler;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final AtomicReference<RenderedCatalog> renderedCatalog = new AtomicReference<>();
 
     @Autowired
     public DutyController(DutyService dutyService,
-                          DutyModelAssembler modelAssembler) {
+                          DutyModelAssembler modelAssembler,
+                          RequestMappingHandlerAdapter handlerAdapter) {
         this.dutyService = dutyService;
         this.modelAssembler = modelAssembler;
+        this.handlerAdapter = handlerAdapter;
     }
 
+    /**
+     * Serialized catalog snapshot with its ETag.
+     */
+    private static class RenderedCatalog {
+        private final long version;
+        private final byte[] body;
+        private final String etag;
+
+        private RenderedCatalog(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+    }
+
+    /**
+     * Returns the catalog rendered once per snapshot. The ETag is a hash of the body,
+     * so it survives rebuilds that do not change the catalog,
+     * and requests with a matching If-None-Match header get 304.
+     */
     @GetMapping
-    public CollectionModel<EntityModel<Duty>> getAll() {
-        List<Duty> duties = dutyService.findAll();
-        return modelAssembler.toCollectionModel(duties);
+    public ResponseEntity<byte[]> getAll() {
+        DutyCatalog.Snapshot snapshot = dutyService.getCatalog();
+        RenderedCatalog catalog = renderedCatalog.updateAndGet(current ->
+                (current != null && current.version == snapshot.getVersion()) ? current : render(snapshot));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.etag)
+                .body(catalog.body);
+    }
+
+    private RenderedCatalog render(DutyCatalog.Snapshot snapshot) {
+        CollectionModel<EntityModel<Duty>> model = modelAssembler.toCollectionModel(snapshot.getDuties());
+        return new RenderedCatalog(snapshot.getVersion(), serialize(model));
+    }
+
+    // Uses the converter that would render the model if it was returned, so the format stays the same
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(Object model) {
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            if (converter.canWrite(model.getClass(), MediaType.APPLICATION_JSON)) {
+                BufferedOutputMessage message = new BufferedOutputMessage();
+                try {
+                    ((HttpMessageConverter<Object>) converter).write(model, MediaType.APPLICATION_JSON, message);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                return message.body.toByteArray();
+            }
+        }
+
+        throw new IllegalStateException("No JSON converter for " + model.getClass().getName());
+    }
+
+    private static class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
     }
 
     @GetMapping(params = "name")
@@ -67,11 +156,33 @@ public class DutyController {
         return modelAssembler.toModel(duty);
     }
 
+    /**
+     * Returns the duty tagged with its version and a hash of IDs of its doctors.
+     * Doctors of the duty are not stored with it, so the tag changes whenever they do,
+     * and requests with a matching If-None-Match header get 304.
+     */
     @GetMapping("/{id}")
-    public EntityModel<Duty> getById(@PathVariable Long id) {
+    public ResponseEntity<EntityModel<Duty>> getById(@PathVariable Long id, WebRequest request) {
         Duty duty = dutyService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Service not found: " + id));
-        return modelAssembler.toModel(duty);
+        String eTag = eTagOf(duty);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(modelAssembler.toModel(duty));
+    }
+
+    private String eTagOf(Duty duty) {
+        String doctorIds = duty.getDoctors().stream()
+                .map(Doctor::getId)
+                .filter(Objects::nonNull)
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        return ETags.of(duty.getVersion(), DigestUtils.md5DigestAsHex(doctorIds.getBytes(StandardCharsets.UTF_8)));
     }
 
     @PostMapping(consumes = "application/json")
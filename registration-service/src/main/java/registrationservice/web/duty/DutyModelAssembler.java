@@ -41,8 +41,8 @@ public class DutyModelAssembler implements RepresentationModelAssembler<Duty, En
                 .slash("/doctors/?specialty=" + entity.getNeededSpecialty())
                 .withRel("doctors");
         EntityModel<Duty> entityModel = EntityModel.of(entity, doctorsLink);
-        entityModel.add(linkTo(methodOn(DutyController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(DutyController.class).getAll()).withRel("all"));
+        entityModel.add(linkTo(methodOn(DutyController.class).getById(entity.getId(), null)).withSelfRel(),
+                linkTo(DutyController.class).withRel("all"));
         return entityModel;
     }
 
@@ -50,7 +50,7 @@ public class DutyModelAssembler implements RepresentationModelAssembler<Duty, En
     public CollectionModel<EntityModel<Duty>> toCollectionModel(Iterable<? extends Duty> entities) {
         CollectionModel<EntityModel<Duty>> collectionModel =
                 RepresentationModelAssembler.super.toCollectionModel(entities);
-        collectionModel.add(linkTo(methodOn(DutyController.class).getAll()).withSelfRel());
+        collectionModel.add(linkTo(DutyController.class).withSelfRel());
         return collectionModel;
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.web.registration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import registrationservice.service.registration.DoctorAgenda;
+import registrationservice.service.registration.RegistrationService;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping(path = "/doctors", produces = "application/json")
+@CrossOrigin(origins = "*")
+public class DoctorAgendaController {
+    private final RegistrationService registrationService;
+
+    @Autowired
+    public DoctorAgendaController(RegistrationService registrationService) {
+        this.registrationService = registrationService;
+    }
+
+    @GetMapping(value = "/{id}/agenda", params = "day")
+    @PreAuthorize("@registrationAccessHandler.canGetAgenda(#id)")
+    public DoctorAgenda getAgenda(@PathVariable Long id,
+                                  @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate day) {
+        return registrationService.findAgenda(id, day);
+    }
+}
@@ -26,8 +26,11 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import registrationservice.data.RegistrationOwners;
 import registrationservice.service.registration.Registration;
+import registrationservice.service.registration.RegistrationIntake;
 import registrationservice.service.registration.RegistrationService;
+import registrationservice.web.CallerIdResolver;
 
 import java.util.Collection;
 import java.util.Optional;
@@ -39,10 +42,12 @@ import java.util.Optional;
 public class RegistrationAccessHandler {
     private static final Logger logger = LogManager.getLogger(RegistrationAccessHandler.class);
     private final RegistrationService registrationService;
+    private final CallerIdResolver callerIdResolver;
 
     @Autowired
-    public RegistrationAccessHandler(RegistrationService service) {
+    public RegistrationAccessHandler(RegistrationService service, CallerIdResolver callerIdResolver) {
         this.registrationService = service;
+        this.callerIdResolver = callerIdResolver;
     }
 
     /**
@@ -120,24 +125,115 @@ public class RegistrationAccessHandler {
                 .anyMatch(this::canGet);
     }
 
+    /**
+     * Decides whether the current user can access the registration with the specified ID
+     * without loading the registration. Ownership is resolved from IDs stored locally,
+     * so no remote calls are made.
+     *
+     * @param registrationId ID of the registration being accessed
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetById(long registrationId) {
+        return isOwnerOrManager(registrationId);
+    }
+
     /**
      * Decides whether the current user can change a status of the registration with the specified ID.
+     * Ownership is resolved from IDs stored locally, so no remote calls are made.
      *
      * @param registrationId ID if the registration being patched
      *
      * @return true if access is available, false otherwise
      */
     public boolean canPatchStatus(long registrationId) {
+        return isOwnerOrManager(registrationId);
+    }
+
+    private boolean isOwnerOrManager(long registrationId) {
         try {
-            Optional<Registration> registration = registrationService.findById(registrationId);
-            if (registration.isEmpty()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (!authentication.isAuthenticated()) {
+                return false;
+            }
+
+            Optional<RegistrationOwners> owners = registrationService.findOwnersById(registrationId);
+            if (owners.isEmpty()) {
                 return false;
-            } else {
-                return canGet(registration.get());
             }
+
+            if (hasRole(authentication, "USER")) {
+                return isCaller(authentication, owners.get().getClientId());
+            }
+
+            if (hasRole(authentication, "DOCTOR")) {
+                return isCaller(authentication, owners.get().getDoctorId());
+            }
+
+            return hasRole(authentication, "TOP_MANAGER");
         } catch (Exception e) {
             logger.error(e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Decides whether the current user can access the agenda of the doctor with the specified ID.
+     *
+     * @param doctorId ID of the doctor
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetAgenda(long doctorId) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (!authentication.isAuthenticated()) {
+                return false;
+            }
+
+            if (hasRole(authentication, "DOCTOR")) {
+                return isCaller(authentication, doctorId);
+            }
+
+            return hasRole(authentication, "TOP_MANAGER");
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Decides whether the current user can access the specified registration intake.
+     *
+     * @param intake intake being accessed
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetIntake(RegistrationIntake intake) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (!authentication.isAuthenticated()) {
+                return false;
+            }
+
+            if (hasRole(authentication, "USER")) {
+                return isCaller(authentication, intake.getClientId());
+            }
+
+            if (hasRole(authentication, "DOCTOR")) {
+                return isCaller(authentication, intake.getDoctorId());
+            }
+
+            return hasRole(authentication, "TOP_MANAGER");
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isCaller(Authentication authentication, Long ownerId) {
+        return callerIdResolver.resolve(authentication)
+                .map(callerId -> callerId.equals(ownerId))
+                .orElse(false);
+    }
 }
@@ -16,10 +16,22 @@
 
 package registrationservice.web.registration;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -36,49 +48,172 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import registrationservice.service.registration.BatchItemResult;
 import registrationservice.service.registration.Registration;
+import registrationservice.service.registration.RegistrationIntake;
+import registrationservice.service.registration.RegistrationIntakeService;
+import registrationservice.service.registration.RegistrationSearch;
 import registrationservice.service.registration.RegistrationService;
+import registrationservice.web.ETags;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @RestController
 @RequestMapping(path = "/registrations", produces = "application/json")
 @CrossOrigin(origins = "*")
 public class RegistrationController {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_CHUNK_SIZE = 200;
+
     private final RegistrationService registrationService;
+    private final RegistrationIntakeService intakeService;
     private final RegistrationModelAssembler modelAssembler;
+    private final ObjectMapper objectMapper;
+    private final RegistrationAccessHandler accessHandler;
 
     @Autowired
     public RegistrationController(RegistrationService registrationService,
-                                  RegistrationModelAssembler modelAssembler) {
+                                  RegistrationIntakeService intakeService,
+                                  RegistrationModelAssembler modelAssembler,
+                                  ObjectMapper objectMapper,
+                                  RegistrationAccessHandler accessHandler) {
         this.registrationService = registrationService;
+        this.intakeService = intakeService;
         this.modelAssembler = modelAssembler;
+        this.objectMapper = objectMapper;
+        this.accessHandler = accessHandler;
     }
 
     @GetMapping
     @PreAuthorize("hasAuthority('TOP_MANAGER')")
-    public CollectionModel<EntityModel<Registration>> getAll() {
-        List<Registration> registrations = registrationService.findAll();
-        return modelAssembler.toCollectionModel(registrations);
+    public CollectionModel<EntityModel<Registration>> getAll(@RequestParam(required = false) Long after,
+                                                            @RequestParam(required = false) Integer size,
+                                                            @RequestParam(required = false) Boolean hydrate) {
+        int limit = limit(size);
+        Slice<Registration> page = registrationService.findAll(cursor(after), limit);
+        hydrate(page.getContent(), hydrate);
+        CollectionModel<EntityModel<Registration>> model = modelAssembler.toCollectionModel(page);
+        if (page.hasNext()) {
+            model.add(linkTo(methodOn(RegistrationController.class).getAll(lastId(page), limit, hydrate))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+
+        return model;
+    }
+
+    // Stored doctor and client data is returned unless live data is requested explicitly
+    private void hydrate(List<Registration> registrations, Boolean hydrate) {
+        if (Boolean.TRUE.equals(hydrate)) {
+            registrationService.hydrate(registrations);
+        }
+    }
+
+    private long cursor(Long after) {
+        return (after == null) ? 0 : after;
+    }
+
+    private int limit(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private long lastId(Slice<Registration> page) {
+        List<Registration> content = page.getContent();
+        return content.get(content.size() - 1).getId();
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('TOP_MANAGER')")
+    public CollectionModel<EntityModel<Registration>> search(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Long dutyId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Boolean hydrate) {
+        RegistrationSearch search = RegistrationSearch.builder()
+                .withDoctorId(doctorId)
+                .withClientId(clientId)
+                .withDutyId(dutyId)
+                .withIsActive(active)
+                .withFrom(from)
+                .withTo(to)
+                .build();
+        int limit = limit(size);
+        Slice<Registration> page = registrationService.search(search, cursor(after), limit);
+        hydrate(page.getContent(), hydrate);
+        CollectionModel<EntityModel<Registration>> model = modelAssembler.toCollectionModel(page);
+        if (page.hasNext()) {
+            model.add(linkTo(methodOn(RegistrationController.class)
+                    .search(doctorId, clientId, dutyId, active, from, to, lastId(page), limit, hydrate))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+
+        return model;
     }
 
     @GetMapping(params = "doctorId")
     @PostAuthorize("@registrationAccessHandler.canGetAllByDoctorId(returnObject.content)")
-    public CollectionModel<EntityModel<Registration>> getAllByDoctorId(Long doctorId) {
-        List<Registration> registrations = registrationService.findAllByDoctorId(doctorId);
-        return modelAssembler.toCollectionModel(registrations);
+    public CollectionModel<EntityModel<Registration>> getAllByDoctorId(@RequestParam Long doctorId,
+                                                                      @RequestParam(required = false) Long after,
+                                                                      @RequestParam(required = false) Integer size,
+                                                                      @RequestParam(required = false) Boolean hydrate) {
+        int limit = limit(size);
+        Slice<Registration> page = registrationService.findAllByDoctorId(doctorId, cursor(after), limit);
+        hydrate(page.getContent(), hydrate);
+        CollectionModel<EntityModel<Registration>> model = modelAssembler.toCollectionModel(page);
+        if (page.hasNext()) {
+            model.add(linkTo(methodOn(RegistrationController.class)
+                    .getAllByDoctorId(doctorId, lastId(page), limit, hydrate))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+
+        return model;
     }
 
     @GetMapping(params = "clientId")
     @PostAuthorize("@registrationAccessHandler.canGetAnyByClientId(returnObject.content)")
-    public CollectionModel<EntityModel<Registration>> getAllByClientId(Long clientId) {
-        List<Registration> registrations = registrationService.findAllByClientId(clientId);
+    public CollectionModel<EntityModel<Registration>> getAllByClientId(@RequestParam Long clientId,
+                                                                      @RequestParam(required = false) Long after,
+                                                                      @RequestParam(required = false) Integer size,
+                                                                      @RequestParam(required = false) Boolean hydrate) {
+        int limit = limit(size);
+        Slice<Registration> page = registrationService.findAllByClientId(clientId, cursor(after), limit);
+        hydrate(page.getContent(), hydrate);
+        List<Registration> registrations = new ArrayList<>(page.getContent());
         filter(registrations);
-        return modelAssembler.toCollectionModel(registrations);
+
+        CollectionModel<EntityModel<Registration>> model = modelAssembler.toCollectionModel(registrations);
+        if (page.hasNext()) {
+            model.add(linkTo(methodOn(RegistrationController.class)
+                    .getAllByClientId(clientId, lastId(page), limit, hydrate))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+
+        return model;
     }
 
     // Cannot use @PostFilter on CollectionModel :(
@@ -107,12 +242,65 @@ public class RegistrationController {
         return authentication.getName().equals(email);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('TOP_MANAGER')")
+    public ResponseEntity<StreamingResponseBody> export() {
+        ObjectWriter writer = objectMapper.writerFor(Registration.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            registrationService.exportAll(EXPORT_CHUNK_SIZE, registration -> {
+                try {
+                    writer.writeValue(generator, registration);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            generator.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/availability", params = { "doctorId", "day" })
+    public List<LocalDateTime> getAvailability(@RequestParam Long doctorId,
+                                               @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate day) {
+        return registrationService.findFreeSlots(doctorId, day);
+    }
+
     @GetMapping("/{id}")
-    @PostAuthorize("@registrationAccessHandler.canGet(returnObject.content)")
-    public EntityModel<Registration> getById(@PathVariable Long id) {
+    @PostAuthorize("returnObject == null or @registrationAccessHandler.canGet(returnObject.body.content)")
+    public ResponseEntity<EntityModel<Registration>> getById(@PathVariable Long id,
+                                                             @RequestParam(required = false) Boolean hydrate,
+                                                             WebRequest request) {
+        // Hydrated representations carry remote data the version does not cover, so they are not tagged
+        if (Boolean.TRUE.equals(hydrate)) {
+            Registration registration = registrationService.findById(id)
+                    .orElseThrow(() -> new NoSuchElementException("Registration not found: " + id));
+            hydrate(List.of(registration), hydrate);
+            return ResponseEntity.ok(modelAssembler.toModel(registration));
+        }
+
+        // Nothing is returned only if the registration is not modified and the caller may read it.
+        // Version and access are checked for conditional requests only, other requests are authorized after loading
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = registrationService.findVersionById(id);
+            if (version.isPresent() && accessHandler.canGetById(id)
+                    && request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
+
         Registration registration = registrationService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Registration not found: " + id));
-        return modelAssembler.toModel(registration);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(registration.getVersion()))
+                .body(modelAssembler.toModel(registration));
     }
 
     @PostMapping
@@ -122,6 +310,39 @@ public class RegistrationController {
         return modelAssembler.toModel(saved);
     }
 
+    // Remote services are not called, the registration is created by background workers
+    @PostMapping(params = "async=true")
+    public ResponseEntity<RegistrationIntake> saveAsync(@RequestBody @Valid Registration registration) {
+        RegistrationIntake intake = intakeService.accept(registration);
+        return ResponseEntity.accepted()
+                .location(linkTo(methodOn(RegistrationController.class).getIntake(intake.getId())).toUri())
+                .body(intake);
+    }
+
+    @GetMapping("/intake/{id}")
+    @PostAuthorize("@registrationAccessHandler.canGetIntake(returnObject)")
+    public RegistrationIntake getIntake(@PathVariable Long id) {
+        return intakeService.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Registration intake not found: " + id));
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('TOP_MANAGER')")
+    public List<BatchItemResult> saveAll(@RequestBody List<Registration> registrations) {
+        return registrationService.saveAll(registrations);
+    }
+
+    @PatchMapping(value = "/status", params = { "doctorId", "from", "to" })
+    @PreAuthorize("hasAuthority('TOP_MANAGER')")
+    public Map<String, Integer> deactivateAllByDoctorId(@RequestParam Long doctorId,
+                                                        @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME)
+                                                                LocalDateTime from,
+                                                        @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME)
+                                                                LocalDateTime to) {
+        int updated = registrationService.deactivateAllByDoctorId(doctorId, from, to);
+        return Map.of("updated", updated);
+    }
+
     @PatchMapping("/{id}/status")
     @PreAuthorize("@registrationAccessHandler.canPatchStatus(#id)")
     public EntityModel<Registration> changeStatus(@PathVariable Long id,
@@ -48,9 +48,9 @@ public class RegistrationModelAssembler
                 .withRel("client");
 
         EntityModel<Registration> entityModel = EntityModel.of(entity, doctorLink, clientLink);
-        entityModel.add(linkTo(methodOn(DutyController.class).getById(entity.getId())).withRel("service"),
-                linkTo(methodOn(RegistrationController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(RegistrationController.class).getAll()).withRel("all"));
+        entityModel.add(linkTo(methodOn(DutyController.class).getById(entity.getId(), null)).withRel("service"),
+                linkTo(methodOn(RegistrationController.class).getById(entity.getId(), null, null)).withSelfRel(),
+                linkTo(methodOn(RegistrationController.class).getAll(null, null, null)).withRel("all"));
         return entityModel;
     }
 
@@ -59,7 +59,7 @@ public class RegistrationModelAssembler
         toCollectionModel(Iterable<? extends Registration> entities) {
         CollectionModel<EntityModel<Registration>> collectionModel =
                 RepresentationModelAssembler.super.toCollectionModel(entities);
-        collectionModel.add(linkTo(methodOn(RegistrationController.class).getAll()).withSelfRel());
+        collectionModel.add(linkTo(methodOn(RegistrationController.class).getAll(null, null, null)).withSelfRel());
         return collectionModel;
     }
 }
@@ -20,22 +20,37 @@ import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
 
 import registrationservice.data.DutyRepository;
 import registrationservice.data.RegistrationRepository;
+import registrationservice.service.counter.RowCounters;
+import registrationservice.service.duty.DutyCatalog;
 import registrationservice.service.duty.DutyService;
 import registrationservice.service.duty.DutyServiceImpl;
 import registrationservice.service.external.client.Client;
 import registrationservice.service.external.client.ClientServiceFeignClient;
 import registrationservice.service.external.employee.EmployeeServiceFeignClient;
 import registrationservice.service.external.employee.Doctor;
+import registrationservice.service.registration.AgendaCache;
+import registrationservice.service.registration.OwnerSnapshotRefresher;
 import registrationservice.service.registration.RegistrationService;
 import registrationservice.service.registration.RegistrationServiceImpl;
+import registrationservice.service.registration.SlotIndex;
+import registrationservice.web.CallerIdResolver;
 
+import javax.persistence.EntityManager;
 import javax.validation.Validator;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -48,24 +63,54 @@ public class IntegrationTestConfig {
     @Autowired
     private RegistrationRepository registrationRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Autowired
     private CircuitBreaker circuitBreaker;
 
     @Autowired
     private Validator validator;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SlotIndex slotIndex;
+
+    @Autowired
+    private DutyCatalog dutyCatalog;
+
+    @Autowired
+    private OwnerSnapshotRefresher snapshotRefresher;
+
+    @Autowired
+    private AgendaCache agendaCache;
+
+    @Autowired
+    private RowCounters rowCounters;
+
     @Bean
     @Primary
     public RegistrationService registrationService() {
-        return new RegistrationServiceImpl(registrationRepository, employeeServiceFeignClient(),
-                clientServiceFeignClient(), validator, circuitBreaker);
+        return new RegistrationServiceImpl(registrationRepository, dutyRepository, entityManager,
+                employeeServiceFeignClient(), clientServiceFeignClient(),
+                validator, circuitBreaker, cacheManager, slotIndex, snapshotRefresher, agendaCache,
+                rowCounters);
     }
 
     @Bean
     @Primary
     public DutyService dutyService() {
         return new DutyServiceImpl(dutyRepository, registrationRepository,
-                employeeServiceFeignClient(), validator, circuitBreaker);
+                employeeServiceFeignClient(), validator, circuitBreaker, dutyCatalog, agendaCache,
+                rowCounters);
+    }
+
+    @Bean
+    @Primary
+    public CallerIdResolver testCallerIdResolver() {
+        return new CallerIdResolver(employeeServiceFeignClient(), clientServiceFeignClient(), circuitBreaker);
     }
 
     @Bean
@@ -85,6 +130,15 @@ public class IntegrationTestConfig {
         ClientServiceFeignClient feignClient = mock(ClientServiceFeignClient.class);
         when(feignClient.findClientById(1L)).thenReturn(firstClient);
         when(feignClient.findClientById(2L)).thenReturn(secondClient);
+        when(feignClient.findClientByEmail("emma@gmail.com")).thenReturn(firstClient);
+        when(feignClient.findClientByEmail("jain@gmail.com")).thenReturn(secondClient);
+        when(feignClient.findAllClientsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return CollectionModel.of(List.of(firstClient, secondClient).stream()
+                    .filter(client -> ids.contains(client.getId()))
+                    .map(EntityModel::of)
+                    .collect(Collectors.toList()));
+        });
 
         return feignClient;
     }
@@ -108,6 +162,22 @@ public class IntegrationTestConfig {
         EmployeeServiceFeignClient feignClient = mock(EmployeeServiceFeignClient.class);
         when(feignClient.findDoctorById(1L)).thenReturn(firstDoctor);
         when(feignClient.findDoctorById(2L)).thenReturn(secondDoctor);
+        when(feignClient.findDoctorByEmail("mark@gmail.com")).thenReturn(firstDoctor);
+        when(feignClient.findDoctorByEmail("robert@gmail.com")).thenReturn(secondDoctor);
+        when(feignClient.findAllDoctorsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return CollectionModel.of(List.of(firstDoctor, secondDoctor).stream()
+                    .filter(doctor -> ids.contains(doctor.getId()))
+                    .map(EntityModel::of)
+                    .collect(Collectors.toList()));
+        });
+        when(feignClient.findAllDoctorsBySpecialties(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> specialties = invocation.getArgument(0);
+            return CollectionModel.of(List.of(firstDoctor, secondDoctor).stream()
+                    .filter(doctor -> specialties.contains(doctor.getSpecialty()))
+                    .map(EntityModel::of)
+                    .collect(Collectors.toList()));
+        });
 
         return feignClient;
     }
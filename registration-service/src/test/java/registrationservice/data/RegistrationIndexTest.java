@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.data;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import registrationservice.config.IntegrationTestConfig;
+
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@Tag("category.IntegrationTest")
+@SpringBootTest(properties = "spring.cloud.config.enabled=false")
+@ContextConfiguration(classes = IntegrationTestConfig.class)
+public class RegistrationIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void shouldUseDoctorDateIndexWhenSearchingByDoctorAndDate() {
+        String plan = explain("SELECT id FROM registration " +
+                "WHERE doctor_id = 1 AND date >= '2022-01-01 00:00:00' AND date < '2022-02-01 00:00:00'");
+        assertThat(plan, containsString("idx_registration_doctor_date"));
+    }
+
+    @Test
+    public void shouldUseClientDateIndexWhenSearchingByClientAndDate() {
+        String plan = explain("SELECT id FROM registration " +
+                "WHERE client_id = 1 AND date >= '2022-01-01 00:00:00' AND date < '2022-02-01 00:00:00'");
+        assertThat(plan, containsString("idx_registration_client_date"));
+    }
+
+    private String explain(String query) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+        return plan.toLowerCase(Locale.ROOT);
+    }
+}
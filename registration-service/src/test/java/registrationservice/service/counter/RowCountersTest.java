@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.counter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import registrationservice.data.DutyRepository;
+import registrationservice.data.RegistrationRepository;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Tag("category.UnitTest")
+public class RowCountersTest {
+    private RegistrationRepository registrationRepository;
+    private MeterRegistry meterRegistry;
+    private RowCounters rowCounters;
+
+    @BeforeEach
+    public void beforeEach() {
+        registrationRepository = mock(RegistrationRepository.class);
+        DutyRepository dutyRepository = mock(DutyRepository.class);
+        when(registrationRepository.count()).thenReturn(5L);
+        when(dutyRepository.count()).thenReturn(3L);
+
+        meterRegistry = new SimpleMeterRegistry();
+        rowCounters = new RowCounters(registrationRepository, dutyRepository, meterRegistry);
+        rowCounters.warmUp();
+    }
+
+    @Test
+    public void shouldReturnCountsWithoutQueryingDatabaseAfterWarmUp() {
+        rowCounters.get(RowCounters.REGISTRATIONS);
+        rowCounters.get(RowCounters.REGISTRATIONS);
+
+        assertThat(rowCounters.get(RowCounters.REGISTRATIONS), is(equalTo(5L)));
+        assertThat(rowCounters.get(RowCounters.DUTIES), is(equalTo(3L)));
+        verify(registrationRepository, times(1)).count();
+    }
+
+    @Test
+    public void shouldApplyChangesToCounts() {
+        rowCounters.add(RowCounters.REGISTRATIONS, 3);
+        rowCounters.add(RowCounters.REGISTRATIONS, -1);
+
+        assertThat(rowCounters.get(RowCounters.REGISTRATIONS), is(equalTo(7L)));
+    }
+
+    @Test
+    public void shouldReplaceDriftedCountOnReconciliation() {
+        rowCounters.add(RowCounters.REGISTRATIONS, 10);
+        rowCounters.reconcile();
+
+        assertThat(rowCounters.get(RowCounters.REGISTRATIONS), is(equalTo(5L)));
+    }
+
+    @Test
+    public void shouldExposeCountsAsGauges() {
+        double rows = meterRegistry.get("table.rows")
+                .tag("table", RowCounters.DUTIES)
+                .gauge()
+                .value();
+
+        assertThat(rows, is(equalTo(3.0)));
+    }
+}
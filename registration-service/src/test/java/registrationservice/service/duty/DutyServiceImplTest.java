@@ -25,10 +25,18 @@ import org.junit.jupiter.api.Test;
 
 import org.mockito.Mockito;
 
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import registrationservice.config.properties.AgendaProperties;
 import registrationservice.data.DutyRepository;
 import registrationservice.data.RegistrationRepository;
+import registrationservice.service.counter.RowCounters;
 import registrationservice.service.exception.IllegalModificationException;
+import registrationservice.service.exception.RemoteResourceException;
+import registrationservice.service.external.employee.Doctor;
 import registrationservice.service.external.employee.EmployeeServiceFeignClient;
+import registrationservice.service.registration.AgendaCache;
 
 import javax.validation.Validator;
 
@@ -36,17 +44,23 @@ import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Tag("category.UnitTest")
@@ -98,9 +112,11 @@ public class DutyServiceImplTest {
 
     @BeforeEach
     public void beforeEach() {
-        Mockito.reset(dutyRepository, validator);
+        Mockito.reset(dutyRepository, validator, employeeService);
+        when(employeeService.findAllDoctorsBySpecialties(anyCollection())).thenReturn(CollectionModel.empty());
         dutyService = new DutyServiceImpl(dutyRepository, registrationRepository,
-                employeeService, validator, circuitBreaker);
+                employeeService, validator, circuitBreaker, new DutyCatalog(),
+                new AgendaCache(new AgendaProperties()), mock(RowCounters.class));
     }
 
     @Test
@@ -120,6 +136,42 @@ public class DutyServiceImplTest {
         assertThat(saved, is(equalTo(duties)));
     }
 
+    @Test
+    public void shouldLoadDoctorsOncePerSpecialtyWhenListingDuties() {
+        Doctor doctor = Doctor.builder().withId(1L).withSpecialty("Specialty1").build();
+        when(employeeService.findAllDoctorsBySpecialties(anyCollection()))
+                .thenReturn(CollectionModel.of(List.of(EntityModel.of(doctor))));
+        Duty other = new Duty(duty);
+        other.setNeededSpecialty("specialty1");
+        when(dutyRepository.findAll()).thenReturn(List.of(new Duty(duty), other, new Duty(updatedDuty)));
+        Mockito.clearInvocations(employeeService);
+
+        List<Duty> saved = dutyService.findAll();
+        verify(employeeService, times(1)).findAllDoctorsBySpecialties(anyCollection());
+        assertThat(saved.get(0).getDoctors(), is(equalTo(Set.of(doctor))));
+        assertThat(saved.get(1).getDoctors(), is(equalTo(Set.of(doctor))));
+        assertThat(saved.get(2).getDoctors().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldNotPublishCatalogWithoutDoctorsWhenEmployeeServiceFails() {
+        when(dutyRepository.findAll()).thenReturn(List.of(new Duty(duty)));
+        dutyService.getCatalog();
+        when(employeeService.findAllDoctorsBySpecialties(anyCollection())).thenThrow(RuntimeException.class);
+
+        assertThrows(RemoteResourceException.class, () -> dutyService.refreshCatalog());
+        assertThrows(RemoteResourceException.class, () -> dutyService.getCatalog());
+    }
+
+    @Test
+    public void shouldReturnDutyWithoutDoctorsByIdWhenEmployeeServiceFails() {
+        when(dutyRepository.findById(1L)).thenReturn(Optional.of(new Duty(duty)));
+        when(employeeService.findAllDoctorsBySpecialties(anyCollection())).thenThrow(RuntimeException.class);
+
+        Duty found = dutyService.findById(1).orElseThrow();
+        assertThat(found.getDoctors().isEmpty(), is(true));
+    }
+
     @Test
     public void shouldReturnDutyByNameWhenContainsDuty() {
         when(dutyRepository.findByName(duty.getName())).thenReturn(Optional.ofNullable(duty));
@@ -145,6 +197,19 @@ public class DutyServiceImplTest {
         assertThat(saved, equalTo(duty));
     }
 
+    @Test
+    public void shouldPublishNewCatalogSnapshotWhenSavesDuty() {
+        when(dutyRepository.findAll()).thenReturn(List.of(duty));
+        DutyCatalog.Snapshot initial = dutyService.getCatalog();
+        assertThat(dutyService.getCatalog(), is(sameInstance(initial)));
+
+        when(dutyRepository.save(any(Duty.class))).thenReturn(duty);
+        when(validator.validate(any(Duty.class))).thenReturn(Collections.emptySet());
+        dutyService.save(duty);
+
+        assertThat(dutyService.getCatalog().getVersion(), is(not(equalTo(initial.getVersion()))));
+    }
+
     @Test
     public void shouldThrowExceptionWhenDutyIsInvalid() {
         when(validator.validate(any(Duty.class))).thenThrow(IllegalModificationException.class);
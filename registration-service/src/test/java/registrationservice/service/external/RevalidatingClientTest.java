@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.external;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@Tag("category.UnitTest")
+public class RevalidatingClientTest {
+    private static final String URL = "http://employee-service/doctors/1";
+
+    private final Deque<Response.Builder> responses = new ArrayDeque<>();
+    private final List<Request> sent = new ArrayList<>();
+
+    private RevalidatingClient client;
+
+    @BeforeEach
+    public void beforeEach() {
+        responses.clear();
+        sent.clear();
+        Client delegate = (request, options) -> {
+            sent.add(request);
+            return responses.removeFirst().request(request).build();
+        };
+
+        client = new RevalidatingClient(delegate, 10);
+    }
+
+    private static Response.Builder response(int status, String etag, String body) {
+        Map<String, Collection<String>> headers = (etag == null)
+                ? Collections.emptyMap()
+                : Map.of("ETag", List.of(etag));
+        return Response.builder()
+                .status(status)
+                .reason("")
+                .headers(headers)
+                .body(body, StandardCharsets.UTF_8);
+    }
+
+    private Response get() throws IOException {
+        Request request = Request.create(Request.HttpMethod.GET, URL, Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        return client.execute(request, new Request.Options());
+    }
+
+    private static String bodyOf(Response response) throws IOException {
+        return Util.toString(response.body().asReader(StandardCharsets.UTF_8));
+    }
+
+    private String ifNoneMatchOf(int request) {
+        Collection<String> values = sent.get(request).headers().get("If-None-Match");
+        return (values == null) ? null : values.iterator().next();
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedResponseWithKeptBody() throws IOException {
+        responses.add(response(200, "W/\"1\"", "doctor"));
+        responses.add(response(304, "W/\"1\"", ""));
+
+        assertThat(bodyOf(get()), is(equalTo("doctor")));
+        Response revalidated = get();
+
+        assertThat(ifNoneMatchOf(1), is(equalTo("W/\"1\"")));
+        assertThat(revalidated.status(), is(equalTo(200)));
+        assertThat(bodyOf(revalidated), is(equalTo("doctor")));
+    }
+
+    @Test
+    public void shouldReplaceKeptResponseWhenEntityIsModified() throws IOException {
+        responses.add(response(200, "W/\"1\"", "doctor"));
+        responses.add(response(200, "W/\"2\"", "updated doctor"));
+        responses.add(response(304, "W/\"2\"", ""));
+
+        get();
+        assertThat(bodyOf(get()), is(equalTo("updated doctor")));
+        Response revalidated = get();
+
+        assertThat(ifNoneMatchOf(2), is(equalTo("W/\"2\"")));
+        assertThat(bodyOf(revalidated), is(equalTo("updated doctor")));
+    }
+
+    @Test
+    public void shouldForgetKeptResponseWhenEntityIsNotFound() throws IOException {
+        responses.add(response(200, "W/\"1\"", "doctor"));
+        responses.add(response(404, null, ""));
+        responses.add(response(404, null, ""));
+
+        get();
+        Response notFound = get();
+        get();
+
+        assertThat(notFound.status(), is(equalTo(404)));
+        assertThat(ifNoneMatchOf(2), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotKeepResponsesWithoutETag() throws IOException {
+        responses.add(response(200, null, "doctors"));
+        responses.add(response(200, null, "doctors"));
+
+        get();
+        get();
+
+        assertThat(ifNoneMatchOf(1), is(nullValue()));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import registrationservice.config.properties.AgendaProperties;
+import registrationservice.data.OwnerSnapshot;
+import registrationservice.data.RegistrationRepository;
+import registrationservice.service.external.client.ClientServiceFeignClient;
+import registrationservice.service.external.employee.Doctor;
+import registrationservice.service.external.employee.EmployeeServiceFeignClient;
+
+import java.util.List;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Tag("category.UnitTest")
+public class OwnerSnapshotRefresherTest {
+    private RegistrationRepository repository;
+    private EmployeeServiceFeignClient employeeService;
+    private ClientServiceFeignClient clientService;
+    private OwnerSnapshotRefresher refresher;
+
+    @BeforeEach
+    public void beforeEach() {
+        repository = mock(RegistrationRepository.class);
+        employeeService = mock(EmployeeServiceFeignClient.class);
+        clientService = mock(ClientServiceFeignClient.class);
+        when(clientService.findAllClientsByIds(anyCollection())).thenReturn(CollectionModel.empty());
+
+        CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+        when(circuitBreaker.decorateSupplier(any())).then(returnsFirstArg());
+
+        refresher = new OwnerSnapshotRefresher(repository, employeeService, clientService, circuitBreaker,
+                new AgendaCache(new AgendaProperties()));
+    }
+
+    @Test
+    public void shouldUpdateOnlyOutdatedDoctorsWhenRefreshesAll() {
+        Doctor renamed = Doctor.builder().withId(1L).withEmail("mark@gmail.com").withName("Marcus").build();
+        Doctor unchanged = Doctor.builder().withId(2L).withEmail("robert@gmail.com").withName("Robert").build();
+        when(repository.findAllDoctorSnapshots()).thenReturn(List.of(
+                snapshot(1L, "mark@gmail.com", "Mark"), snapshot(2L, "robert@gmail.com", "Robert")));
+        when(employeeService.findAllDoctorsByIds(anyCollection()))
+                .thenReturn(CollectionModel.of(List.of(EntityModel.of(renamed), EntityModel.of(unchanged))));
+
+        refresher.refreshAll();
+        refresher.flushPending();
+
+        verify(repository, times(1)).updateDoctorSnapshot(1L, "mark@gmail.com", "Marcus");
+        verify(repository, never()).updateDoctorSnapshot(2L, "robert@gmail.com", "Robert");
+    }
+
+    @Test
+    public void shouldWriteQueuedDoctorOnceWhenQueuedRepeatedly() {
+        Doctor doctor = Doctor.builder().withId(1L).withEmail("mark@gmail.com").withName("Mark").build();
+        refresher.refresh(doctor);
+        refresher.refresh(doctor);
+
+        refresher.flushPending();
+        refresher.flushPending();
+
+        verify(repository, times(1)).updateDoctorSnapshot(anyLong(), anyString(), anyString());
+    }
+
+    private OwnerSnapshot snapshot(Long id, String email, String name) {
+        return new OwnerSnapshot() {
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.domain.Pageable;
+
+import registrationservice.data.RegistrationIntakeRepository;
+import registrationservice.service.duty.Duty;
+import registrationservice.service.exception.RemoteResourceException;
+import registrationservice.service.external.client.Client;
+import registrationservice.service.external.employee.Doctor;
+import registrationservice.service.registration.RegistrationIntake.Status;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Tag("category.UnitTest")
+public class RegistrationIntakeServiceImplTest {
+    private RegistrationIntakeRepository repository;
+    private RegistrationService registrationService;
+    private RegistrationIntakeServiceImpl intakeService;
+
+    @BeforeEach
+    public void beforeEach() {
+        repository = mock(RegistrationIntakeRepository.class);
+        registrationService = mock(RegistrationService.class);
+
+        CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+        when(circuitBreaker.decorateSupplier(any())).then(returnsFirstArg());
+
+        intakeService = new RegistrationIntakeServiceImpl(repository, registrationService, circuitBreaker);
+    }
+
+    @Test
+    public void shouldStoreIntakeWithoutCallingRegistrationServiceWhenAcceptsRegistration() {
+        when(repository.save(any(RegistrationIntake.class))).then(returnsFirstArg());
+
+        RegistrationIntake intake = intakeService.accept(registration(1L));
+
+        assertThat(intake.getStatus(), is(Status.PENDING));
+        assertThat(intake.getDoctorId(), is(equalTo(1L)));
+        verify(registrationService, never()).saveAll(any());
+    }
+
+    @Test
+    public void shouldNotClaimAnythingWhenNoIntakesArePending() {
+        when(repository.findIdsByStatus(eq(Status.PENDING), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        Optional<String> claim = intakeService.claimPending(10);
+
+        assertThat(claim, is(Optional.empty()));
+        verify(repository, never()).claim(anyCollection(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldRecordOutcomeOfEveryIntakeWhenProcessesClaimedBatch() {
+        RegistrationIntake accepted = new RegistrationIntake(registration(1L));
+        RegistrationIntake rejected = new RegistrationIntake(registration(2L));
+        when(repository.findAllByClaimOrderById("claim")).thenReturn(List.of(accepted, rejected));
+
+        Registration created = registration(1L);
+        created.setId(10L);
+        when(registrationService.saveAll(any())).thenReturn(List.of(
+                BatchItemResult.created(0, created), BatchItemResult.rejected(1, "No doctor with id 2")));
+
+        intakeService.process("claim");
+
+        assertThat(accepted.getStatus(), is(Status.CREATED));
+        assertThat(accepted.getRegistrationId(), is(equalTo(10L)));
+        assertThat(rejected.getStatus(), is(Status.REJECTED));
+        assertThat(rejected.getError(), is(equalTo("No doctor with id 2")));
+    }
+
+    @Test
+    public void shouldLeaveIntakesUnchangedWhenRemoteServicesAreUnavailable() {
+        RegistrationIntake intake = new RegistrationIntake(registration(1L));
+        when(repository.findAllByClaimOrderById("claim")).thenReturn(List.of(intake));
+        when(registrationService.saveAll(any())).thenThrow(RemoteResourceException.class);
+
+        assertThrows(RemoteResourceException.class, () -> intakeService.process("claim"));
+        assertThat(intake.getStatus(), is(Status.PENDING));
+        verify(repository, never()).saveAll(any());
+    }
+
+    private Registration registration(long doctorId) {
+        return Registration.builder()
+                .withDate(LocalDateTime.of(2030, 1, 1, 10, 0))
+                .withDuty(Duty.builder().withId(1L).build())
+                .withDoctor(Doctor.builder().withId(doctorId).build())
+                .withClient(Client.builder().withId(1L).build())
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import registrationservice.config.IntegrationTestConfig;
+import registrationservice.service.duty.Duty;
+import registrationservice.service.external.client.Client;
+import registrationservice.service.external.employee.Doctor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Compares throughput of saving registrations one by one and with POST /registrations/batch.
+ * Registrations are saved to the in-memory database; remote services are stubbed without delay,
+ * so the numbers reflect validation and insert cost only.
+ */
+@Tag("category.PerformanceTest")
+@SpringBootTest(properties = "spring.cloud.config.enabled=false")
+@ContextConfiguration(classes = IntegrationTestConfig.class)
+public class RegistrationServiceImplBenchmarkTest {
+    private static final int REGISTRATIONS = 2000;
+
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Test
+    public void shouldSaveRegistrationsFasterWhenSavedInBatch() {
+        List<Registration> warmUp = createRegistrations(LocalDateTime.of(2040, 1, 1, 0, 0), 100);
+        warmUp.subList(0, 50).forEach(registrationService::save);
+        registrationService.saveAll(warmUp.subList(50, 100));
+
+        List<Registration> single = createRegistrations(LocalDateTime.of(2041, 1, 1, 0, 0), REGISTRATIONS);
+        long start = System.nanoTime();
+        single.forEach(registrationService::save);
+        long singleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        List<Registration> batch = createRegistrations(LocalDateTime.of(2042, 1, 1, 0, 0), REGISTRATIONS);
+        start = System.nanoTime();
+        registrationService.saveAll(batch);
+        long batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.printf("Saving %d registrations%n", REGISTRATIONS);
+        System.out.printf("single: %d ms, %d registrations/s%n", singleMillis, throughput(singleMillis));
+        System.out.printf("batch: %d ms, %d registrations/s%n", batchMillis, throughput(batchMillis));
+
+        assertThat(throughput(batchMillis), greaterThan(throughput(singleMillis)));
+    }
+
+    private static List<Registration> createRegistrations(LocalDateTime from, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Registration.builder()
+                        .withDate(from.plusMinutes(30L * i))
+                        .withDuty(Duty.builder().withId(1L).build())
+                        .withDoctor(Doctor.builder().withId(1L).build())
+                        .withClient(Client.builder().withId(1L).build())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static long throughput(long millis) {
+        return REGISTRATIONS * 1000L / Math.max(1, millis);
+    }
+}
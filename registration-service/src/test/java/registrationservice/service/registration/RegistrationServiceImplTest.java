@@ -25,7 +25,19 @@ import org.junit.jupiter.api.Test;
 
 import org.mockito.Mockito;
 
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import registrationservice.config.properties.AgendaProperties;
+import registrationservice.config.properties.SlotProperties;
+import registrationservice.data.DutyRepository;
 import registrationservice.data.RegistrationRepository;
+import registrationservice.service.counter.RowCounters;
 import registrationservice.service.duty.Duty;
 import registrationservice.service.exception.IllegalModificationException;
 import registrationservice.service.external.client.Client;
@@ -33,9 +45,12 @@ import registrationservice.service.external.client.ClientServiceFeignClient;
 import registrationservice.service.external.employee.Doctor;
 import registrationservice.service.external.employee.EmployeeServiceFeignClient;
 
+import javax.persistence.EntityManager;
 import javax.validation.Validator;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -44,21 +59,30 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Tag("category.UnitTest")
 public class RegistrationServiceImplTest {
     private static RegistrationRepository registrationRepository;
+    private static DutyRepository dutyRepository;
+    private static EntityManager entityManager;
     private static Validator validator;
     private static CircuitBreaker circuitBreaker;
     private static EmployeeServiceFeignClient employeeService;
     private static ClientServiceFeignClient clientService;
+    private static OwnerSnapshotRefresher snapshotRefresher;
 
     private static Registration registration;
 
@@ -67,15 +91,22 @@ public class RegistrationServiceImplTest {
     @BeforeAll
     public static void setUpMocks() {
         registrationRepository = mock(RegistrationRepository.class);
+        dutyRepository = mock(DutyRepository.class);
+        entityManager = mock(EntityManager.class);
         validator = mock(Validator.class);
+        snapshotRefresher = mock(OwnerSnapshotRefresher.class);
 
         clientService = mock(ClientServiceFeignClient.class);
         Client client = Client.builder().withId(1L).build();
         when(clientService.findClientById(any(Long.class))).thenReturn(client);
+        when(clientService.findAllClientsByIds(anyCollection()))
+                .thenReturn(CollectionModel.of(List.of(EntityModel.of(client))));
 
         employeeService = mock(EmployeeServiceFeignClient.class);
         Doctor doctor = Doctor.builder().withId(1L).build();
         when(employeeService.findDoctorById(any(Long.class))).thenReturn(doctor);
+        when(employeeService.findAllDoctorsByIds(anyCollection()))
+                .thenReturn(CollectionModel.of(List.of(EntityModel.of(doctor))));
 
         circuitBreaker = mock(CircuitBreaker.class);
         when(circuitBreaker.decorateSupplier(any())).then(returnsFirstArg());
@@ -99,9 +130,11 @@ public class RegistrationServiceImplTest {
 
     @BeforeEach
     public void beforeEach() {
-        Mockito.reset(registrationRepository, validator);
-        registrationService = new RegistrationServiceImpl(registrationRepository,
-                employeeService, clientService, validator, circuitBreaker);
+        Mockito.reset(registrationRepository, dutyRepository, validator, snapshotRefresher);
+        registrationService = new RegistrationServiceImpl(registrationRepository, dutyRepository, entityManager,
+                employeeService, clientService, validator, circuitBreaker, new NoOpCacheManager(),
+                new SlotIndex(registrationRepository, new SlotProperties()), snapshotRefresher,
+                new AgendaCache(new AgendaProperties()), mock(RowCounters.class));
     }
 
     @Test
@@ -121,6 +154,91 @@ public class RegistrationServiceImplTest {
         assertThat(saved, is(equalTo(registrations)));
     }
 
+    @Test
+    public void shouldLoadDoctorsAndClientsInSingleRequestWhenListingRegistrations() {
+        List<Registration> registrations = List.of(registration, registration, registration);
+        when(registrationRepository.findAll()).thenReturn(registrations);
+        Mockito.clearInvocations(employeeService, clientService);
+
+        registrationService.findAll();
+        verify(employeeService, times(1)).findAllDoctorsByIds(anyCollection());
+        verify(clientService, times(1)).findAllClientsByIds(anyCollection());
+        verify(employeeService, never()).findDoctorById(any(Long.class));
+        verify(clientService, never()).findClientById(any(Long.class));
+    }
+
+    @Test
+    public void shouldNotCallRemoteServicesWhenDoctorsAndClientsAreCached() {
+        RegistrationServiceImpl cachingService = new RegistrationServiceImpl(registrationRepository,
+                dutyRepository, entityManager, employeeService, clientService, validator, circuitBreaker,
+                new ConcurrentMapCacheManager(), new SlotIndex(registrationRepository, new SlotProperties()),
+                snapshotRefresher, new AgendaCache(new AgendaProperties()), mock(RowCounters.class));
+        List<Registration> registrations = List.of(registration, registration, registration);
+        when(registrationRepository.findAll()).thenReturn(registrations);
+
+        cachingService.findAll();
+        Mockito.clearInvocations(employeeService, clientService);
+        cachingService.findAll();
+
+        verify(employeeService, never()).findAllDoctorsByIds(anyCollection());
+        verify(clientService, never()).findAllClientsByIds(anyCollection());
+    }
+
+    @Test
+    public void shouldNotCallRemoteServicesWhenRegistrationsStoreDoctorsAndClients() {
+        Registration stored = registrationWithStoredOwners("mark@gmail.com");
+        when(registrationRepository.findAll()).thenReturn(List.of(stored));
+        Mockito.clearInvocations(employeeService, clientService);
+
+        Registration found = registrationService.findAll().get(0);
+
+        assertThat(found.getDoctor().getEmail(), is(equalTo("mark@gmail.com")));
+        verify(employeeService, never()).findAllDoctorsByIds(anyCollection());
+        verify(clientService, never()).findAllClientsByIds(anyCollection());
+    }
+
+    private Registration registrationWithStoredOwners(String doctorEmail) {
+        Registration stored = new Registration(registration);
+        stored.setDoctor(Doctor.builder().withId(1L).withEmail(doctorEmail).withName("Mark").build());
+        stored.setClient(Client.builder().withId(1L).withEmail("emma@gmail.com").withName("Emma").build());
+        return stored;
+    }
+
+    @Test
+    public void shouldQueueRefreshWhenHydratedOwnersDifferFromStoredOnes() {
+        Registration stored = registrationWithStoredOwners("old@gmail.com");
+
+        registrationService.hydrate(List.of(stored));
+
+        verify(snapshotRefresher, times(1)).refresh(any(Doctor.class));
+        verify(snapshotRefresher, times(1)).refresh(any(Client.class));
+    }
+
+    @Test
+    public void shouldReturnPageOfRegistrationsAfterSpecifiedId() {
+        List<Registration> registrations = List.of(registration, registration);
+        Slice<Registration> page = new SliceImpl<>(registrations, PageRequest.of(0, 2), true);
+        when(registrationRepository.findAllByIdGreaterThan(any(Long.class), any(PageRequest.class)))
+                .thenReturn(page);
+
+        Slice<Registration> saved = registrationService.findAll(0, 2);
+        assertThat(saved.getContent(), is(equalTo(registrations)));
+        assertThat(saved.hasNext(), is(true));
+    }
+
+    @Test
+    public void shouldExportAllRegistrationsInChunks() {
+        List<Registration> registrations = List.of(registration, registration, registration);
+        when(registrationRepository.streamAll()).thenReturn(registrations.stream());
+        Mockito.clearInvocations(employeeService);
+
+        List<Registration> exported = new ArrayList<>();
+        registrationService.exportAll(2, exported::add);
+
+        assertThat(exported, is(equalTo(registrations)));
+        verify(employeeService, times(2)).findAllDoctorsByIds(anyCollection());
+    }
+
     @Test
     public void shouldReturnRegistrationByClientIdWhenContainsRegistration() {
         List<Registration> registrations = List.of(registration, registration, registration);
@@ -156,6 +274,87 @@ public class RegistrationServiceImplTest {
         assertThat(saved, equalTo(registration));
     }
 
+    @Test
+    public void shouldThrowExceptionWhenDoctorIsAlreadyBooked() {
+        when(registrationRepository.save(any(Registration.class))).thenReturn(registration);
+        when(validator.validate(any(Registration.class))).thenReturn(Collections.emptySet());
+
+        registrationService.save(registration);
+        assertThrows(IllegalModificationException.class, () -> registrationService.save(registration));
+    }
+
+    @Test
+    public void shouldReleaseSlotsWhenDeactivatesAllRegistrationsOfDoctor() {
+        when(registrationRepository.save(any(Registration.class))).thenReturn(registration);
+        when(validator.validate(any(Registration.class))).thenReturn(Collections.emptySet());
+        when(registrationRepository.deactivateAllByDoctorId(eq(1L), any(), any())).thenReturn(1);
+        registrationService.save(registration);
+
+        LocalDateTime from = registration.getDate().toLocalDate().atStartOfDay();
+        int updated = registrationService.deactivateAllByDoctorId(1, from, from.plusDays(1));
+
+        assertThat(updated, is(equalTo(1)));
+        assertDoesNotThrow(() -> registrationService.save(registration));
+    }
+
+    @Test
+    public void shouldRejectInvalidAndConflictingRegistrationsOfBatch() {
+        when(dutyRepository.findAllIdsByIdIn(anyCollection())).thenReturn(List.of(1L));
+        doAnswer(invocation -> {
+            List<Registration> inserted = invocation.getArgument(0);
+            for (int i = 0; i < inserted.size(); i++) {
+                inserted.get(i).setId(i + 1L);
+            }
+
+            return null;
+        }).when(registrationRepository).insertAll(any());
+
+        Registration unknownDuty = new Registration(registration);
+        unknownDuty.setDuty(Duty.builder().withId(2L).build());
+        Mockito.clearInvocations(employeeService);
+        List<BatchItemResult> results = registrationService.saveAll(
+                List.of(registration, new Registration(registration), unknownDuty));
+
+        assertThat(results.get(0).getStatus(), is(BatchItemResult.Status.CREATED));
+        assertThat(results.get(1).getStatus(), is(BatchItemResult.Status.REJECTED));
+        assertThat(results.get(2).getError(), is(equalTo("No duty with id 2")));
+        verify(employeeService, never()).findDoctorById(any(Long.class));
+    }
+
+    @Test
+    public void shouldServeDoctorAgendaFromMemoryWhenRequestedAgain() {
+        LocalDate day = registration.getDate().toLocalDate();
+        Registration stored = registrationWithStoredOwners("mark@gmail.com");
+        when(registrationRepository.findAllByDoctorIdWithin(eq(1L), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(List.of(stored));
+
+        registrationService.findAgenda(1, day);
+        DoctorAgenda agenda = registrationService.findAgenda(1, day);
+
+        assertThat(agenda.getTotal(), is(equalTo(1)));
+        verify(registrationRepository, times(1)).findAllByDoctorIdWithin(eq(1L), any(LocalDateTime.class),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    public void shouldUpdateCachedDoctorAgendaWhenRegistrationStatusChanges() {
+        LocalDate day = registration.getDate().toLocalDate();
+        Registration stored = registrationWithStoredOwners("mark@gmail.com");
+        when(registrationRepository.findAllByDoctorIdWithin(eq(1L), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(List.of(stored));
+        when(registrationRepository.findById(1L)).thenReturn(Optional.of(new Registration(stored)));
+        when(registrationRepository.save(any(Registration.class))).then(returnsFirstArg());
+
+        registrationService.findAgenda(1, day);
+        registrationService.setActive(1, false);
+        DoctorAgenda agenda = registrationService.findAgenda(1, day);
+
+        assertThat(agenda.getActive(), is(equalTo(0)));
+        assertThat(agenda.getInactive(), is(equalTo(1)));
+        verify(registrationRepository, times(1)).findAllByDoctorIdWithin(eq(1L), any(LocalDateTime.class),
+                any(LocalDateTime.class));
+    }
+
     @Test
     public void shouldThrowExceptionWhenRegistrationIsInvalid() {
         when(validator.validate(any(Registration.class))).thenThrow(IllegalModificationException.class);
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.service.registration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import registrationservice.config.properties.SlotProperties;
+import registrationservice.data.RegistrationRepository;
+import registrationservice.service.external.employee.Doctor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.Mockito.mock;
+
+@Tag("category.UnitTest")
+public class SlotIndexTest {
+    private static final LocalDate DAY = LocalDate.of(2022, 3, 8);
+
+    private SlotIndex slotIndex;
+
+    @BeforeEach
+    public void beforeEach() {
+        slotIndex = new SlotIndex(mock(RegistrationRepository.class), new SlotProperties());
+    }
+
+    private static Registration registration(long id, long doctorId, LocalDateTime date) {
+        Doctor doctor = Doctor.builder().withId(doctorId).build();
+        return Registration.builder()
+                .withId(id)
+                .withDoctor(doctor)
+                .withDate(date)
+                .build();
+    }
+
+    @Test
+    public void shouldDetectOverlappingSlotOfSameDoctor() {
+        slotIndex.add(registration(1, 1, DAY.atTime(10, 0)));
+
+        assertThat(slotIndex.isFree(1, DAY.atTime(10, 15), null), is(false));
+        assertThat(slotIndex.isFree(1, DAY.atTime(9, 45), null), is(false));
+        assertThat(slotIndex.isFree(1, DAY.atTime(10, 30), null), is(true));
+        assertThat(slotIndex.isFree(2, DAY.atTime(10, 0), null), is(true));
+    }
+
+    @Test
+    public void shouldIgnoreOwnSlotOfRegistration() {
+        slotIndex.add(registration(1, 1, DAY.atTime(10, 0)));
+        assertThat(slotIndex.isFree(1, DAY.atTime(10, 0), 1L), is(true));
+    }
+
+    @Test
+    public void shouldReleaseSlotWhenRegistrationIsRemoved() {
+        slotIndex.add(registration(1, 1, DAY.atTime(10, 0)));
+        slotIndex.remove(1);
+        assertThat(slotIndex.isFree(1, DAY.atTime(10, 0), null), is(true));
+    }
+
+    @Test
+    public void shouldReturnFreeSlotsWithinWorkingHours() {
+        slotIndex.add(registration(1, 1, DAY.atTime(9, 30)));
+        slotIndex.add(registration(2, 1, DAY.atTime(17, 30)));
+
+        List<LocalDateTime> freeSlots = slotIndex.findFreeSlots(1, DAY);
+        assertThat(freeSlots.size(), is(equalTo(16)));
+        assertThat(freeSlots.get(0), is(equalTo(DAY.atTime(9, 0))));
+        assertThat(freeSlots.get(1), is(equalTo(DAY.atTime(10, 0))));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.web;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
+
+import registrationservice.service.external.client.ClientServiceFeignClient;
+import registrationservice.service.external.employee.Doctor;
+import registrationservice.service.external.employee.EmployeeServiceFeignClient;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Tag("category.UnitTest")
+public class CallerIdResolverTest {
+    private EmployeeServiceFeignClient employeeService;
+    private CallerIdResolver resolver;
+
+    @BeforeEach
+    public void beforeEach() {
+        employeeService = mock(EmployeeServiceFeignClient.class);
+        when(employeeService.findDoctorByEmail("robert@gmail.com"))
+                .thenReturn(Doctor.builder().withId(2L).build());
+
+        CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+        when(circuitBreaker.decorateSupplier(any())).then(returnsFirstArg());
+
+        resolver = new CallerIdResolver(employeeService, mock(ClientServiceFeignClient.class), circuitBreaker);
+    }
+
+    @Test
+    public void shouldResolveIdFromTokenClaimWithoutRemoteCalls() {
+        UsernamePasswordAuthenticationToken authentication = doctor();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(OAuth2AuthenticationDetails.ACCESS_TOKEN_VALUE, "token");
+        OAuth2AuthenticationDetails details = new OAuth2AuthenticationDetails(request);
+        details.setDecodedDetails(Map.of(CallerIdResolver.USER_ID_CLAIM, 2));
+        authentication.setDetails(details);
+
+        Optional<Long> id = resolver.resolve(authentication);
+
+        assertThat(id, is(equalTo(Optional.of(2L))));
+        verify(employeeService, never()).findDoctorByEmail(any());
+    }
+
+    @Test
+    public void shouldResolveIdByEmailOnceWhenTokenHasNoClaim() {
+        resolver.resolve(doctor());
+        Optional<Long> id = resolver.resolve(doctor());
+
+        assertThat(id, is(equalTo(Optional.of(2L))));
+        verify(employeeService, times(1)).findDoctorByEmail("robert@gmail.com");
+    }
+
+    private UsernamePasswordAuthenticationToken doctor() {
+        return new UsernamePasswordAuthenticationToken("robert@gmail.com", null,
+                AuthorityUtils.createAuthorityList("DOCTOR"));
+    }
+}
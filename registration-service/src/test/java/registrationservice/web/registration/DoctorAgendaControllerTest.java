@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package registrationservice.web.registration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import registrationservice.config.IntegrationTestConfig;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Tag("category.IntegrationTest")
+@SpringBootTest(properties = "spring.cloud.config.enabled=false")
+@ContextConfiguration(classes = IntegrationTestConfig.class)
+@AutoConfigureMockMvc
+public class DoctorAgendaControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    @WithMockUser(username = "mark@gmail.com", authorities = "DOCTOR")
+    public void shouldReturnAgendaOnAgendaGetRequestWhenUserIsResourceOwner() throws Exception {
+        mvc.perform(get("/doctors/1/agenda").param("day", LocalDate.now().toString()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.doctorId").value(1))
+                .andExpect(jsonPath("$.total").exists());
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnEmptyAgendaOnAgendaGetRequestWhenDoctorHasNoRegistrations() throws Exception {
+        mvc.perform(get("/doctors/2/agenda").param("day", "2031-01-01"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.registrations").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "robert@gmail.com", authorities = "DOCTOR")
+    public void shouldDenyAccessToAgendaWhenUserIsDoctorAndNotResourceOwner() throws Exception {
+        mvc.perform(get("/doctors/1/agenda").param("day", LocalDate.now().toString()))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -23,12 +23,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
 
 import registrationservice.config.IntegrationTestConfig;
@@ -42,12 +45,16 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Tag("category.IntegrationTest")
@@ -84,6 +91,70 @@ public class RegistrationControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnLinkToNextPageOnRegistrationsGetRequestWhenMoreRegistrationsExist() throws Exception {
+        mvc.perform(get("/registrations").param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.next.href").exists());
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnMatchingRegistrationsOnRegistrationsSearchRequestWhenUserIsTopManager()
+            throws Exception {
+        mvc.perform(get("/registrations/search")
+                        .param("doctorId", "1")
+                        .param("clientId", "2")
+                        .param("dutyId", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.registrationList.length()").value(1))
+                .andExpect(jsonPath("$._embedded.registrationList[0].id").value(2));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnLinkToNextPageOnRegistrationsSearchRequestWhenMoreRegistrationsExist()
+            throws Exception {
+        mvc.perform(get("/registrations/search")
+                        .param("dutyId", "1")
+                        .param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.next.href").exists());
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "DOCTOR", "USER", "INTERNAL" })
+    public void shouldDenyRegistrationsSearchWhenUserIsNotTopManager() throws Exception {
+        mvc.perform(get("/registrations/search").param("doctorId", "1"))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldStreamRegistrationsOnRegistrationsExportRequestWhenUserIsTopManager() throws Exception {
+        MvcResult result = mvc.perform(get("/registrations/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "DOCTOR", "USER" })
+    public void shouldDenyRegistrationsExportWhenUserIsNotTopManager() throws Exception {
+        mvc.perform(get("/registrations/export"))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "DOCTOR", "USER", "INTERNAL" })
     public void shouldDenyAccessToRegistrationsWhenUserIsNotTopManager() throws Exception {
@@ -123,6 +194,61 @@ public class RegistrationControllerTest {
         getAndExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnLiveDoctorOnRegistrationGetByIdRequestWhenHydrationIsRequested() throws Exception {
+        mvc.perform(get("/registrations/1").param("hydrate", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.doctor.specialty").value("Surgery"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldNotTagRegistrationOnRegistrationGetByIdRequestWhenHydrationIsRequested() throws Exception {
+        mvc.perform(get("/registrations/1").param("hydrate", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnNotModifiedOnConditionalRegistrationGetByIdRequestWhenUserIsTopManager()
+            throws Exception {
+        String eTag = getETag();
+        getIfNoneMatchAndExpect(eTag, status().isNotModified());
+    }
+
+    private String getETag() throws Exception {
+        return mvc.perform(get("/registrations/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private void getIfNoneMatchAndExpect(String eTag, ResultMatcher status) throws Exception {
+        mvc.perform(get("/registrations/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(username = "emma@gmail.com", authorities = "USER")
+    public void shouldReturnNotModifiedOnConditionalRegistrationGetByIdRequestWhenUserIsResourceOwner()
+            throws Exception {
+        String eTag = getETag();
+        getIfNoneMatchAndExpect(eTag, status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(username = "jain@gmail.com", authorities = "USER")
+    public void shouldDenyConditionalRegistrationGetByIdRequestWhenUserIsNotResourceOwner() throws Exception {
+        getIfNoneMatchAndExpect("W/\"0\"", status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "DOCTOR", "USER", "INTERNAL" })
     public void shouldDenyAccessToRegistrationByIdWhenUserIsNotTopManager() throws Exception {
@@ -161,6 +287,18 @@ public class RegistrationControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @WithMockUser
+    public void shouldReturnFreeSlotsOnAvailabilityGetRequestWhenUserIsAuthenticated() throws Exception {
+        mvc.perform(get("/registrations/availability")
+                        .param("doctorId", "1")
+                        .param("day", "2030-01-01"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0]").value("2030-01-01T09:00:00"));
+    }
+
     @Test
     @WithMockUser(username = "mark@gmail.com", authorities = "DOCTOR")
     public void shouldReturnRegistrationOnRegistrationGetByDoctorIdRequestWhenUserIsResourceOwner()
@@ -245,6 +383,27 @@ public class RegistrationControllerTest {
         assertThat(newCount, is(initialCount + 1));
     }
 
+    @Test
+    @WithMockUser
+    public void shouldAcceptRegistrationOnAsyncRegistrationsPostRequestWhenUserIsAuthenticated()
+            throws Exception {
+        // Unknown duty, so the intake is rejected in the background and no registration is created
+        String json = "{\"date\": \"2032-05-05T10:00:00\"," +
+                "\"duty\": { \"id\": 99  }," +
+                "\"doctor\": { \"id\": 1  }," +
+                "\"client\": { \"id\": 1  }}";
+
+        mvc.perform(post("/registrations")
+                        .param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
     private void postAndExpect(ResultMatcher status) throws Exception {
         mvc.perform(post("/registrations")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -255,6 +414,42 @@ public class RegistrationControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnResultPerItemOnRegistrationsBatchPostRequestWhenUserIsTopManager()
+            throws Exception {
+        postBatchAndExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].registration.id").exists())
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].error").value("No doctor with id 99"));
+    }
+
+    private ResultActions postBatchAndExpect(ResultMatcher status) throws Exception {
+        String batchJson = "[{\"date\": \"2022-03-09T10:00:00\"," +
+                "\"duty\": { \"id\": 1  }," +
+                "\"doctor\": { \"id\": 2  }," +
+                "\"client\": { \"id\": 2  }}," +
+                "{\"date\": \"2022-03-09T10:00:00\"," +
+                "\"duty\": { \"id\": 1  }," +
+                "\"doctor\": { \"id\": 99  }," +
+                "\"client\": { \"id\": 2  }}]";
+
+        return mvc.perform(post("/registrations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status)
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "DOCTOR", "USER", "INTERNAL" })
+    public void shouldDenyRegistrationsBatchPostingWhenUserIsNotTopManager() throws Exception {
+        postBatchAndExpect(status().isUnauthorized());
+    }
+
     @Test
     @WithAnonymousUser
     public void shouldDenyRegistrationPostingWhenUserIsNotAuthenticated() throws Exception {
@@ -309,6 +504,29 @@ public class RegistrationControllerTest {
         patchStatusByIdAndExpect(3, status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnUpdatedCountOnDoctorStatusPatchRequestWhenUserIsTopManager() throws Exception {
+        patchDoctorStatusAndExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.updated").value(0));
+    }
+
+    private ResultActions patchDoctorStatusAndExpect(ResultMatcher status) throws Exception {
+        return mvc.perform(patch("/registrations/status")
+                        .param("doctorId", "2")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00"))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "DOCTOR", "USER", "INTERNAL" })
+    public void shouldDenyDoctorStatusPatchingWhenUserIsNotTopManager() throws Exception {
+        patchDoctorStatusAndExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(authorities = "TOP_MANAGER")
     public void shouldDeleteRegistrationOnRegistrationDeleteRequestWhenUserIsTopManager() throws Exception {
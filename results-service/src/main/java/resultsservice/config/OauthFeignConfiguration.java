@@ -16,6 +16,8 @@
 
 package resultsservice.config;
 
+import feign.Capability;
+import feign.Client;
 import feign.Logger;
 import feign.RequestInterceptor;
 
@@ -27,6 +29,8 @@ import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
 import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
 import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
 
+import resultsservice.service.external.RevalidatingClient;
+
 import java.util.List;
 
 @Configuration
@@ -44,6 +48,9 @@ public class OauthFeignConfiguration {
     @Value("${spring.security.oauth2.client.scope}")
     private String scope;
 
+    @Value("${remote-cache.revalidated-responses:1000}")
+    private int revalidatedResponses;
+
     @Bean
     public RequestInterceptor oauth2FeignRequestInterceptor() {
         return new OAuth2FeignRequestInterceptor(new DefaultOAuth2ClientContext(), resource());
@@ -54,6 +61,20 @@ public class OauthFeignConfiguration {
         return Logger.Level.FULL;
     }
 
+    /**
+     * Makes Feign clients revalidate responses they got before instead of fetching them again,
+     * so unchanged remote entities are confirmed with 304 responses.
+     */
+    @Bean
+    public Capability revalidatingCapability() {
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return new RevalidatingClient(client, revalidatedResponses);
+            }
+        };
+    }
+
     private OAuth2ProtectedResourceDetails resource() {
         ClientCredentialsResourceDetails details = new ClientCredentialsResourceDetails();
         details.setAccessTokenUri(accessTokenUri);
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Result attachment store properties loaded from configuration file.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "attachments")
+@Component
+public class AttachmentProperties {
+    private String directory = "attachments";
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    /**
+     * Unreferenced files younger than this are kept, so uploads in progress are not swept.
+     */
+    private Duration sweepGracePeriod = Duration.ofHours(1);
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getSweepGracePeriod() {
+        return sweepGracePeriod;
+    }
+
+    public void setSweepGracePeriod(Duration sweepGracePeriod) {
+        this.sweepGracePeriod = sweepGracePeriod;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+/**
+ * Result payload storage properties loaded from configuration file.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "result-data")
+@Component
+public class ResultDataProperties {
+
+    /**
+     * Payloads shorter than this number of characters are stored as is.
+     */
+    private int compressionThreshold = 1024;
+
+    /**
+     * Whether measurements are extracted from structured payloads, so trends can be queried.
+     */
+    private boolean extractMeasurements = true;
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public boolean isExtractMeasurements() {
+        return extractMeasurements;
+    }
+
+    public void setExtractMeasurements(boolean extractMeasurements) {
+        this.extractMeasurements = extractMeasurements;
+    }
+}
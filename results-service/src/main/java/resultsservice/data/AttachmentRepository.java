@@ -0,0 +1,71 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import resultsservice.service.attachment.Attachment;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An AttachmentRepository abstracts a collection of Attachment objects.
+ */
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    /**
+     * Retrieves all attachments of the result with the specified ID ordered by ID.
+     *
+     * @param resultId ID of the result
+     *
+     * @return all attachments of the result
+     */
+    List<Attachment> findAllByResultIdOrderById(long resultId);
+
+    /**
+     * Retrieves the attachment with the specified ID if it belongs to the result with the specified ID.
+     *
+     * @param id ID of the attachment
+     * @param resultId ID of the result
+     *
+     * @return the attachment or Optional#empty() if none found
+     */
+    Optional<Attachment> findByIdAndResultId(long id, long resultId);
+
+    /**
+     * Checks whether any attachment references the file with the specified hash.
+     *
+     * @param sha256 SHA-256 hash of the file
+     *
+     * @return true if the file is referenced, false otherwise
+     */
+    boolean existsBySha256(String sha256);
+
+    /**
+     * Deletes attachments of results that no longer exist with a single statement.
+     *
+     * @return the number of deleted attachments
+     */
+    @Modifying
+    @Query("DELETE FROM Attachment a WHERE NOT EXISTS (SELECT r.id FROM Result r WHERE r.id = a.resultId)")
+    int deleteAllOrphaned();
+}
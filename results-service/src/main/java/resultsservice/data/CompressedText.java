@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes text for storage in a text column. Compressed text is stored as
+ * a header followed by Base64 of its gzip-compressed UTF-8 bytes, so compressed
+ * and plain values can live in the same column and are told apart on read.
+ * Text that starts with the header is always compressed, so every new value decodes unambiguously.
+ */
+public final class CompressedText {
+    public static final String HEADER = "GZIP:";
+
+    private CompressedText() {
+    }
+
+    /**
+     * Compresses the specified text if it is not shorter than the specified threshold
+     * and compression makes it shorter.
+     *
+     * @param text text to encode
+     * @param threshold minimum length of text to compress
+     *
+     * @return the encoded text
+     */
+    public static String compress(String text, int threshold) {
+        if (text == null) {
+            return null;
+        }
+
+        boolean ambiguous = text.startsWith(HEADER);
+        if (text.length() < threshold && !ambiguous) {
+            return text;
+        }
+
+        String compressed = HEADER + Base64.getEncoder().encodeToString(gzip(text));
+        return (compressed.length() < text.length() || ambiguous) ? compressed : text;
+    }
+
+    private static byte[] gzip(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the specified stored text. Plain text and values that only look compressed
+     * are returned as is.
+     *
+     * @param stored stored text
+     *
+     * @return the decoded text
+     */
+    public static String decompress(String stored) {
+        if (!isCompressed(stored)) {
+            return stored;
+        }
+
+        try {
+            byte[] gzipped = Base64.getDecoder().decode(stored.substring(HEADER.length()));
+            try (InputStream text = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                return new String(text.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            return stored;
+        }
+    }
+
+    /**
+     * @param stored stored text
+     *
+     * @return true if the specified stored text starts with the compression header
+     */
+    public static boolean isCompressed(String stored) {
+        return stored != null && stored.startsWith(HEADER);
+    }
+
+    /**
+     * Returns gzip-compressed bytes of the stored text the specified reader is positioned at,
+     * right after the header. Bytes are decoded as they are read.
+     *
+     * @param base64 reader of the Base64 part of the stored text
+     *
+     * @return stream of gzip-compressed bytes
+     */
+    public static InputStream gzipStream(Reader base64) {
+        return Base64.getDecoder().wrap(new AsciiInputStream(base64));
+    }
+
+    /*
+     * Base64 text is pure ASCII, so every char maps to a single byte.
+     */
+    private static class AsciiInputStream extends InputStream {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+
+        AsciiInputStream(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return reader.read();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = reader.read(buffer, 0, Math.min(length, buffer.length));
+            for (int i = 0; i < read; i++) {
+                bytes[offset + i] = (byte) buffer[i];
+            }
+
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
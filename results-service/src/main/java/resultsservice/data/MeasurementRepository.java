@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import resultsservice.service.measurement.Measurement;
+
+import javax.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+/**
+ * A MeasurementRepository abstracts a collection of Measurement objects.
+ */
+@Repository
+public interface MeasurementRepository extends JpaRepository<Measurement, Long> {
+
+    /**
+     * Streams points of the specified analyte of the client with the specified ID within the specified period.
+     * Points are read with a range scan of the client, analyte and time index and fetched in batches,
+     * so the stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @param clientId ID of the client
+     * @param analyte normalized analyte name
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     *
+     * @return a stream of points in no particular order
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m.takenAt AS takenAt, m.value AS numericValue, m.unit AS unit FROM Measurement m " +
+            "WHERE m.clientId = ?1 AND m.analyte = ?2 AND m.takenAt >= ?3 AND m.takenAt < ?4")
+    Stream<MeasurementPoint> streamPoints(long clientId, String analyte, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Streams points of the specified analyte of the client with the specified ID within the specified period
+     * that come from results of the doctor with the specified ID.
+     *
+     * @param clientId ID of the client
+     * @param analyte normalized analyte name
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     * @param doctorId ID of the doctor
+     *
+     * @return a stream of points in no particular order
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m.takenAt AS takenAt, m.value AS numericValue, m.unit AS unit FROM Measurement m " +
+            "WHERE m.clientId = ?1 AND m.analyte = ?2 AND m.takenAt >= ?3 AND m.takenAt < ?4 AND m.doctorId = ?5")
+    Stream<MeasurementPoint> streamPointsByDoctorId(long clientId, String analyte,
+                                                    LocalDateTime from, LocalDateTime to, long doctorId);
+
+    /**
+     * Retrieves the time measurements of the result with the specified ID were first recorded.
+     *
+     * @param resultId ID of the result
+     *
+     * @return the time or Optional#empty() if the result has no measurements
+     */
+    @Query("SELECT MIN(m.recordedAt) FROM Measurement m WHERE m.resultId = ?1")
+    Optional<LocalDateTime> findRecordedAtByResultId(long resultId);
+
+    /**
+     * Deletes measurements of the result with the specified ID with a single statement.
+     *
+     * @param resultId ID of the result
+     *
+     * @return the number of deleted measurements
+     */
+    @Modifying
+    @Query("DELETE FROM Measurement m WHERE m.resultId = ?1")
+    int deleteAllByResultId(long resultId);
+}
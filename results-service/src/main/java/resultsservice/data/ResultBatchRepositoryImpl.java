@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import resultsservice.service.result.Result;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * JDBC implementation of ResultBatchRepository.
+ * Result IDs are generated by the database, which makes Hibernate
+ * insert rows one by one, so batches are sent through JDBC directly.
+ * Payloads are compressed the same way ResultDataConverter compresses them for JPA.
+ * MySQL sends a batch as a single statement only if the connection uses rewriteBatchedStatements=true.
+ */
+public class ResultBatchRepositoryImpl implements ResultBatchRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO result(data, data_size, duty_id, client_id, client_email, client_name, " +
+            "doctor_id, doctor_email, doctor_name, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ResultDataConverter dataConverter;
+
+    @Autowired
+    public ResultBatchRepositoryImpl(JdbcTemplate jdbcTemplate, ResultDataConverter dataConverter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataConverter = dataConverter;
+    }
+
+    @Override
+    public void insertAll(List<Result> results) {
+        for (int i = 0; i < results.size(); i += BATCH_SIZE) {
+            insertBatch(results.subList(i, Math.min(i + BATCH_SIZE, results.size())));
+        }
+    }
+
+    private void insertBatch(List<Result> batch) {
+        PreparedStatementCreator creator =
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+        PreparedStatementCallback<Void> callback = statement -> {
+            for (Result result : batch) {
+                statement.setString(1, dataConverter.convertToDatabaseColumn(result.getData()));
+                statement.setLong(2, result.getData().length());
+                statement.setLong(3, result.getDuty().getId());
+                statement.setLong(4, result.getClient().getId());
+                statement.setString(5, result.getClient().getEmail());
+                statement.setString(6, result.getClient().getName());
+                statement.setLong(7, result.getDoctor().getId());
+                statement.setString(8, result.getDoctor().getEmail());
+                statement.setString(9, result.getDoctor().getName());
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (Result result : batch) {
+                    if (!keys.next()) {
+                        throw new DataRetrievalFailureException("Generated result IDs missing");
+                    }
+
+                    result.setId(keys.getLong(1));
+                    result.setVersion(0L);
+                }
+            }
+
+            return null;
+        };
+
+        jdbcTemplate.execute(creator, callback);
+    }
+}
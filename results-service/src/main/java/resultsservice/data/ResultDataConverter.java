@@ -0,0 +1,50 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import resultsservice.config.properties.ResultDataProperties;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Compresses result payloads on write and decompresses them on read.
+ * Rows written before compression was introduced are read as is.
+ */
+@Converter
+@Component
+public class ResultDataConverter implements AttributeConverter<String, String> {
+    private final int compressionThreshold;
+
+    @Autowired
+    public ResultDataConverter(ResultDataProperties properties) {
+        this.compressionThreshold = properties.getCompressionThreshold();
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String data) {
+        return CompressedText.compress(data, compressionThreshold);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        return CompressedText.decompress(stored);
+    }
+}
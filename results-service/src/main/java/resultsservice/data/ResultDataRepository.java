@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Reads result payloads without loading them into memory as a whole.
+ */
+public interface ResultDataRepository {
+
+    /**
+     * Copies the payload of the result with the specified ID to the stream opened by the specified sink.
+     * The payload is written as UTF-8 text, or as gzip-compressed UTF-8 text if it is stored
+     * compressed and gzip is accepted.
+     *
+     * @param id ID of the result
+     * @param gzipAccepted true if the payload may be written gzip-compressed
+     * @param sink sink to copy the payload to
+     *
+     * @return true if the result was found, false otherwise
+     */
+    boolean copyData(long id, boolean gzipAccepted, DataSink sink);
+
+    /**
+     * Destination of a copied payload.
+     */
+    interface DataSink {
+
+        /**
+         * Opens the stream to copy the payload to. Called once, right before the payload is written.
+         *
+         * @param gzipped true if the payload is written gzip-compressed
+         *
+         * @return the stream to copy the payload to
+         *
+         * @throws IOException if the stream cannot be opened
+         */
+        OutputStream open(boolean gzipped) throws IOException;
+    }
+}
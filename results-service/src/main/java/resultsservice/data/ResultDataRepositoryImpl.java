@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * JDBC implementation of ResultDataRepository.
+ * The payload is read through the character stream of the result set,
+ * so it is copied in small chunks instead of being materialized as a String.
+ * Compressed payloads are passed on still compressed when gzip is accepted.
+ * MySQL streams column data only if the connection uses useServerPrepStmts=true
+ * together with useCursorFetch=true, otherwise the driver buffers the row.
+ */
+public class ResultDataRepositoryImpl implements ResultDataRepository {
+    private static final String SELECT_SQL = "SELECT data FROM result WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ResultDataRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean copyData(long id, boolean gzipAccepted, DataSink sink) {
+        ResultSetExtractor<Boolean> copy = resultSet -> {
+            if (!resultSet.next()) {
+                return false;
+            }
+
+            try (Reader reader = resultSet.getCharacterStream(1)) {
+                if (reader == null) {
+                    sink.open(false);
+                } else {
+                    copy(reader, gzipAccepted, sink);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return true;
+        };
+
+        return Boolean.TRUE.equals(jdbcTemplate.query(SELECT_SQL, copy, id));
+    }
+
+    private void copy(Reader stored, boolean gzipAccepted, DataSink sink) throws IOException {
+        int headerLength = CompressedText.HEADER.length();
+        PushbackReader reader = new PushbackReader(stored, headerLength);
+        char[] head = new char[headerLength];
+        int read = readFully(reader, head);
+        if (read == headerLength && CompressedText.HEADER.equals(new String(head))) {
+            InputStream gzipped = CompressedText.gzipStream(reader);
+            if (gzipAccepted) {
+                gzipped.transferTo(sink.open(true));
+            } else {
+                new GZIPInputStream(gzipped).transferTo(sink.open(false));
+            }
+
+            return;
+        }
+
+        if (read > 0) {
+            reader.unread(head, 0, read);
+        }
+
+        Writer writer = new OutputStreamWriter(sink.open(false), StandardCharsets.UTF_8);
+        reader.transferTo(writer);
+        writer.flush();
+    }
+
+    private int readFully(Reader reader, char[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = reader.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import resultsservice.service.search.ResultTerm;
+
+import java.util.List;
+
+/**
+ * Batch operations on result terms that are not expressible with JPA efficiently.
+ */
+public interface ResultTermBatchRepository {
+
+    /**
+     * Inserts the specified terms using JDBC batches. Generated IDs are not read back.
+     *
+     * @param terms terms to insert
+     */
+    void insertAll(List<ResultTerm> terms);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import resultsservice.service.search.ResultTerm;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of ResultTermBatchRepository.
+ * A payload produces up to hundreds of terms, and IDs generated by the database make Hibernate
+ * insert them one by one, so batches are sent through JDBC directly.
+ * MySQL sends a batch as a single statement only if the connection uses rewriteBatchedStatements=true.
+ */
+public class ResultTermBatchRepositoryImpl implements ResultTermBatchRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO result_term(result_id, client_id, doctor_id, term, frequency) VALUES (?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ResultTermBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<ResultTerm> terms) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, terms, BATCH_SIZE, (statement, term) -> {
+            statement.setLong(1, term.getResultId());
+            statement.setLong(2, term.getClientId());
+            statement.setLong(3, term.getDoctorId());
+            statement.setString(4, term.getTerm());
+            statement.setInt(5, term.getFrequency());
+        });
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import resultsservice.service.search.ResultTerm;
+
+/**
+ * A ResultTermRepository abstracts a collection of ResultTerm objects.
+ */
+@Repository
+public interface ResultTermRepository extends JpaRepository<ResultTerm, Long>, ResultTermBatchRepository,
+        ResultTermSearchRepository {
+
+    /**
+     * Deletes index entries of the result with the specified ID with a single statement.
+     *
+     * @param resultId ID of the result
+     *
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("DELETE FROM ResultTerm t WHERE t.resultId = ?1")
+    int deleteAllByResultId(long resultId);
+}
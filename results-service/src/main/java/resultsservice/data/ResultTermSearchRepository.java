@@ -0,0 +1,40 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Searches the inverted index of result payloads.
+ */
+public interface ResultTermSearchRepository {
+
+    /**
+     * Looks for results containing any of the specified terms. Results containing more distinct terms
+     * come first, then results with more occurrences of the terms, then newer results.
+     * If a client or a doctor is specified, only index entries of their results are read.
+     *
+     * @param terms terms to look for
+     * @param clientId ID of the client to search results of or null to search results of all clients
+     * @param doctorId ID of the doctor to search results of or null to search results of all doctors
+     * @param limit maximum number of matches to return
+     *
+     * @return the best matches
+     */
+    List<TermMatch> findMatches(Collection<String> terms, Long clientId, Long doctorId, int limit);
+}
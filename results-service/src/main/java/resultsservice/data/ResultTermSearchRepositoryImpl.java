@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import resultsservice.service.search.ResultTerm;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Criteria API implementation of ResultTermSearchRepository.
+ * Matches are ranked by the database, so only the requested number of rows is transferred.
+ * Scope conditions are added only when present, so the client and doctor indexes stay usable.
+ */
+public class ResultTermSearchRepositoryImpl implements ResultTermSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ResultTermSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TermMatch> findMatches(Collection<String> terms, Long clientId, Long doctorId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<ResultTerm> root = query.from(ResultTerm.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(root.get("term").in(terms));
+        if (clientId != null) {
+            predicates.add(builder.equal(root.get("clientId"), clientId));
+        }
+
+        if (doctorId != null) {
+            predicates.add(builder.equal(root.get("doctorId"), doctorId));
+        }
+
+        Expression<Long> resultId = root.get("resultId");
+        Expression<Long> matchedTerms = builder.count(root);
+        Expression<Integer> occurrences = builder.sum(root.<Integer>get("frequency"));
+        query.multiselect(resultId, matchedTerms, occurrences)
+                .where(predicates.toArray(new Predicate[0]))
+                .groupBy(resultId)
+                .orderBy(builder.desc(matchedTerms), builder.desc(occurrences), builder.desc(resultId));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> new TermMatch(tuple.get(0, Long.class),
+                        tuple.get(1, Long.class),
+                        ((Number) tuple.get(2)).longValue()))
+                .collect(Collectors.toList());
+    }
+}
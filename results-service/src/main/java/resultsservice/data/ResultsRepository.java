@@ -16,25 +16,133 @@
 
 package resultsservice.data;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import resultsservice.service.result.Result;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * A ResultsRepository abstracts a collection of Result objects.
  */
 @Repository
-public interface ResultsRepository extends JpaRepository<Result, Long> {
+public interface ResultsRepository extends JpaRepository<Result, Long>, ResultDataRepository,
+        ResultBatchRepository {
+
+    String SUMMARY = "SELECT NEW resultsservice.service.result.Result" +
+            "(r.id, r.duty, r.client, r.doctor, COALESCE(r.dataSize, LENGTH(r.data))) FROM Result r ";
+
+    /**
+     * Retrieves summaries of all results. Summaries carry the payload size, not the payload.
+     *
+     * @return summaries of all results
+     */
+    @Query(SUMMARY)
+    List<Result> findAllSummaries();
 
     /**
-     * Retrieves all results with the specified client ID.
+     * Retrieves summaries of all results with the specified client ID.
+     * Summaries carry the payload size, not the payload.
      *
      * @param clientId client ID of results to get
      *
-     * @return all results with the specified client ID
+     * @return summaries of all results with the specified client ID
      */
+    @Query(SUMMARY + "WHERE r.client.id = ?1")
     List<Result> findAllByClientId(long clientId);
+
+    /**
+     * Retrieves a slice of result summaries with IDs greater than the specified one.
+     * Summaries carry the payload size, not the payload.
+     *
+     * @param id ID after which the slice starts
+     * @param pageable slice size and order
+     *
+     * @return a slice of result summaries with IDs greater than the specified one
+     */
+    @Query(SUMMARY + "WHERE r.id > ?1")
+    Slice<Result> findAllByIdGreaterThan(long id, Pageable pageable);
+
+    /**
+     * Retrieves a slice of result summaries with the specified client ID
+     * and IDs greater than the specified one.
+     * Summaries carry the payload size, not the payload.
+     *
+     * @param clientId client ID of results to get
+     * @param id ID after which the slice starts
+     * @param pageable slice size and order
+     *
+     * @return a slice of result summaries with the specified client ID
+     */
+    @Query(SUMMARY + "WHERE r.client.id = ?1 AND r.id > ?2")
+    Slice<Result> findAllByClientIdAndIdGreaterThan(long clientId, long id, Pageable pageable);
+
+    /**
+     * Retrieves distinct doctor data stored on result rows.
+     *
+     * @return distinct doctor snapshots
+     */
+    @Query("SELECT DISTINCT r.doctor.id AS id, r.doctor.email AS email, r.doctor.name AS name FROM Result r")
+    List<OwnerSnapshot> findAllDoctorSnapshots();
+
+    /**
+     * Retrieves distinct client data stored on result rows.
+     *
+     * @return distinct client snapshots
+     */
+    @Query("SELECT DISTINCT r.client.id AS id, r.client.email AS email, r.client.name AS name FROM Result r")
+    List<OwnerSnapshot> findAllClientSnapshots();
+
+    /**
+     * Replaces doctor data stored on all results of the doctor with the specified ID.
+     *
+     * @param doctorId ID of the doctor
+     * @param email new doctor email
+     * @param name new doctor name
+     *
+     * @return the number of updated results
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Result r SET r.doctor.email = ?2, r.doctor.name = ?3 WHERE r.doctor.id = ?1")
+    int updateDoctorSnapshot(long doctorId, String email, String name);
+
+    /**
+     * Replaces client data stored on all results of the client with the specified ID.
+     *
+     * @param clientId ID of the client
+     * @param email new client email
+     * @param name new client name
+     *
+     * @return the number of updated results
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Result r SET r.client.email = ?2, r.client.name = ?3 WHERE r.client.id = ?1")
+    int updateClientSnapshot(long clientId, String email, String name);
+
+    /**
+     * Retrieves IDs of the doctor and the client of the result with the specified ID
+     * without loading the result itself.
+     *
+     * @param id ID of the result
+     *
+     * @return owners of the result or Optional#empty() if none found
+     */
+    @Query("SELECT r.doctor.id AS doctorId, r.client.id AS clientId FROM Result r WHERE r.id = ?1")
+    Optional<ResultOwners> findOwnersById(long id);
+
+    /**
+     * Retrieves the version of the result with the specified ID without loading the result itself.
+     *
+     * @param id ID of the result
+     *
+     * @return the version or Optional#empty() if none found
+     */
+    @Query("SELECT r.version FROM Result r WHERE r.id = ?1")
+    Optional<Long> findVersionById(long id);
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+/**
+ * A result matching a search: the number of distinct query terms its payload contains
+ * and the total number of their occurrences.
+ */
+public class TermMatch {
+    private final long resultId;
+    private final long matchedTerms;
+    private final long occurrences;
+
+    public TermMatch(long resultId, long matchedTerms, long occurrences) {
+        this.resultId = resultId;
+        this.matchedTerms = matchedTerms;
+        this.occurrences = occurrences;
+    }
+
+    public long getResultId() {
+        return resultId;
+    }
+
+    public long getMatchedTerms() {
+        return matchedTerms;
+    }
+
+    public long getOccurrences() {
+        return occurrences;
+    }
+}
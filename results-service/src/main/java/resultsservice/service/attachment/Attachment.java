@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.attachment;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Attachment domain class. Describes a binary file attached to a result.
+ * File content lives in the attachment store under its SHA-256 hash,
+ * so attachments with the same content share a single file.
+ */
+@Entity
+@Table(name = "result_attachment", indexes = {
+        @Index(name = "idx_result_attachment_result", columnList = "result_id"),
+        @Index(name = "idx_result_attachment_sha256", columnList = "sha256")
+})
+public class Attachment implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "result_id", nullable = false)
+    private Long resultId;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "byte_size", nullable = false)
+    private long size;
+
+    /**
+     * @return Attachment builder
+     */
+    public static Builder builder() {
+        return new Attachment().new Builder();
+    }
+
+    public Attachment() {
+    }
+
+    /**
+     * Constructs a new Attachment copying data from the passed one.
+     *
+     * @param other attachment to copy data from
+     */
+    public Attachment(Attachment other) {
+        id = other.id;
+        resultId = other.resultId;
+        sha256 = other.sha256;
+        fileName = other.fileName;
+        contentType = other.contentType;
+        size = other.size;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getResultId() {
+        return resultId;
+    }
+
+    public void setResultId(Long resultId) {
+        this.resultId = resultId;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        Attachment attachment = (Attachment) other;
+        return size == attachment.size
+                && Objects.equals(resultId, attachment.resultId)
+                && Objects.equals(sha256, attachment.sha256)
+                && Objects.equals(fileName, attachment.fileName)
+                && Objects.equals(contentType, attachment.contentType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(resultId, sha256, fileName, contentType, size);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "{" +
+                "id=" + id +
+                ", resultId=" + resultId +
+                ", sha256='" + sha256 + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", contentType='" + contentType + '\'' +
+                ", size=" + size +
+                '}';
+    }
+
+    /**
+     * Attachment object builder.
+     */
+    public class Builder {
+
+        private Builder() {
+        }
+
+        public Attachment build() {
+            return Attachment.this;
+        }
+
+        public Builder withId(Long id) {
+            Attachment.this.id = id;
+            return this;
+        }
+
+        public Builder withResultId(Long resultId) {
+            Attachment.this.resultId = resultId;
+            return this;
+        }
+
+        public Builder withSha256(String sha256) {
+            Attachment.this.sha256 = sha256;
+            return this;
+        }
+
+        public Builder withFileName(String fileName) {
+            Attachment.this.fileName = fileName;
+            return this;
+        }
+
+        public Builder withContentType(String contentType) {
+            Attachment.this.contentType = contentType;
+            return this;
+        }
+
+        public Builder withSize(long size) {
+            Attachment.this.size = size;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.attachment;
+
+import resultsservice.service.exception.IllegalModificationException;
+import resultsservice.service.exception.RemoteResourceException;
+
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Provides result attachment business logic.
+ */
+public interface AttachmentService {
+
+    /**
+     * Looks for all attachments of the result with the specified ID.
+     *
+     * @param resultId ID of the result
+     *
+     * @return all attachments of the result
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    List<Attachment> findAllByResultId(long resultId);
+
+    /**
+     * Looks for the attachment with the specified ID of the result with the specified ID.
+     *
+     * @param resultId ID of the result
+     * @param id ID of the attachment
+     *
+     * @return the attachment or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    Optional<Attachment> findById(long resultId, long id);
+
+    /**
+     * Resolves the file holding the content of the specified attachment.
+     *
+     * @param attachment attachment to resolve
+     *
+     * @return path of the file
+     */
+    Path pathOf(Attachment attachment);
+
+    /**
+     * Stores the content of the specified stream and attaches it to the result with the specified ID.
+     * Content is streamed to the attachment store and is stored once no matter how many times it is attached.
+     *
+     * @param resultId ID of the result
+     * @param fileName original name of the file, may be null
+     * @param contentType media type of the content
+     * @param content content to store
+     *
+     * @return saved attachment
+     *
+     * @throws IllegalModificationException if there is no result with the specified ID
+     * or content exceeds maximum size
+     * @throws UncheckedIOException if the content cannot be stored
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    Attachment save(long resultId, String fileName, String contentType, InputStream content);
+
+    /**
+     * Deletes the attachment with the specified ID of the result with the specified ID.
+     * Content no longer referenced by any attachment is removed by the next sweep.
+     *
+     * @param resultId ID of the result
+     * @param id ID of the attachment
+     *
+     * @throws IllegalModificationException if there is no such attachment
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    void deleteById(long resultId, long id);
+
+    /**
+     * Deletes attachments of deleted results and stored content no longer referenced by any attachment.
+     */
+    void sweep();
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.attachment;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import resultsservice.config.properties.AttachmentProperties;
+import resultsservice.data.AttachmentRepository;
+import resultsservice.data.ResultsRepository;
+import resultsservice.service.attachment.AttachmentStore.StoredFile;
+import resultsservice.service.exception.IllegalModificationException;
+import resultsservice.service.exception.RemoteResourceException;
+
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Service
+@Transactional
+public class AttachmentServiceImpl implements AttachmentService {
+    private static final Logger logger = LogManager.getLogger(AttachmentServiceImpl.class);
+
+    private final AttachmentRepository repository;
+    private final ResultsRepository resultsRepository;
+    private final AttachmentStore store;
+    private final CircuitBreaker circuitBreaker;
+    private final AttachmentProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AttachmentServiceImpl(AttachmentRepository repository,
+                                 ResultsRepository resultsRepository,
+                                 AttachmentStore store,
+                                 CircuitBreaker circuitBreaker,
+                                 AttachmentProperties properties,
+                                 PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.resultsRepository = resultsRepository;
+        this.store = store;
+        this.circuitBreaker = circuitBreaker;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Attachment> findAllByResultId(long resultId) {
+        try {
+            Supplier<List<Attachment>> findAll = () -> repository.findAllByResultIdOrderById(resultId);
+            return circuitBreaker.decorateSupplier(findAll).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Attachment> findById(long resultId, long id) {
+        try {
+            Supplier<Optional<Attachment>> findById = () -> repository.findByIdAndResultId(id, resultId);
+            return circuitBreaker.decorateSupplier(findById).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    public Path pathOf(Attachment attachment) {
+        return store.pathOf(attachment.getSha256());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Attachment save(long resultId, String fileName, String contentType, InputStream content) {
+        try {
+            // Content is streamed outside a transaction, so a slow upload does not hold a connection.
+            // Content stored without a row is removed by the sweep if saving the row fails
+            StoredFile file = store.write(content, properties.getMaxSize().toBytes());
+            Attachment attachment = Attachment.builder()
+                    .withResultId(resultId)
+                    .withSha256(file.getSha256())
+                    .withFileName(fileName)
+                    .withContentType(contentType)
+                    .withSize(file.getSize())
+                    .build();
+
+            Supplier<Attachment> save = () -> transactionTemplate.execute(status -> {
+                if (!resultsRepository.existsById(resultId)) {
+                    throw new IllegalModificationException("No result with id " + resultId);
+                }
+
+                return repository.save(attachment);
+            });
+            Attachment saved = circuitBreaker.decorateSupplier(save).get();
+            logger.info("Attachment saved. ID - " + saved.getId() + ", result - " + resultId);
+            return saved;
+        } catch (IllegalModificationException | UncheckedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    public void deleteById(long resultId, long id) {
+        try {
+            Attachment attachment = findById(resultId, id)
+                    .orElseThrow(() -> new IllegalModificationException("No attachment with id " + id));
+            Runnable delete = () -> repository.delete(attachment);
+            circuitBreaker.decorateRunnable(delete).run();
+            logger.info("Attachment " + id + " deleted");
+        } catch (IllegalModificationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(fixedDelayString = "${attachments.sweep-millis:3600000}",
+            initialDelayString = "${attachments.sweep-millis:3600000}")
+    public void sweep() {
+        try {
+            Supplier<Integer> deleteOrphaned = () -> transactionTemplate.execute(status ->
+                    repository.deleteAllOrphaned());
+            int orphaned = circuitBreaker.decorateSupplier(deleteOrphaned).get();
+            Instant threshold = Instant.now().minus(properties.getSweepGracePeriod());
+            store.deleteAllTemporaryModifiedBefore(threshold);
+
+            // Every hash is checked with its own short read, so attachments saved during the sweep are seen.
+            // The store checks modification time again when deleting, in case content was reused meanwhile
+            int removed = 0;
+            for (String sha256 : store.findAllModifiedBefore(threshold)) {
+                Supplier<Boolean> referenced = () -> repository.existsBySha256(sha256);
+                if (!circuitBreaker.decorateSupplier(referenced).get()
+                        && store.deleteIfModifiedBefore(sha256, threshold)) {
+                    removed++;
+                }
+            }
+
+            if (orphaned > 0 || removed > 0) {
+                logger.info("Attachments swept: " + orphaned + " orphaned attachments, " + removed + " files");
+            }
+        } catch (Exception e) {
+            logger.warn("Attachments cannot be swept: " + e.getMessage());
+        }
+    }
+}
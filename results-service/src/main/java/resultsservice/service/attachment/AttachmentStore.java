@@ -0,0 +1,291 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.attachment;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import resultsservice.config.properties.AttachmentProperties;
+import resultsservice.service.exception.IllegalModificationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store of attachment content.
+ * Every file is named after the SHA-256 hash of its content, so the same content
+ * is stored once no matter how many attachments reference it.
+ * Content is streamed to a temporary file while being hashed and then moved in place,
+ * so it is never buffered in memory and readers never see a partial file.
+ * Files are deleted by moving them to a quarantine directory first, so a file reused
+ * by a concurrent write is put back instead of being lost.
+ */
+@Component
+public class AttachmentStore {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tmp;
+    private final Path quarantine;
+
+    @Autowired
+    public AttachmentStore(AttachmentProperties properties) {
+        this(Paths.get(properties.getDirectory()));
+    }
+
+    public AttachmentStore(Path root) {
+        try {
+            this.root = root.toAbsolutePath();
+            this.tmp = this.root.resolve("tmp");
+            this.quarantine = this.root.resolve("quarantine");
+            Files.createDirectories(tmp);
+            Files.createDirectories(quarantine);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create attachment store in " + root, e);
+        }
+    }
+
+    /**
+     * Stores the content of the specified stream.
+     *
+     * @param content content to store
+     * @param maxSize maximum allowed content size in bytes
+     *
+     * @return descriptor of the stored file
+     *
+     * @throws IllegalModificationException if content exceeds maximum size
+     * @throws UncheckedIOException if the content cannot be stored
+     */
+    public StoredFile write(InputStream content, long maxSize) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(tmp, "upload", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = copy(content, new DigestOutputStream(Files.newOutputStream(temp), digest), maxSize);
+            String hash = toHex(digest.digest());
+
+            Path target = pathOf(hash);
+            Files.createDirectories(target.getParent());
+            // Refreshing the modification time keeps reused content from being deleted by a sweep
+            if (touch(target)) {
+                Files.delete(temp);
+            } else {
+                // Rename replaces a file stored concurrently, which has the same content anyway
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                touch(target);
+            }
+
+            return new StoredFile(hash, size);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Unable to store attachment", e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(temp);
+            throw new IllegalStateException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    private boolean touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private long copy(InputStream in, OutputStream out, long maxSize) throws IOException {
+        try (out) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new IllegalModificationException("Attachment exceeds " + maxSize + " bytes");
+                }
+
+                out.write(buffer, 0, read);
+            }
+
+            return size;
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+
+        return new String(chars);
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Left for the sweep
+            }
+        }
+    }
+
+    /**
+     * Resolves the file with the specified hash. Files are spread over two levels
+     * of subdirectories to keep directories small.
+     *
+     * @param sha256 SHA-256 hash of the content
+     *
+     * @return path of the file, which may not exist
+     */
+    public Path pathOf(String sha256) {
+        if (sha256.length() != 64 || !sha256.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + sha256);
+        }
+
+        return root.resolve(sha256.substring(0, 2))
+                .resolve(sha256.substring(2, 4))
+                .resolve(sha256);
+    }
+
+    /**
+     * Retrieves hashes of stored files last modified before the specified instant.
+     *
+     * @param instant instant to compare modification time with
+     *
+     * @return hashes of the files
+     */
+    public List<String> findAllModifiedBefore(Instant instant) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> !file.startsWith(tmp) && !file.startsWith(quarantine))
+                    .filter(Files::isRegularFile)
+                    .filter(file -> isModifiedBefore(file, instant))
+                    .map(file -> file.getFileName().toString())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list attachments", e);
+        }
+    }
+
+    /**
+     * Deletes temporary and quarantined files last modified before the specified instant.
+     * Such files are left behind by interrupted writes and deletions.
+     *
+     * @param instant instant to compare modification time with
+     *
+     * @return the number of deleted files
+     *
+     * @throws UncheckedIOException if the files cannot be listed
+     */
+    public int deleteAllTemporaryModifiedBefore(Instant instant) {
+        try (Stream<Path> files = Stream.concat(Files.list(tmp), Files.list(quarantine))) {
+            List<Path> abandoned = files.filter(Files::isRegularFile)
+                    .filter(file -> isModifiedBefore(file, instant))
+                    .collect(Collectors.toList());
+            abandoned.forEach(this::deleteQuietly);
+            return abandoned.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list temporary attachments", e);
+        }
+    }
+
+    private boolean isModifiedBefore(Path file, Instant instant) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(instant);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the file with the specified hash if it was last modified before the specified instant.
+     * The file is moved to quarantine first and its modification time is checked there,
+     * so a file reused by a write that refreshed it before the move is put back.
+     * A write that comes after the move stores the content anew.
+     *
+     * @param sha256 SHA-256 hash of the content
+     * @param instant instant to compare modification time with
+     *
+     * @return true if the file was deleted, false otherwise
+     *
+     * @throws UncheckedIOException if the file cannot be deleted
+     */
+    public boolean deleteIfModifiedBefore(String sha256, Instant instant) {
+        Path file = pathOf(sha256);
+        Path quarantined = quarantine.resolve(sha256 + "." + System.nanoTime());
+        try {
+            try {
+                Files.move(file, quarantined, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+
+            if (!isModifiedBefore(quarantined, instant)) {
+                // Rename replaces a file stored concurrently, which has the same content anyway
+                Files.move(quarantined, file, StandardCopyOption.ATOMIC_MOVE);
+                return false;
+            }
+
+            Files.delete(quarantined);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to delete attachment " + sha256, e);
+        }
+    }
+
+    /**
+     * Descriptor of a stored file.
+     */
+    public static class StoredFile {
+        private final String sha256;
+        private final long size;
+
+        public StoredFile(String sha256, long size) {
+            this.sha256 = sha256;
+            this.size = size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.external;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes entities of remote services by type and ID for the duration of an HTTP request,
+ * so an entity needed by access checks, validation and content loading is fetched once.
+ * Only found entities are memoized: failed lookups are repeated. Instances are thread-safe,
+ * so a lookup context may be handed over to worker threads of the request.
+ */
+public class RemoteLookups {
+    private static final String ATTRIBUTE = RemoteLookups.class.getName();
+
+    private final Map<Class<?>, Map<Long, Object>> entities = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the lookup context of the current HTTP request. Outside of a request
+     * a new context is returned every time, so nothing is memoized.
+     *
+     * @return the lookup context of the current HTTP request
+     */
+    public static RemoteLookups current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new RemoteLookups();
+        }
+
+        RemoteLookups lookups = (RemoteLookups) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (lookups == null) {
+            lookups = new RemoteLookups();
+            attributes.setAttribute(ATTRIBUTE, lookups, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return lookups;
+    }
+
+    /**
+     * Returns the memoized entity with the specified type and ID or loads it with the specified loader.
+     * Returned entities are shared, so they must not be modified.
+     *
+     * @param type entity type
+     * @param id entity ID
+     * @param loader loader of the entity, may return null or throw if the entity is not found
+     * @param <T> entity type
+     *
+     * @return the entity or null if the loader returned null
+     */
+    public <T> T get(Class<T> type, long id, Supplier<T> loader) {
+        Map<Long, Object> entitiesOfType = entities.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        Object memoized = entitiesOfType.get(id);
+        if (memoized != null) {
+            return type.cast(memoized);
+        }
+
+        T loaded = loader.get();
+        if (loaded != null) {
+            entitiesOfType.putIfAbsent(id, loaded);
+        }
+
+        return loaded;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.external;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Feign client decorator revalidating responses of remote services with conditional requests.
+ * Bodies of GET responses carrying an ETag are kept in an LRU map keyed by URL,
+ * later GET requests to the same URL are sent with an If-None-Match header,
+ * and 304 responses are answered with the kept body, so unchanged entities are not transferred again.
+ */
+public class RevalidatingClient implements Client {
+    private static final String ETAG = "ETag";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    private final Client delegate;
+    private final Map<String, CachedResponse> responses;
+
+    /**
+     * Constructs a new RevalidatingClient.
+     *
+     * @param delegate client sending requests
+     * @param capacity maximum number of kept responses
+     */
+    public RevalidatingClient(Client delegate, int capacity) {
+        this.delegate = delegate;
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Kept response of a remote service.
+     */
+    private static class CachedResponse {
+        private final String etag;
+        private final Map<String, Collection<String>> headers;
+        private final byte[] body;
+
+        private CachedResponse(String etag, Map<String, Collection<String>> headers, byte[] body) {
+            this.etag = etag;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            return delegate.execute(request, options);
+        }
+
+        String url = request.url();
+        CachedResponse cached = get(url);
+        Request conditional = (cached == null) ? request : withIfNoneMatch(request, cached.etag);
+        Response response = delegate.execute(conditional, options);
+
+        if (response.status() == 304 && cached != null) {
+            response.close();
+            return toResponse(cached, request);
+        }
+
+        if (response.status() == 404) {
+            remove(url);
+            return response;
+        }
+
+        String etag = firstHeader(response, ETAG);
+        if (response.status() != 200 || etag == null || response.body() == null) {
+            return response;
+        }
+
+        byte[] body = Util.toByteArray(response.body().asInputStream());
+        response.close();
+        CachedResponse fresh = new CachedResponse(etag, response.headers(), body);
+        put(url, fresh);
+        return toResponse(fresh, request);
+    }
+
+    private synchronized CachedResponse get(String url) {
+        return responses.get(url);
+    }
+
+    private synchronized void put(String url, CachedResponse response) {
+        responses.put(url, response);
+    }
+
+    private synchronized void remove(String url) {
+        responses.remove(url);
+    }
+
+    private Request withIfNoneMatch(Request request, String etag) {
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.headers());
+        headers.put(IF_NONE_MATCH, List.of(etag));
+        return Request.create(request.httpMethod(), request.url(), headers,
+                request.requestBody(), request.requestTemplate());
+    }
+
+    private String firstHeader(Response response, String name) {
+        for (Map.Entry<String, Collection<String>> header : response.headers().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return header.getValue().iterator().next();
+            }
+        }
+
+        return null;
+    }
+
+    private Response toResponse(CachedResponse cached, Request request) {
+        return Response.builder()
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .headers(cached.headers)
+                .body(cached.body)
+                .build();
+    }
+}
@@ -18,7 +18,6 @@ package resultsservice.service.external.client;
 
 import javax.persistence.Column;
 import javax.persistence.Embeddable;
-import javax.persistence.Transient;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -31,10 +30,10 @@ public class Client implements Serializable {
     @Column(name = "client_id", nullable = false)
     private Long id;
 
-    @Transient
+    @Column(name = "client_email")
     private String email;
 
-    @Transient
+    @Column(name = "client_name")
     private String name;
 
     /**
@@ -22,6 +22,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import resultsservice.config.OauthFeignConfiguration;
 
@@ -44,4 +45,18 @@ public interface ClientServiceFeignClient {
             value = "/clients/{id}",
             consumes = "application/json")
     Client findClientById(@PathVariable Long id);
+
+    /**
+     * Looks for a client with the specified email.
+     *
+     * @param email email of the client to get
+     *
+     * @return client with the specified email
+     *
+     * @throws FeignClientException if there is any problem with feign client
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = "/clients",
+            consumes = "application/json")
+    Client findClientByEmail(@RequestParam("email") String email);
 }
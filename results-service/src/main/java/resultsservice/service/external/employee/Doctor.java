@@ -31,10 +31,10 @@ public class Doctor implements Serializable {
     @Column(name = "doctor_id", nullable = false)
     private Long id;
 
-    @Transient
+    @Column(name = "doctor_email")
     private String email;
 
-    @Transient
+    @Column(name = "doctor_name")
     private String name;
 
     @Transient
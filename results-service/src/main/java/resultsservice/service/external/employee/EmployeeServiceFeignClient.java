@@ -44,4 +44,18 @@ public interface EmployeeServiceFeignClient {
             value = "/doctors/{id}",
             consumes = "application/json")
     Doctor findDoctorById(@PathVariable Long id);
+
+    /**
+     * Looks for a doctor with the specified email.
+     *
+     * @param email email of the doctor to get
+     *
+     * @return doctor with the specified email
+     *
+     * @throws FeignClientException if there is any problem with feign client
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = "/doctors/{email}?email={email}",
+            consumes = "application/json")
+    Doctor findDoctorByEmail(@PathVariable("email") String email);
 }
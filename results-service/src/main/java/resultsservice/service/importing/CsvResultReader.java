@@ -0,0 +1,179 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import resultsservice.service.exception.IllegalModificationException;
+import resultsservice.service.external.client.Client;
+import resultsservice.service.external.employee.Doctor;
+import resultsservice.service.external.registration.Duty;
+import resultsservice.service.result.Result;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads results from CSV. The first record is a header naming the dutyId, doctorId, clientId
+ * and data columns in any order. Fields may be quoted, so payloads can contain commas,
+ * quotes and line breaks. A record is reported under the number of the line it starts on.
+ */
+public class CsvResultReader implements ResultReader {
+    private static final List<String> COLUMNS = List.of("dutyid", "doctorid", "clientid", "data");
+
+    private final PushbackReader reader;
+    private Map<String, Integer> columns;
+    private int fieldCount;
+    private int lineNumber;
+    private int recordLine;
+    private boolean unterminated;
+
+    public CsvResultReader(InputStream input) {
+        this.reader = new PushbackReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public ResultLine next() throws IOException {
+        if (columns == null && !readHeader()) {
+            return null;
+        }
+
+        List<String> fields;
+        while ((fields = readRecord()) != null) {
+            if (unterminated) {
+                return ResultLine.malformed(recordLine, "Unterminated quoted field");
+            }
+
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+
+            return toLine(fields);
+        }
+
+        return null;
+    }
+
+    private boolean readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            return false;
+        }
+
+        columns = new HashMap<>();
+        fieldCount = header.size();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        if (unterminated || !columns.keySet().containsAll(COLUMNS)) {
+            throw new IllegalModificationException("CSV header must name dutyId, doctorId, clientId and data columns");
+        }
+
+        return true;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        recordLine = ++lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+
+            c = reader.read();
+        }
+
+        unterminated = quoted;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void unread(int c) throws IOException {
+        if (c >= 0) {
+            reader.unread(c);
+        }
+    }
+
+    private ResultLine toLine(List<String> fields) {
+        if (fields.size() != fieldCount) {
+            return ResultLine.malformed(recordLine, "Expected " + fieldCount + " fields, found " + fields.size());
+        }
+
+        try {
+            Result result = Result.builder()
+                    .withData(fields.get(columns.get("data")))
+                    .withDuty(Duty.builder().withId(parseId(fields, "dutyid")).build())
+                    .withDoctor(Doctor.builder().withId(parseId(fields, "doctorid")).build())
+                    .withClient(Client.builder().withId(parseId(fields, "clientid")).build())
+                    .build();
+            return ResultLine.parsed(recordLine, result);
+        } catch (NumberFormatException e) {
+            return ResultLine.malformed(recordLine, e.getMessage());
+        }
+    }
+
+    private Long parseId(List<String> fields, String column) {
+        String value = fields.get(columns.get(column)).trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Invalid " + column.replace("id", "") + " ID: " + value);
+        }
+    }
+}
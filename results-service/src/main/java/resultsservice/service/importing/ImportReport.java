@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an import: the number of imported and rejected lines
+ * and the reason each rejected line was not imported.
+ */
+public class ImportReport {
+    private static final int MAX_REPORTED_ERRORS = 10_000;
+
+    private int imported;
+    private int rejected;
+    private boolean completed = true;
+    private final List<LineError> errors = new ArrayList<>();
+
+    /**
+     * Records imported lines.
+     *
+     * @param count number of imported lines
+     */
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    /**
+     * Records a rejected line. Only the first errors are kept, so a malformed input
+     * cannot make the report grow without bounds; the number of rejected lines is always exact.
+     *
+     * @param line number of the line in the input
+     * @param error reason of the rejection
+     */
+    public void reject(int line, String error) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new LineError(line, error));
+        }
+    }
+
+    /**
+     * Marks the import as stopped before the end of the input.
+     */
+    public void abort() {
+        completed = false;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public List<LineError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Reason a single line was not imported.
+     */
+    public static class LineError {
+        private final int line;
+        private final String error;
+
+        public LineError(int line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import resultsservice.service.result.Result;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads results from newline-delimited JSON. Every line holds a result
+ * in the same form the results endpoint accepts.
+ */
+public class NdjsonResultReader implements ResultReader {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private int lineNumber;
+
+    public NdjsonResultReader(InputStream input, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ResultLine next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                Result result = objectMapper.readValue(line, Result.class);
+                if (result == null) {
+                    return ResultLine.malformed(lineNumber, "Result expected");
+                }
+
+                return ResultLine.parsed(lineNumber, result);
+            } catch (JsonProcessingException e) {
+                return ResultLine.malformed(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        return null;
+    }
+}
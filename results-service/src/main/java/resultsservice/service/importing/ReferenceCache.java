@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import feign.FeignException;
+
+import resultsservice.service.exception.IllegalModificationException;
+import resultsservice.service.exception.RemoteResourceException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
+
+/**
+ * Remembers outcomes of looking up remote entities of one type during an import,
+ * so every distinct ID is requested once no matter how many lines reference it.
+ * Entities that do not exist are remembered as well. Lookups that fail for other reasons
+ * are remembered until the end of the chunk and repeated for the next one.
+ * Instances are confined to the importing thread.
+ */
+class ReferenceCache<T> {
+    private final String entityName;
+    private final String serviceName;
+    private final LongFunction<T> finder;
+    private final Executor executor;
+
+    private final Map<Long, T> found = new HashMap<>();
+    private final Set<Long> missing = new HashSet<>();
+    private final Map<Long, CompletableFuture<T>> pending = new HashMap<>();
+    private final Map<Long, RemoteResourceException> failed = new HashMap<>();
+
+    /**
+     * @param entityName name of the entity used in error messages
+     * @param serviceName name of the service owning the entity used in error messages
+     * @param finder finder of the entity, may return null or throw FeignException with status 404
+     *               if the entity does not exist
+     * @param executor executor to look entities up on
+     */
+    ReferenceCache(String entityName, String serviceName, LongFunction<T> finder, Executor executor) {
+        this.entityName = entityName;
+        this.serviceName = serviceName;
+        this.finder = finder;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts looking up the entity with the specified ID unless its outcome is already known.
+     *
+     * @param id ID of the entity
+     */
+    void request(long id) {
+        if (found.containsKey(id) || missing.contains(id) || failed.containsKey(id) || pending.containsKey(id)) {
+            return;
+        }
+
+        pending.put(id, lookUpAsync(id));
+    }
+
+    private CompletableFuture<T> lookUpAsync(long id) {
+        try {
+            return CompletableFuture.supplyAsync(() -> finder.apply(id), executor);
+        } catch (RejectedExecutionException e) {
+            // A saturated executor must not fail the import, so the lookup runs on the caller thread
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(finder.apply(id));
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+            }
+
+            return future;
+        }
+    }
+
+    /**
+     * Returns the entity with the specified ID, waiting for its lookup until the specified deadline.
+     *
+     * @param id ID of the entity
+     * @param deadline System#nanoTime() value to wait until
+     *
+     * @return the entity
+     *
+     * @throws IllegalModificationException if the entity does not exist
+     * @throws RemoteResourceException if the entity cannot be looked up
+     */
+    T get(long id, long deadline) {
+        request(id);
+        T entity = found.get(id);
+        if (entity != null) {
+            return entity;
+        } else if (missing.contains(id)) {
+            throw notFound(id);
+        } else if (failed.containsKey(id)) {
+            throw failed.get(id);
+        }
+
+        CompletableFuture<T> lookup = pending.remove(id);
+        try {
+            long timeout = Math.max(0, deadline - System.nanoTime());
+            T loaded = lookup.get(timeout, TimeUnit.NANOSECONDS);
+            if (loaded == null) {
+                missing.add(id);
+                throw notFound(id);
+            }
+
+            found.put(id, loaded);
+            return loaded;
+        } catch (TimeoutException e) {
+            lookup.cancel(true);
+            throw fail(id, new RemoteResourceException("Unable to validate " + entityName + " " + id + " in time", e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(id, new RemoteResourceException("Validation of " + entityName + " " + id + " interrupted", e));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FeignException && ((FeignException) cause).status() == 404) {
+                missing.add(id);
+                throw notFound(id);
+            }
+
+            throw fail(id, new RemoteResourceException(serviceName + " unavailable", cause));
+        }
+    }
+
+    private IllegalModificationException notFound(long id) {
+        return new IllegalModificationException("No " + entityName + " with id " + id);
+    }
+
+    private RemoteResourceException fail(long id, RemoteResourceException e) {
+        failed.put(id, e);
+        return e;
+    }
+
+    /**
+     * Cancels unfinished lookups and forgets failed ones, so they are repeated for the next chunk.
+     */
+    void endChunk() {
+        pending.values().forEach(lookup -> lookup.cancel(true));
+        pending.clear();
+        failed.clear();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import resultsservice.service.exception.IllegalModificationException;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Provides bulk result import business logic.
+ */
+public interface ResultImportService {
+
+    /**
+     * Imports all results read by the specified reader. Results are validated like saved ones,
+     * but lines that fail validation are reported instead of failing the whole import.
+     * Results are inserted and committed in chunks, so results of committed chunks
+     * stay imported if the import stops early. If the result database fails, lines of the failed chunk
+     * are rejected and the rest of the input is not read.
+     *
+     * @param reader reader of results to import
+     *
+     * @return a report of imported and rejected lines
+     *
+     * @throws IllegalModificationException if the input cannot be imported at all
+     * @throws UncheckedIOException if the input cannot be read
+     */
+    ImportReport importAll(ResultReader reader);
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import resultsservice.config.properties.RemoteCallProperties;
+import resultsservice.data.ResultsRepository;
+import resultsservice.service.counter.RowCounters;
+import resultsservice.service.exception.IllegalModificationException;
+import resultsservice.service.exception.RemoteResourceException;
+import resultsservice.service.external.client.Client;
+import resultsservice.service.external.client.ClientServiceFeignClient;
+import resultsservice.service.external.employee.Doctor;
+import resultsservice.service.external.employee.EmployeeServiceFeignClient;
+import resultsservice.service.external.registration.Duty;
+import resultsservice.service.external.registration.RegistrationServiceFeignClient;
+import resultsservice.service.measurement.MeasurementService;
+import resultsservice.service.search.ResultSearchService;
+import resultsservice.service.result.Result;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/*
+ * Not transactional as a whole: every chunk is committed in its own transaction,
+ * so a long import neither holds one transaction open nor loses finished chunks.
+ */
+@Service
+public class ResultImportServiceImpl implements ResultImportService {
+    private static final Logger logger = LogManager.getLogger(ResultImportServiceImpl.class);
+    private static final int CHUNK_SIZE = 500;
+
+    private final ResultsRepository repository;
+    private final Validator validator;
+    private final CircuitBreaker circuitBreaker;
+    private final Executor remoteCallExecutor;
+    private final Duration remoteCallTimeout;
+    private final TransactionTemplate transactionTemplate;
+    private final MeasurementService measurementService;
+    private final ResultSearchService searchService;
+    private final RowCounters rowCounters;
+
+    private final ClientServiceFeignClient clientService;
+    private final EmployeeServiceFeignClient employeeService;
+    private final RegistrationServiceFeignClient registrationService;
+
+    @Autowired
+    public ResultImportServiceImpl(ResultsRepository repository,
+                                   ClientServiceFeignClient clientService,
+                                   EmployeeServiceFeignClient employeeService,
+                                   RegistrationServiceFeignClient registrationService,
+                                   Validator validator,
+                                   CircuitBreaker circuitBreaker,
+                                   @Qualifier("remoteCallExecutor") Executor remoteCallExecutor,
+                                   RemoteCallProperties remoteCallProperties,
+                                   PlatformTransactionManager transactionManager,
+                                   MeasurementService measurementService,
+                                   ResultSearchService searchService,
+                                   RowCounters rowCounters) {
+        this.repository = repository;
+        this.clientService = clientService;
+        this.employeeService = employeeService;
+        this.registrationService = registrationService;
+        this.validator = validator;
+        this.circuitBreaker = circuitBreaker;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.remoteCallTimeout = remoteCallProperties.getTimeout();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.measurementService = measurementService;
+        this.searchService = searchService;
+        this.rowCounters = rowCounters;
+    }
+
+    @Override
+    public ImportReport importAll(ResultReader reader) {
+        ImportReport report = new ImportReport();
+        References references = new References();
+        List<ResultLine> chunk = new ArrayList<>(CHUNK_SIZE);
+        try {
+            ResultLine line;
+            while ((line = reader.next()) != null) {
+                chunk.add(line);
+                if (chunk.size() == CHUNK_SIZE) {
+                    if (!importChunk(chunk, references, report)) {
+                        return report;
+                    }
+
+                    chunk.clear();
+                }
+            }
+
+            importChunk(chunk, references, report);
+            logger.info("Results imported - " + report.getImported() + ", rejected - " + report.getRejected());
+            return report;
+        } catch (IOException e) {
+            logger.error("Import stopped, input not read: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Lines are validated locally first, so remote lookups are only started for lines that may be imported.
+     * Lookups of the chunk run concurrently under one deadline.
+     */
+    private boolean importChunk(List<ResultLine> chunk, References references, ImportReport report) {
+        String[] errors = new String[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            ResultLine line = chunk.get(i);
+            if (line.isMalformed()) {
+                errors[i] = line.getError();
+                continue;
+            }
+
+            try {
+                validateResult(line.getResult());
+                references.request(line.getResult());
+            } catch (IllegalModificationException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+
+        long deadline = System.nanoTime() + remoteCallTimeout.toNanos();
+        List<Result> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (errors[i] != null) {
+                    continue;
+                }
+
+                try {
+                    accepted.add(references.resolve(chunk.get(i).getResult(), deadline));
+                    acceptedIndexes.add(i);
+                } catch (IllegalModificationException | RemoteResourceException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+        } finally {
+            references.endChunk();
+        }
+
+        boolean inserted = insert(accepted);
+        if (inserted) {
+            report.addImported(accepted.size());
+        } else {
+            acceptedIndexes.forEach(i -> errors[i] = "Result database unavailable");
+            report.abort();
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] != null) {
+                report.reject(chunk.get(i).getNumber(), errors[i]);
+            }
+        }
+
+        return inserted;
+    }
+
+    private void validateResult(Result result) {
+        Set<ConstraintViolation<Result>> violations = validator.validate(result);
+        if (!violations.isEmpty()) {
+            StringBuilder builder = new StringBuilder();
+            for (ConstraintViolation<Result> violation : violations) {
+                builder.append(violation.getMessage()).append(", ");
+            }
+
+            builder.delete(builder.length() - 2, builder.length() - 1);
+            String msg = builder.toString().toLowerCase(Locale.ROOT);
+            throw new IllegalModificationException(msg);
+        }
+
+        if (result.getDuty().getId() == null) {
+            throw new IllegalModificationException("Duty ID is mandatory");
+        } else if (result.getDoctor().getId() == null) {
+            throw new IllegalModificationException("Doctor ID is mandatory");
+        } else if (result.getClient().getId() == null) {
+            throw new IllegalModificationException("Client ID is mandatory");
+        }
+    }
+
+    private boolean insert(List<Result> results) {
+        if (results.isEmpty()) {
+            return true;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Runnable insertAll = () -> repository.insertAll(results);
+                circuitBreaker.decorateRunnable(insertAll).run();
+                measurementService.addMeasurements(results);
+                searchService.index(results);
+                rowCounters.add(RowCounters.RESULTS, results.size());
+            });
+
+            return true;
+        } catch (Exception e) {
+            logger.error("Import stopped, result database unavailable: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Per-import cache of the duties, doctors and clients referenced by imported results.
+     */
+    private class References {
+        private final ReferenceCache<Duty> duties = new ReferenceCache<>("duty", "Registration service",
+                id -> circuitBreaker.decorateSupplier(() -> registrationService.findDutyById(id)).get(),
+                remoteCallExecutor);
+        private final ReferenceCache<Doctor> doctors = new ReferenceCache<>("doctor", "Employee service",
+                id -> circuitBreaker.decorateSupplier(() -> employeeService.findDoctorById(id)).get(),
+                remoteCallExecutor);
+        private final ReferenceCache<Client> clients = new ReferenceCache<>("client", "Client service",
+                id -> circuitBreaker.decorateSupplier(() -> clientService.findClientById(id)).get(),
+                remoteCallExecutor);
+
+        void request(Result result) {
+            duties.request(result.getDuty().getId());
+            doctors.request(result.getDoctor().getId());
+            clients.request(result.getClient().getId());
+        }
+
+        // Returns a copy of the result ready to be inserted, with doctor and client data stored on the row
+        Result resolve(Result result, long deadline) {
+            duties.get(result.getDuty().getId(), deadline);
+            Doctor doctor = doctors.get(result.getDoctor().getId(), deadline);
+            Client client = clients.get(result.getClient().getId(), deadline);
+
+            Result resultToSave = new Result(result);
+            resultToSave.setId(null);
+            resultToSave.setDoctor(new Doctor(doctor));
+            resultToSave.setClient(new Client(client));
+            return resultToSave;
+        }
+
+        void endChunk() {
+            duties.endChunk();
+            doctors.endChunk();
+            clients.endChunk();
+        }
+    }
+}
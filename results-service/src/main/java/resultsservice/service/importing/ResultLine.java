@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import resultsservice.service.result.Result;
+
+/**
+ * A single line of an import: either a parsed result or the reason it could not be parsed.
+ */
+public class ResultLine {
+    private final int number;
+    private final Result result;
+    private final String error;
+
+    private ResultLine(int number, Result result, String error) {
+        this.number = number;
+        this.result = result;
+        this.error = error;
+    }
+
+    /**
+     * Creates a line holding a parsed result.
+     *
+     * @param number number of the line in the input, starting from 1
+     * @param result the parsed result
+     *
+     * @return a line holding the result
+     */
+    public static ResultLine parsed(int number, Result result) {
+        return new ResultLine(number, result, null);
+    }
+
+    /**
+     * Creates a line that could not be parsed.
+     *
+     * @param number number of the line in the input, starting from 1
+     * @param error reason the line could not be parsed
+     *
+     * @return a malformed line
+     */
+    public static ResultLine malformed(int number, String error) {
+        return new ResultLine(number, null, error);
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isMalformed() {
+        return error != null;
+    }
+}
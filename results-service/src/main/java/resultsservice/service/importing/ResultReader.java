@@ -0,0 +1,34 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import java.io.IOException;
+
+/**
+ * Reads results of an import one line at a time, so the input is never held in memory as a whole.
+ */
+public interface ResultReader {
+
+    /**
+     * Reads the next non-blank line of the input.
+     *
+     * @return the next line or null if the input is exhausted
+     *
+     * @throws IOException if the input cannot be read
+     */
+    ResultLine next() throws IOException;
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.measurement;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Measurement domain class. Describes a single numeric value extracted from a structured result payload.
+ * Measurements are indexed by client, analyte and time, so a series can be read with a range scan
+ * instead of parsing every result of the client.
+ */
+@Entity
+@Table(name = "measurement", indexes = {
+        @Index(name = "idx_measurement_client_analyte_taken_at", columnList = "client_id, analyte, taken_at"),
+        @Index(name = "idx_measurement_result", columnList = "result_id")
+})
+public class Measurement implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "result_id", nullable = false)
+    private Long resultId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false, length = 64)
+    private String analyte;
+
+    @Column(name = "numeric_value", nullable = false)
+    private double value;
+
+    @Column(length = 32)
+    private String unit;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    /**
+     * @return Measurement builder
+     */
+    public static Builder builder() {
+        return new Measurement().new Builder();
+    }
+
+    public Measurement() {
+    }
+
+    /**
+     * Constructs a new Measurement copying data from the passed one.
+     *
+     * @param other measurement to copy data from
+     */
+    public Measurement(Measurement other) {
+        id = other.id;
+        resultId = other.resultId;
+        clientId = other.clientId;
+        doctorId = other.doctorId;
+        analyte = other.analyte;
+        value = other.value;
+        unit = other.unit;
+        takenAt = other.takenAt;
+        recordedAt = other.recordedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getResultId() {
+        return resultId;
+    }
+
+    public void setResultId(Long resultId) {
+        this.resultId = resultId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getAnalyte() {
+        return analyte;
+    }
+
+    public void setAnalyte(String analyte) {
+        this.analyte = analyte;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public void setTakenAt(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        Measurement measurement = (Measurement) other;
+        return Double.compare(measurement.value, value) == 0
+                && Objects.equals(resultId, measurement.resultId)
+                && Objects.equals(clientId, measurement.clientId)
+                && Objects.equals(doctorId, measurement.doctorId)
+                && Objects.equals(analyte, measurement.analyte)
+                && Objects.equals(unit, measurement.unit)
+                && Objects.equals(takenAt, measurement.takenAt)
+                && Objects.equals(recordedAt, measurement.recordedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(resultId, clientId, doctorId, analyte, value, unit, takenAt, recordedAt);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "{" +
+                "id=" + id +
+                ", resultId=" + resultId +
+                ", clientId=" + clientId +
+                ", doctorId=" + doctorId +
+                ", analyte='" + analyte + '\'' +
+                ", value=" + value +
+                ", unit='" + unit + '\'' +
+                ", takenAt=" + takenAt +
+                ", recordedAt=" + recordedAt +
+                '}';
+    }
+
+    /**
+     * Measurement object builder.
+     */
+    public class Builder {
+
+        private Builder() {
+        }
+
+        public Measurement build() {
+            return Measurement.this;
+        }
+
+        public Builder withId(Long id) {
+            Measurement.this.id = id;
+            return this;
+        }
+
+        public Builder withResultId(Long resultId) {
+            Measurement.this.resultId = resultId;
+            return this;
+        }
+
+        public Builder withClientId(Long clientId) {
+            Measurement.this.clientId = clientId;
+            return this;
+        }
+
+        public Builder withDoctorId(Long doctorId) {
+            Measurement.this.doctorId = doctorId;
+            return this;
+        }
+
+        public Builder withAnalyte(String analyte) {
+            Measurement.this.analyte = analyte;
+            return this;
+        }
+
+        public Builder withValue(double value) {
+            Measurement.this.value = value;
+            return this;
+        }
+
+        public Builder withUnit(String unit) {
+            Measurement.this.unit = unit;
+            return this;
+        }
+
+        public Builder withTakenAt(LocalDateTime takenAt) {
+            Measurement.this.takenAt = takenAt;
+            return this;
+        }
+
+        public Builder withRecordedAt(LocalDateTime recordedAt) {
+            Measurement.this.recordedAt = recordedAt;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.measurement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import resultsservice.service.result.Result;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Extracts measurements from structured result payloads. A payload is structured
+ * if it is a JSON array of measurements or a JSON object with such an array in its measurements field:
+ * <pre>
+ * {"measurements": [{"analyte": "glucose", "value": 5.4, "unit": "mmol/L", "takenAt": "2021-03-01T08:30:00"}]}
+ * </pre>
+ * The analyte and the value are mandatory; measurements without them are skipped.
+ * Measurements without a time are taken at the specified default time.
+ * Any other payload is opaque text and has no measurements.
+ */
+@Component
+public class MeasurementParser {
+    private static final int MAX_ANALYTE_LENGTH = 64;
+    private static final int MAX_UNIT_LENGTH = 32;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public MeasurementParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Normalizes the specified analyte name, so names differing in case or surrounding spaces match.
+     *
+     * @param analyte analyte name
+     *
+     * @return the normalized name
+     */
+    public static String normalize(String analyte) {
+        return analyte.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Extracts measurements from the payload of the specified saved result.
+     *
+     * @param result saved result
+     * @param recordedAt time the result was first recorded, also used as time of measurements
+     * that have no time of their own
+     *
+     * @return measurements of the result, empty if the payload is not structured
+     */
+    public List<Measurement> parse(Result result, LocalDateTime recordedAt) {
+        String data = result.getData();
+        if (data == null || !isStructured(data)) {
+            return Collections.emptyList();
+        }
+
+        JsonNode items;
+        try {
+            JsonNode root = objectMapper.readTree(data);
+            items = root.isObject() ? root.path("measurements") : root;
+        } catch (JsonProcessingException e) {
+            return Collections.emptyList();
+        }
+
+        List<Measurement> measurements = new ArrayList<>();
+        for (JsonNode item : items) {
+            Measurement measurement = toMeasurement(item, recordedAt);
+            if (measurement != null) {
+                measurement.setResultId(result.getId());
+                measurement.setClientId(result.getClient().getId());
+                measurement.setDoctorId(result.getDoctor().getId());
+                measurements.add(measurement);
+            }
+        }
+
+        return measurements;
+    }
+
+    // Cheap check, so opaque payloads are not run through the JSON parser
+    private boolean isStructured(String data) {
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '{' || c == '[';
+            }
+        }
+
+        return false;
+    }
+
+    private Measurement toMeasurement(JsonNode item, LocalDateTime recordedAt) {
+        JsonNode analyte = item.path("analyte");
+        JsonNode value = item.path("value");
+        if (!analyte.isTextual() || analyte.asText().isBlank() || !isNumeric(value)) {
+            return null;
+        }
+
+        String name = normalize(analyte.asText());
+        String unit = item.path("unit").isTextual() ? item.path("unit").asText().trim() : null;
+        if (name.length() > MAX_ANALYTE_LENGTH || (unit != null && unit.length() > MAX_UNIT_LENGTH)) {
+            return null;
+        }
+
+        try {
+            JsonNode takenAt = item.path("takenAt");
+            return Measurement.builder()
+                    .withAnalyte(name)
+                    .withValue(value.asDouble())
+                    .withUnit(unit)
+                    .withTakenAt(takenAt.isTextual() ? LocalDateTime.parse(takenAt.asText()) : recordedAt)
+                    .withRecordedAt(recordedAt)
+                    .build();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private boolean isNumeric(JsonNode value) {
+        if (value.isNumber()) {
+            return true;
+        }
+
+        if (!value.isTextual()) {
+            return false;
+        }
+
+        try {
+            double parsed = Double.parseDouble(value.asText().trim());
+            return !Double.isNaN(parsed) && !Double.isInfinite(parsed);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.measurement;
+
+import resultsservice.service.exception.RemoteResourceException;
+import resultsservice.service.result.Result;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Provides measurement business logic.
+ */
+public interface MeasurementService {
+
+    /**
+     * Extracts and stores measurements of the specified newly saved results.
+     * Nothing is stored if measurement extraction is disabled.
+     *
+     * @param results saved results
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    void addMeasurements(List<Result> results);
+
+    /**
+     * Replaces measurements of the specified updated result with ones extracted from its current payload.
+     * Measurements that have no time of their own keep the time the result was first recorded,
+     * or get the current time if the result had no measurements before.
+     *
+     * @param result updated result
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    void replaceMeasurements(Result result);
+
+    /**
+     * Deletes measurements of the result with the specified ID.
+     *
+     * @param resultId ID of the result
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    void deleteAllByResultId(long resultId);
+
+    /**
+     * Builds a trend of the specified analyte of the client with the specified ID within the specified period.
+     * Measurements are aggregated while they are read, so memory use depends on the number of buckets only.
+     * Measurements in different units are never aggregated together: the trend is built from measurements
+     * in the specified unit or, if none is specified, in the unit most measurements of the period have.
+     *
+     * @param clientId ID of the client
+     * @param doctorId ID of the doctor whose results are used or null to use results of all doctors
+     * @param analyte analyte name
+     * @param unit unit of measurements to use or null to use the most frequent one
+     * @param from start of the period, inclusive
+     * @param to end of the period, exclusive
+     * @param buckets number of buckets to split the period into
+     *
+     * @return the trend, with no buckets if the period is empty
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    Trend findTrend(long clientId, Long doctorId, String analyte, String unit,
+                    LocalDateTime from, LocalDateTime to, int buckets);
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.measurement;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import resultsservice.config.properties.ResultDataProperties;
+import resultsservice.data.MeasurementPoint;
+import resultsservice.data.MeasurementRepository;
+import resultsservice.service.exception.RemoteResourceException;
+import resultsservice.service.result.Result;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Transactional
+public class MeasurementServiceImpl implements MeasurementService {
+    private final MeasurementRepository repository;
+    private final MeasurementParser parser;
+    private final CircuitBreaker circuitBreaker;
+    private final boolean extractMeasurements;
+
+    @Autowired
+    public MeasurementServiceImpl(MeasurementRepository repository,
+                                  MeasurementParser parser,
+                                  CircuitBreaker circuitBreaker,
+                                  ResultDataProperties properties) {
+        this.repository = repository;
+        this.parser = parser;
+        this.circuitBreaker = circuitBreaker;
+        this.extractMeasurements = properties.isExtractMeasurements();
+    }
+
+    @Override
+    public void addMeasurements(List<Result> results) {
+        addMeasurements(results, LocalDateTime.now());
+    }
+
+    private void addMeasurements(List<Result> results, LocalDateTime recordedAt) {
+        if (!extractMeasurements) {
+            return;
+        }
+
+        try {
+            List<Measurement> measurements = new ArrayList<>();
+            results.forEach(result -> measurements.addAll(parser.parse(result, recordedAt)));
+            if (!measurements.isEmpty()) {
+                Runnable saveAll = () -> repository.saveAll(measurements);
+                circuitBreaker.decorateRunnable(saveAll).run();
+            }
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    public void replaceMeasurements(Result result) {
+        LocalDateTime recordedAt;
+        try {
+            // Measurements with no time of their own keep the time the result was first recorded
+            Supplier<Optional<LocalDateTime>> findRecordedAt =
+                    () -> repository.findRecordedAtByResultId(result.getId());
+            recordedAt = circuitBreaker.decorateSupplier(findRecordedAt).get().orElseGet(LocalDateTime::now);
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+
+        deleteAllByResultId(result.getId());
+        addMeasurements(List.of(result), recordedAt);
+    }
+
+    @Override
+    public void deleteAllByResultId(long resultId) {
+        try {
+            Runnable deleteAll = () -> repository.deleteAllByResultId(resultId);
+            circuitBreaker.decorateRunnable(deleteAll).run();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Trend findTrend(long clientId, Long doctorId, String analyte, String unit,
+                           LocalDateTime from, LocalDateTime to, int buckets) {
+        String name = MeasurementParser.normalize(analyte);
+        long span = Duration.between(from, to).toMillis();
+        if (span <= 0 || buckets <= 0) {
+            return new Trend(clientId, name, unit, List.of(), List.of());
+        }
+
+        Supplier<Stream<MeasurementPoint>> streamPoints = (doctorId == null)
+                ? () -> repository.streamPoints(clientId, name, from, to)
+                : () -> repository.streamPointsByDoctorId(clientId, name, from, to, doctorId);
+        // Every unit gets buckets of its own, so values in different units are never averaged together
+        Map<String, Buckets> byUnit = new HashMap<>();
+        try (Stream<MeasurementPoint> points = circuitBreaker.decorateSupplier(streamPoints).get()) {
+            points.forEach(point -> byUnit.computeIfAbsent(point.getUnit(), key -> new Buckets(from, span, buckets))
+                    .add(point));
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+
+        String trendUnit = (unit != null && !unit.isBlank()) ? unit.trim() : dominantUnit(byUnit);
+        Buckets aggregated = byUnit.get(trendUnit);
+        List<String> units = byUnit.keySet().stream()
+                .filter(Objects::nonNull)
+                .sorted()
+                .collect(Collectors.toList());
+        return new Trend(clientId, name, trendUnit, units, (aggregated != null) ? aggregated.toList() : List.of());
+    }
+
+    private String dominantUnit(Map<String, Buckets> byUnit) {
+        return byUnit.entrySet().stream()
+                .max(Comparator.<Map.Entry<String, Buckets>>comparingLong(entry -> entry.getValue().total())
+                        .thenComparing(Map.Entry::getKey, Comparator.nullsFirst(Comparator.reverseOrder())))
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    /*
+     * Min/max per bucket is used instead of largest-triangle-three-buckets:
+     * it needs a single pass over unordered points and keeps abnormal values
+     * that a point-picking algorithm may drop.
+     */
+    private static class Buckets {
+        private final LocalDateTime from;
+        private final long span;
+        private final long[] counts;
+        private final double[] mins;
+        private final double[] maxs;
+        private final double[] sums;
+        private long total;
+
+        Buckets(LocalDateTime from, long span, int size) {
+            this.from = from;
+            this.span = span;
+            this.counts = new long[size];
+            this.mins = new double[size];
+            this.maxs = new double[size];
+            this.sums = new double[size];
+        }
+
+        void add(MeasurementPoint point) {
+            long offset = Duration.between(from, point.getTakenAt()).toMillis();
+            int bucket = (int) Math.min(counts.length - 1, (double) offset * counts.length / span);
+            double value = point.getNumericValue();
+            if (counts[bucket] == 0) {
+                mins[bucket] = value;
+                maxs[bucket] = value;
+            } else {
+                mins[bucket] = Math.min(mins[bucket], value);
+                maxs[bucket] = Math.max(maxs[bucket], value);
+            }
+
+            counts[bucket]++;
+            sums[bucket] += value;
+            total++;
+        }
+
+        long total() {
+            return total;
+        }
+
+        List<Trend.Bucket> toList() {
+            List<Trend.Bucket> buckets = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    buckets.add(new Trend.Bucket(boundary(i), boundary(i + 1),
+                            counts[i], mins[i], maxs[i], sums[i] / counts[i]));
+                }
+            }
+
+            return buckets;
+        }
+
+        private LocalDateTime boundary(int bucket) {
+            return from.plus(Duration.ofMillis(Math.round((double) span * bucket / counts.length)));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.measurement;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A downsampled series of measurements of one analyte of a client. The requested period is split
+ * into buckets of equal length, and every non-empty bucket keeps the minimum, the maximum and the average
+ * of its measurements, so extreme values survive downsampling.
+ * A trend never mixes units: it is built from measurements in one unit,
+ * and the other units the analyte was measured in are listed separately.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Trend {
+    private final long clientId;
+    private final String analyte;
+    private final String unit;
+    private final List<String> units;
+    private final List<Bucket> buckets;
+
+    public Trend(long clientId, String analyte, String unit, List<String> units, List<Bucket> buckets) {
+        this.clientId = clientId;
+        this.analyte = analyte;
+        this.unit = unit;
+        this.units = units;
+        this.buckets = buckets;
+    }
+
+    public long getClientId() {
+        return clientId;
+    }
+
+    public String getAnalyte() {
+        return analyte;
+    }
+
+    /**
+     * @return the unit of all measurements or null if the unit is unknown or differs between measurements
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    public List<String> getUnits() {
+        return Collections.unmodifiableList(units);
+    }
+
+    public List<Bucket> getBuckets() {
+        return Collections.unmodifiableList(buckets);
+    }
+
+    /**
+     * Measurements of a single period of a trend.
+     */
+    public static class Bucket {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final long count;
+        private final double min;
+        private final double max;
+        private final double average;
+
+        public Bucket(LocalDateTime from, LocalDateTime to, long count, double min, double max, double average) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.average = average;
+        }
+
+        public LocalDateTime getFrom() {
+            return from;
+        }
+
+        public LocalDateTime getTo() {
+            return to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getAverage() {
+            return average;
+        }
+    }
+}
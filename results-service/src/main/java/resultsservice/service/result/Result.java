@@ -16,22 +16,36 @@
 
 package resultsservice.service.result;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import resultsservice.data.ResultDataConverter;
 import resultsservice.service.external.client.Client;
 import resultsservice.service.external.employee.Doctor;
 import resultsservice.service.external.registration.Duty;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Result domain class.
@@ -44,10 +58,18 @@ public class Result implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Lob
     @Column(nullable = false)
+    @Convert(converter = ResultDataConverter.class)
     @NotBlank(message = "Data is mandatory")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String data;
 
+    @Column(name = "data_size")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long dataSize;
+
     @Embedded
     @NotNull(message = "Duty is mandatory")
     private Duty duty;
@@ -60,6 +82,16 @@ public class Result implements Serializable {
     @NotNull(message = "Doctor is mandatory")
     private Doctor doctor;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Set<String> unresolved = new HashSet<>();
+
     /**
      * @return Result builder
      */
@@ -81,6 +113,23 @@ public class Result implements Serializable {
     public Result() {
     }
 
+    /**
+     * Constructs a result summary: a result without the payload, which keeps only its size.
+     *
+     * @param id result ID
+     * @param duty result duty
+     * @param client result client
+     * @param doctor result doctor
+     * @param dataSize payload length
+     */
+    public Result(Long id, Duty duty, Client client, Doctor doctor, Number dataSize) {
+        this.id = id;
+        this.duty = duty;
+        this.client = client;
+        this.doctor = doctor;
+        this.dataSize = (dataSize == null) ? null : dataSize.longValue();
+    }
+
     /**
      * Constructs a new Result copying data from the passed one.
      *
@@ -89,9 +138,12 @@ public class Result implements Serializable {
     public Result(Result other) {
         id = other.id;
         data = other.data;
+        dataSize = other.dataSize;
         duty = (other.duty == null) ? null : new Duty(other.duty);
         client = (other.client == null) ? null : new Client(other.client);
         doctor = (other.doctor == null) ? null : new Doctor(other.doctor);
+        unresolved = new HashSet<>(other.unresolved);
+        version = other.version;
     }
 
     public Long getId() {
@@ -110,6 +162,28 @@ public class Result implements Serializable {
         this.data = data;
     }
 
+    @PrePersist
+    @PreUpdate
+    private void updateDataSize() {
+        if (data != null) {
+            dataSize = (long) data.length();
+        }
+    }
+
+    /**
+     * Returns the payload length. Result summaries have no payload loaded,
+     * so the length stored in the database is returned for them.
+     *
+     * @return the payload length or null if unknown
+     */
+    public Long getDataSize() {
+        if (data != null) {
+            return (long) data.length();
+        }
+
+        return dataSize;
+    }
+
     public Duty getDuty() {
         return duty;
     }
@@ -134,6 +208,33 @@ public class Result implements Serializable {
         this.doctor = doctor;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns names of the remote parts (duty, doctor, client) that could not be
+     * loaded in time. Such parts contain only their IDs.
+     *
+     * @return names of the unresolved remote parts
+     */
+    public Set<String> getUnresolved() {
+        return Collections.unmodifiableSet(unresolved);
+    }
+
+    /**
+     * Marks the specified remote part as not loaded.
+     *
+     * @param part name of the remote part
+     */
+    public void markUnresolved(String part) {
+        unresolved.add(part);
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
@@ -16,14 +16,20 @@
 
 package resultsservice.service.result;
 
+import org.springframework.data.domain.Slice;
+
+import resultsservice.data.ResultDataRepository.DataSink;
+import resultsservice.data.ResultOwners;
 import resultsservice.service.exception.IllegalModificationException;
 import resultsservice.service.exception.RemoteResourceException;
 
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Provides result business logic.
+ * Results returned by list methods are summaries: they carry the payload size, not the payload.
  */
 public interface ResultService {
 
@@ -47,6 +53,34 @@ public interface ResultService {
      */
     List<Result> findAllByClientId(long clientId);
 
+    /**
+     * Looks for a page of results in the remote result repository.
+     * Results are ordered by ID, the page starts right after the specified ID.
+     * Only results of the returned page are loaded with remote content.
+     *
+     * @param afterId ID of the last result of the previous page, 0 for the first page
+     * @param size maximum number of results to get
+     *
+     * @return a page of results from the remote result repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    Slice<Result> findAll(long afterId, int size);
+
+    /**
+     * Looks for a page of results with the specified client ID in the remote result repository.
+     * Results are ordered by ID, the page starts right after the specified ID.
+     *
+     * @param clientId client ID of results to get
+     * @param afterId ID of the last result of the previous page, 0 for the first page
+     * @param size maximum number of results to get
+     *
+     * @return a page of results with the specified client ID from the remote result repository
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    Slice<Result> findAllByClientId(long clientId, long afterId, int size);
+
     /**
      * Looks for a result with the specified ID in the remote result repository.
      *
@@ -59,6 +93,55 @@ public interface ResultService {
      */
     Optional<Result> findById(long id);
 
+    /**
+     * Looks for the version of the result with the specified ID in the remote result repository
+     * without loading the result itself.
+     *
+     * @param id ID of the result
+     *
+     * @return the version of the result or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    Optional<Long> findVersionById(long id);
+
+    /**
+     * Replaces doctor and client data stored on the specified results with live data
+     * from remote services. Outdated stored data is refreshed in the background.
+     *
+     * @param results results to hydrate
+     */
+    void hydrate(List<Result> results);
+
+    /**
+     * Looks for IDs of the doctor and the client of the result with the specified ID.
+     * Neither the result nor its doctor and client are loaded.
+     *
+     * @param id ID of the result
+     *
+     * @return owners of the result or Optional#empty() if none found
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    Optional<ResultOwners> findOwnersById(long id);
+
+    /**
+     * Writes the payload of the result with the specified ID to the stream opened by the specified sink.
+     * The payload is copied straight from the remote result repository
+     * without being loaded into memory as a whole. Payloads stored compressed
+     * are not inflated if gzip is accepted.
+     *
+     * @param id ID of the result
+     * @param gzipAccepted true if the payload may be written gzip-compressed
+     * @param sink sink to copy the payload to
+     *
+     * @return true if the result was found, false otherwise
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     * @throws UncheckedIOException if the payload cannot be written
+     */
+    boolean writeData(long id, boolean gzipAccepted, DataSink sink);
+
     /**
      * Counts the number of the results in the remote result repossitory.
      *
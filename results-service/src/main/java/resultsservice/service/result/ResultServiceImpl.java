@@ -20,31 +20,61 @@ import feign.FeignException;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import resultsservice.config.properties.RemoteCallProperties;
+import resultsservice.data.ResultDataRepository.DataSink;
+import resultsservice.data.ResultOwners;
 import resultsservice.data.ResultsRepository;
+import resultsservice.service.counter.RowCounters;
 import resultsservice.service.exception.IllegalModificationException;
 import resultsservice.service.exception.RemoteResourceException;
+import resultsservice.service.external.RemoteLookups;
 import resultsservice.service.external.client.Client;
 import resultsservice.service.external.client.ClientServiceFeignClient;
 import resultsservice.service.external.employee.EmployeeServiceFeignClient;
 import resultsservice.service.external.employee.Doctor;
 import resultsservice.service.external.registration.Duty;
 import resultsservice.service.external.registration.RegistrationServiceFeignClient;
+import resultsservice.service.measurement.MeasurementService;
+import resultsservice.service.search.ResultSearchService;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Service
@@ -55,10 +85,17 @@ public class ResultServiceImpl implements ResultService {
     private final ResultsRepository repository;
     private final Validator validator;
     private final CircuitBreaker circuitBreaker;
+    private final Executor remoteCallExecutor;
+    private final Duration remoteCallTimeout;
 
     private final ClientServiceFeignClient clientService;
     private final EmployeeServiceFeignClient employeeService;
     private final RegistrationServiceFeignClient registrationService;
+    private final OwnerSnapshotRefresher snapshotRefresher;
+    private final MeasurementService measurementService;
+    private final ResultSearchService searchService;
+    private final RowCounters rowCounters;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
     public ResultServiceImpl(ResultsRepository repository,
@@ -66,21 +103,36 @@ public class ResultServiceImpl implements ResultService {
                              EmployeeServiceFeignClient employeeService,
                              RegistrationServiceFeignClient registrationService,
                              Validator validator,
-                             CircuitBreaker circuitBreaker) {
+                             CircuitBreaker circuitBreaker,
+                             @Qualifier("remoteCallExecutor") Executor remoteCallExecutor,
+                             RemoteCallProperties remoteCallProperties,
+                             OwnerSnapshotRefresher snapshotRefresher,
+                             MeasurementService measurementService,
+                             ResultSearchService searchService,
+                             RowCounters rowCounters,
+                             MeterRegistry meterRegistry) {
         this.repository = repository;
         this.clientService = clientService;
         this.employeeService = employeeService;
         this.registrationService = registrationService;
         this.validator = validator;
         this.circuitBreaker = circuitBreaker;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.remoteCallTimeout = remoteCallProperties.getTimeout();
+        this.snapshotRefresher = snapshotRefresher;
+        this.measurementService = measurementService;
+        this.searchService = searchService;
+        this.rowCounters = rowCounters;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Result> findAll() {
         try {
-            Supplier<List<Result>> findAll = repository::findAll;
+            Supplier<List<Result>> findAll = repository::findAllSummaries;
             List<Result> results = circuitBreaker.decorateSupplier(findAll).get();
-            results.forEach(this::loadContent);
+            loadContent(results, false);
             return results;
         } catch (Exception e) {
             throw new RemoteResourceException("Result database unavailable", e);
@@ -88,15 +140,117 @@ public class ResultServiceImpl implements ResultService {
     }
 
     private void loadContent(Result result) {
-        result.setDuty(loadDuty(result.getDuty().getId()));
-        result.setDoctor(loadDoctor(result.getDoctor().getId()));
-        result.setClient(loadClient(result.getClient().getId()));
+        loadContent(List.of(result), false);
     }
 
-    private Duty loadDuty(long dutyId) {
+    /*
+     * Duties are always loaded remotely. Doctor and client data stored on result rows
+     * is used as is unless live data is requested or nothing is stored yet.
+     */
+    private void loadContent(List<Result> results, boolean live) {
+        long deadline = System.nanoTime() + remoteCallTimeout.toNanos();
+        Map<Long, CompletableFuture<Duty>> duties = new HashMap<>();
+        Map<Long, CompletableFuture<Doctor>> doctors = new HashMap<>();
+        Map<Long, CompletableFuture<Client>> clients = new HashMap<>();
+        RemoteLookups lookups = RemoteLookups.current();
+        for (Result result : results) {
+            duties.computeIfAbsent(result.getDuty().getId(), id -> loadAsync(() -> loadDuty(lookups, id)));
+            if (live || result.getDoctor().getEmail() == null) {
+                doctors.computeIfAbsent(result.getDoctor().getId(),
+                        id -> loadAsync(() -> loadDoctor(lookups, id)));
+            }
+
+            if (live || result.getClient().getEmail() == null) {
+                clients.computeIfAbsent(result.getClient().getId(),
+                        id -> loadAsync(() -> loadClient(lookups, id)));
+            }
+        }
+
+        Set<Long> refreshedDoctors = new HashSet<>();
+        Set<Long> refreshedClients = new HashSet<>();
+        try {
+            for (Result result : results) {
+                result.setDuty(await(duties.get(result.getDuty().getId()), deadline,
+                        result, "duty", Duty::new, result.getDuty()));
+
+                CompletableFuture<Doctor> doctor = doctors.get(result.getDoctor().getId());
+                if (doctor != null) {
+                    Doctor stored = result.getDoctor();
+                    Doctor loaded = await(doctor, deadline, result, "doctor", Doctor::new, stored);
+                    if (loaded != stored && isOutdated(stored, loaded) && refreshedDoctors.add(loaded.getId())) {
+                        snapshotRefresher.refresh(loaded);
+                    }
+
+                    result.setDoctor(loaded);
+                }
+
+                CompletableFuture<Client> client = clients.get(result.getClient().getId());
+                if (client != null) {
+                    Client stored = result.getClient();
+                    Client loaded = await(client, deadline, result, "client", Client::new, stored);
+                    if (loaded != stored && isOutdated(stored, loaded) && refreshedClients.add(loaded.getId())) {
+                        snapshotRefresher.refresh(loaded);
+                    }
+
+                    result.setClient(loaded);
+                }
+            }
+        } finally {
+            duties.values().forEach(future -> future.cancel(true));
+            doctors.values().forEach(future -> future.cancel(true));
+            clients.values().forEach(future -> future.cancel(true));
+        }
+    }
+
+    private boolean isOutdated(Doctor stored, Doctor actual) {
+        return !Objects.equals(stored.getEmail(), actual.getEmail())
+                || !Objects.equals(stored.getName(), actual.getName());
+    }
+
+    private boolean isOutdated(Client stored, Client actual) {
+        return !Objects.equals(stored.getEmail(), actual.getEmail())
+                || !Objects.equals(stored.getName(), actual.getName());
+    }
+
+    private <T> CompletableFuture<T> loadAsync(Supplier<T> loader) {
+        try {
+            return CompletableFuture.supplyAsync(loader, remoteCallExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future, long deadline, Result result,
+                        String part, Function<T, T> copier, T stored) {
+        try {
+            long timeout = Math.max(0, deadline - System.nanoTime());
+            T loaded = future.get(timeout, TimeUnit.NANOSECONDS);
+
+            // The same instance may be shared by several results
+            return (loaded == null) ? stored : copier.apply(loaded);
+        } catch (TimeoutException e) {
+            logger.error("Result " + result.getId() + ": " + part + " not loaded in time");
+            result.markUnresolved(part);
+            return stored;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.markUnresolved(part);
+            return stored;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                logger.error("Result " + result.getId() + ": " + part + " not loaded, executor is saturated");
+                result.markUnresolved(part);
+                return stored;
+            }
+
+            throw new RemoteResourceException("Unable to load " + part, e.getCause());
+        }
+    }
+
+    private Duty loadDuty(RemoteLookups lookups, long dutyId) {
         try {
             Supplier<Duty> findDuty = () -> registrationService.findDutyById(dutyId);
-            return circuitBreaker.decorateSupplier(findDuty).get();
+            return lookups.get(Duty.class, dutyId, circuitBreaker.decorateSupplier(findDuty));
         } catch (FeignException e) {
             if (e.status() == 404) {
                 logger.error("Duty not found: " + dutyId);
@@ -108,10 +262,10 @@ public class ResultServiceImpl implements ResultService {
         }
     }
     
-    private Doctor loadDoctor(long doctorId) {
+    private Doctor loadDoctor(RemoteLookups lookups, long doctorId) {
         try {
             Supplier<Doctor> findDoctor = () -> employeeService.findDoctorById(doctorId);
-            return circuitBreaker.decorateSupplier(findDoctor).get();
+            return lookups.get(Doctor.class, doctorId, circuitBreaker.decorateSupplier(findDoctor));
         } catch (FeignException e) {
             if (e.status() == 404) {
                 logger.error("Doctor not found: " + doctorId);
@@ -123,10 +277,10 @@ public class ResultServiceImpl implements ResultService {
         }
     }
 
-    private Client loadClient(long clientId) {
+    private Client loadClient(RemoteLookups lookups, long clientId) {
         try {
             Supplier<Client> findClient = () -> clientService.findClientById(clientId);
-            return circuitBreaker.decorateSupplier(findClient).get();
+            return lookups.get(Client.class, clientId, circuitBreaker.decorateSupplier(findClient));
         } catch (FeignException e) {
             if (e.status() == 404) {
                 logger.error("Client not found: " + clientId);
@@ -139,11 +293,12 @@ public class ResultServiceImpl implements ResultService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Result> findAllByClientId(long clientId) {
         try {
             Supplier<List<Result>> findAll = () -> repository.findAllByClientId(clientId);
             List<Result> results = circuitBreaker.decorateSupplier(findAll).get();
-            results.forEach(this::loadContent);
+            loadContent(results, false);
             return results;
         } catch (Exception e) {
             throw new RemoteResourceException("Result database unavailable", e);
@@ -151,17 +306,82 @@ public class ResultServiceImpl implements ResultService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<Result> findAll(long afterId, int size) {
+        return findPage(() -> repository.findAllByIdGreaterThan(afterId, pageOf(size)));
+    }
+
+    private Slice<Result> findPage(Supplier<Slice<Result>> findPage) {
+        try {
+            Slice<Result> page = circuitBreaker.decorateSupplier(findPage).get();
+            loadContent(page.getContent(), false);
+            return page;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    private Pageable pageOf(int size) {
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Result> findAllByClientId(long clientId, long afterId, int size) {
+        return findPage(() -> repository.findAllByClientIdAndIdGreaterThan(clientId, afterId, pageOf(size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Result> findById(long id) {
         try {
             Supplier<Optional<Result>> findById = () -> repository.findById(id);
             Optional<Result> result = circuitBreaker.decorateSupplier(findById).get();
-            result.ifPresent(this::loadContent);
+            result.ifPresent(found -> loadContent(List.of(found), false));
             return result;
         } catch (Exception e) {
             throw new RemoteResourceException("Result database unavailable", e);
         }
     }
 
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        try {
+            Supplier<Optional<Long>> findVersion = () -> repository.findVersionById(id);
+            return circuitBreaker.decorateSupplier(findVersion).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void hydrate(List<Result> results) {
+        loadContent(results, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean writeData(long id, boolean gzipAccepted, DataSink sink) {
+        try {
+            return repository.copyData(id, gzipAccepted, sink);
+        } catch (UncheckedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    public Optional<ResultOwners> findOwnersById(long id) {
+        try {
+            Supplier<Optional<ResultOwners>> findOwners = () -> repository.findOwnersById(id);
+            return circuitBreaker.decorateSupplier(findOwners).get();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
     @Override
     public long count() {
         try {
@@ -179,6 +399,9 @@ public class ResultServiceImpl implements ResultService {
             Result resultToSave = prepareSaveData(result);
 
             Result saved = persistResult(resultToSave);
+            measurementService.addMeasurements(List.of(saved));
+            searchService.index(List.of(saved));
+            rowCounters.add(RowCounters.RESULTS, 1);
             loadContent(saved);
             logger.info("Result saved. ID - " + saved.getId());
             return saved;
@@ -189,11 +412,89 @@ public class ResultServiceImpl implements ResultService {
         }
     }
 
+    /*
+     * Referenced entities are checked concurrently under one deadline.
+     * The first missing entity fails validation without waiting for the other checks.
+     * Checks still queued are then skipped, but remote calls already running are not interrupted:
+     * they finish in the background and are recorded as abandoned.
+     */
     private void validate(Result result) {
         validateResult(result);
-        validateDuty(result.getDuty());
-        validateDoctor(result.getDoctor());
-        validateClient(result.getClient());
+        RemoteLookups lookups = RemoteLookups.current();
+        long deadline = System.nanoTime() + remoteCallTimeout.toNanos();
+        AtomicBoolean settled = new AtomicBoolean();
+        CompletableFuture<Duty> duty = validateAsync("duty", settled,
+                () -> validateDuty(lookups, result.getDuty()));
+        CompletableFuture<Doctor> doctor = validateAsync("doctor", settled,
+                () -> validateDoctor(lookups, result.getDoctor()));
+        CompletableFuture<Client> client = validateAsync("client", settled,
+                () -> validateClient(lookups, result.getClient()));
+        List<CompletableFuture<?>> checks = List.of(duty, doctor, client);
+
+        CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+        checks.forEach(check -> check.whenComplete((found, e) -> {
+            if (e != null) {
+                firstFailure.completeExceptionally(e);
+            }
+        }));
+
+        try {
+            long timeout = Math.max(0, deadline - System.nanoTime());
+            CompletableFuture.anyOf(CompletableFuture.allOf(duty, doctor, client), firstFailure)
+                    .get(timeout, TimeUnit.NANOSECONDS);
+
+            result.setDoctor(new Doctor(doctor.join()));
+            result.setClient(new Client(client.join()));
+        } catch (TimeoutException e) {
+            throw new RemoteResourceException("Result references not validated in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteResourceException("Result references validation interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = (e.getCause() instanceof CompletionException) ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new RemoteResourceException("Unable to validate result references", cause);
+        } finally {
+            settled.set(true);
+            checks.forEach(check -> check.cancel(false));
+        }
+    }
+
+    private <T> CompletableFuture<T> validateAsync(String dependency, AtomicBoolean settled, Supplier<T> check) {
+        Supplier<T> timedCheck = () -> timed(dependency, settled, check);
+        try {
+            return CompletableFuture.supplyAsync(timedCheck, remoteCallExecutor);
+        } catch (RejectedExecutionException e) {
+            // A saturated executor must not fail the save, so the check runs on the caller thread
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(timedCheck.get());
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+            }
+
+            return future;
+        }
+    }
+
+    // The call is timed where it runs, so the timing covers the whole call even if validation stopped waiting
+    private <T> T timed(String dependency, AtomicBoolean settled, Supplier<T> check) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T found = check.get();
+            outcome = "found";
+            return found;
+        } catch (IllegalModificationException e) {
+            outcome = "not_found";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("result.reference.validation",
+                    "dependency", dependency, "outcome", settled.get() ? "abandoned" : outcome));
+        }
     }
 
     private void validateResult(Result result) {
@@ -210,14 +511,14 @@ public class ResultServiceImpl implements ResultService {
         }
     }
 
-    private void validateDuty(Duty duty) {
+    private Duty validateDuty(RemoteLookups lookups, Duty duty) {
         try {
             if (duty.getId() == null) {
                 throw new IllegalModificationException("Duty ID is mandatory");
             }
 
             Supplier<Duty> findById = () -> registrationService.findDutyById(duty.getId());
-            circuitBreaker.decorateSupplier(findById).get();
+            return lookups.get(Duty.class, duty.getId(), circuitBreaker.decorateSupplier(findById));
         } catch (FeignException e) {
             if (e.status() == 404) {
                 throw new IllegalModificationException("No duty with id " + duty.getId());
@@ -228,14 +529,14 @@ public class ResultServiceImpl implements ResultService {
         }
     }
 
-    private void validateDoctor(Doctor doctor) {
+    private Doctor validateDoctor(RemoteLookups lookups, Doctor doctor) {
         try {
             if (doctor.getId() == null) {
                 throw new IllegalModificationException("Doctor ID is mandatory");
             }
 
             Supplier<Doctor> findById = () -> employeeService.findDoctorById(doctor.getId());
-            circuitBreaker.decorateSupplier(findById).get();
+            return lookups.get(Doctor.class, doctor.getId(), circuitBreaker.decorateSupplier(findById));
         } catch (FeignException e) {
             if (e.status() == 404) {
                 throw new IllegalModificationException("No doctor with id " + doctor.getId());
@@ -246,14 +547,14 @@ public class ResultServiceImpl implements ResultService {
         }
     }
 
-    private void validateClient(Client client) {
+    private Client validateClient(RemoteLookups lookups, Client client) {
         try {
             if (client.getId() == null) {
                 throw new IllegalModificationException("Client ID is mandatory");
             }
 
             Supplier<Client> findById = () -> clientService.findClientById(client.getId());
-            circuitBreaker.decorateSupplier(findById).get();
+            return lookups.get(Client.class, client.getId(), circuitBreaker.decorateSupplier(findById));
         } catch (FeignException e) {
             if (e.status() == 404) {
                 throw new IllegalModificationException("No client with id " + client.getId());
@@ -291,6 +592,8 @@ public class ResultServiceImpl implements ResultService {
             validate(resultToUpdate);
 
             Result updated = persistResult(resultToUpdate);
+            measurementService.replaceMeasurements(updated);
+            searchService.reindex(updated);
             loadContent(updated);
             logger.info("Result " + updated.getId() + " updated");
             return updated;
@@ -311,6 +614,9 @@ public class ResultServiceImpl implements ResultService {
     public void deleteById(long id) {
         try {
             deleteResult(id);
+            measurementService.deleteAllByResultId(id);
+            searchService.deleteAllByResultId(id);
+            rowCounters.add(RowCounters.RESULTS, -1);
             logger.info("Duty " + id + " deleted");
         } catch (EmptyResultDataAccessException e) {
             throw new IllegalModificationException("No result with id " + id, e);
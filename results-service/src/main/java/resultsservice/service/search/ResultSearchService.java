@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.search;
+
+import resultsservice.service.exception.RemoteResourceException;
+import resultsservice.service.result.Result;
+
+import java.util.List;
+
+/**
+ * Provides full-text search over result payloads.
+ */
+public interface ResultSearchService {
+
+    /**
+     * Adds payloads of the specified newly saved results to the index.
+     *
+     * @param results saved results
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    void index(List<Result> results);
+
+    /**
+     * Replaces index entries of the specified updated result with ones of its current payload and owners.
+     *
+     * @param result updated result
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    void reindex(Result result);
+
+    /**
+     * Deletes index entries of the result with the specified ID.
+     *
+     * @param resultId ID of the result
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    void deleteAllByResultId(long resultId);
+
+    /**
+     * Looks for results whose payloads contain terms of the specified query.
+     * The search can be scoped to results of a client, of a doctor or both.
+     *
+     * @param query search query
+     * @param clientId ID of the client to search results of or null to search results of all clients
+     * @param doctorId ID of the doctor to search results of or null to search results of all doctors
+     * @param limit maximum number of hits to return
+     *
+     * @return hits ranked by relevance, empty if the query has no terms
+     *
+     * @throws RemoteResourceException if there is any problem with the remote result repository
+     */
+    List<SearchHit> search(String query, Long clientId, Long doctorId, int limit);
+}
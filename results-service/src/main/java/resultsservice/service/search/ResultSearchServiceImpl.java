@@ -0,0 +1,156 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.search;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import resultsservice.data.ResultTermRepository;
+import resultsservice.data.ResultsRepository;
+import resultsservice.data.TermMatch;
+import resultsservice.service.exception.RemoteResourceException;
+import resultsservice.service.result.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ResultSearchServiceImpl implements ResultSearchService {
+    private static final int MAX_TERMS_PER_RESULT = 1000;
+    private static final int MAX_QUERY_TERMS = 10;
+    private static final int SNIPPET_CONTEXT = 60;
+
+    private final ResultTermRepository termRepository;
+    private final ResultsRepository resultsRepository;
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public ResultSearchServiceImpl(ResultTermRepository termRepository,
+                                   ResultsRepository resultsRepository,
+                                   CircuitBreaker circuitBreaker) {
+        this.termRepository = termRepository;
+        this.resultsRepository = resultsRepository;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void index(List<Result> results) {
+        try {
+            List<ResultTerm> terms = new ArrayList<>();
+            results.forEach(result -> terms.addAll(termsOf(result)));
+            if (!terms.isEmpty()) {
+                Runnable insertAll = () -> termRepository.insertAll(terms);
+                circuitBreaker.decorateRunnable(insertAll).run();
+            }
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    private List<ResultTerm> termsOf(Result result) {
+        if (result.getData() == null) {
+            return List.of();
+        }
+
+        return Terms.frequencies(result.getData(), MAX_TERMS_PER_RESULT).entrySet().stream()
+                .map(term -> ResultTerm.builder()
+                        .withResultId(result.getId())
+                        .withClientId(result.getClient().getId())
+                        .withDoctorId(result.getDoctor().getId())
+                        .withTerm(term.getKey())
+                        .withFrequency(term.getValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void reindex(Result result) {
+        deleteAllByResultId(result.getId());
+        index(List.of(result));
+    }
+
+    @Override
+    public void deleteAllByResultId(long resultId) {
+        try {
+            Runnable deleteAll = () -> termRepository.deleteAllByResultId(resultId);
+            circuitBreaker.decorateRunnable(deleteAll).run();
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchHit> search(String query, Long clientId, Long doctorId, int limit) {
+        List<String> terms = Terms.of(query, MAX_QUERY_TERMS);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            Supplier<List<TermMatch>> findMatches = () -> termRepository.findMatches(terms, clientId, doctorId, limit);
+            List<TermMatch> matches = circuitBreaker.decorateSupplier(findMatches).get();
+
+            // Payloads are read for the returned hits only, to cut snippets out of them
+            List<Long> ids = matches.stream().map(TermMatch::getResultId).collect(Collectors.toList());
+            Supplier<List<Result>> findAll = () -> resultsRepository.findAllById(ids);
+            Map<Long, Result> results = circuitBreaker.decorateSupplier(findAll).get().stream()
+                    .collect(Collectors.toMap(Result::getId, Function.identity()));
+
+            List<SearchHit> hits = new ArrayList<>();
+            for (TermMatch match : matches) {
+                Result result = results.get(match.getResultId());
+                if (result != null) {
+                    hits.add(new SearchHit(result.getId(), result.getClient().getId(), result.getDoctor().getId(),
+                            match.getMatchedTerms(), snippetOf(result.getData(), terms)));
+                }
+            }
+
+            return hits;
+        } catch (Exception e) {
+            throw new RemoteResourceException("Result database unavailable", e);
+        }
+    }
+
+    private String snippetOf(String data, List<String> terms) {
+        String lowered = data.toLowerCase(Locale.ROOT);
+        int position = -1;
+        int length = 0;
+        for (String term : terms) {
+            int found = lowered.indexOf(term);
+            if (found >= 0 && (position < 0 || found < position)) {
+                position = found;
+                length = term.length();
+            }
+        }
+
+        position = Math.min(Math.max(position, 0), data.length());
+        int from = Math.max(0, position - SNIPPET_CONTEXT);
+        int to = Math.min(data.length(), position + length + SNIPPET_CONTEXT);
+        String snippet = data.substring(from, to).replaceAll("\\s+", " ").trim();
+        return ((from > 0) ? "..." : "") + snippet + ((to < data.length()) ? "..." : "");
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.search;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * ResultTerm domain class. An entry of the inverted index of result payloads:
+ * a term occurring in the payload of a result and the number of its occurrences.
+ * Owners of the result are stored on every entry, so searches scoped to a client
+ * or a doctor read only the entries of that client or doctor.
+ */
+@Entity
+@Table(name = "result_term", indexes = {
+        @Index(name = "idx_result_term_client_term", columnList = "client_id, term"),
+        @Index(name = "idx_result_term_doctor_term", columnList = "doctor_id, term"),
+        @Index(name = "idx_result_term_term", columnList = "term"),
+        @Index(name = "idx_result_term_result", columnList = "result_id")
+})
+public class ResultTerm implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "result_id", nullable = false)
+    private Long resultId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false, length = 64)
+    private String term;
+
+    @Column(nullable = false)
+    private int frequency;
+
+    /**
+     * @return ResultTerm builder
+     */
+    public static Builder builder() {
+        return new ResultTerm().new Builder();
+    }
+
+    public ResultTerm() {
+    }
+
+    /**
+     * Constructs a new ResultTerm copying data from the passed one.
+     *
+     * @param other term to copy data from
+     */
+    public ResultTerm(ResultTerm other) {
+        id = other.id;
+        resultId = other.resultId;
+        clientId = other.clientId;
+        doctorId = other.doctorId;
+        term = other.term;
+        frequency = other.frequency;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getResultId() {
+        return resultId;
+    }
+
+    public void setResultId(Long resultId) {
+        this.resultId = resultId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public void setTerm(String term) {
+        this.term = term;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(int frequency) {
+        this.frequency = frequency;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        ResultTerm resultTerm = (ResultTerm) other;
+        return frequency == resultTerm.frequency
+                && Objects.equals(resultId, resultTerm.resultId)
+                && Objects.equals(clientId, resultTerm.clientId)
+                && Objects.equals(doctorId, resultTerm.doctorId)
+                && Objects.equals(term, resultTerm.term);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(resultId, clientId, doctorId, term, frequency);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "{" +
+                "id=" + id +
+                ", resultId=" + resultId +
+                ", clientId=" + clientId +
+                ", doctorId=" + doctorId +
+                ", term='" + term + '\'' +
+                ", frequency=" + frequency +
+                '}';
+    }
+
+    /**
+     * ResultTerm object builder.
+     */
+    public class Builder {
+
+        private Builder() {
+        }
+
+        public ResultTerm build() {
+            return ResultTerm.this;
+        }
+
+        public Builder withId(Long id) {
+            ResultTerm.this.id = id;
+            return this;
+        }
+
+        public Builder withResultId(Long resultId) {
+            ResultTerm.this.resultId = resultId;
+            return this;
+        }
+
+        public Builder withClientId(Long clientId) {
+            ResultTerm.this.clientId = clientId;
+            return this;
+        }
+
+        public Builder withDoctorId(Long doctorId) {
+            ResultTerm.this.doctorId = doctorId;
+            return this;
+        }
+
+        public Builder withTerm(String term) {
+            ResultTerm.this.term = term;
+            return this;
+        }
+
+        public Builder withFrequency(int frequency) {
+            ResultTerm.this.frequency = frequency;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.search;
+
+/**
+ * A result found by a search with a fragment of its payload around the first match.
+ */
+public class SearchHit {
+    private final long resultId;
+    private final long clientId;
+    private final long doctorId;
+    private final long matchedTerms;
+    private final String snippet;
+
+    public SearchHit(long resultId, long clientId, long doctorId, long matchedTerms, String snippet) {
+        this.resultId = resultId;
+        this.clientId = clientId;
+        this.doctorId = doctorId;
+        this.matchedTerms = matchedTerms;
+        this.snippet = snippet;
+    }
+
+    public long getResultId() {
+        return resultId;
+    }
+
+    public long getClientId() {
+        return clientId;
+    }
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public long getMatchedTerms() {
+        return matchedTerms;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Splits text into terms. A term is a run of letters and digits in lower case,
+ * so "HbA1c" and "hba1c" are the same term. Single characters and runs longer than
+ * the term column are not terms.
+ */
+public final class Terms {
+    public static final int MIN_LENGTH = 2;
+    public static final int MAX_LENGTH = 64;
+
+    private Terms() {
+    }
+
+    /**
+     * Counts occurrences of terms of the specified text. Only the most frequent terms are kept,
+     * so a large payload cannot make the index grow without bounds.
+     *
+     * @param text text to split
+     * @param limit maximum number of terms to keep
+     *
+     * @return frequencies of terms of the text
+     */
+    public static Map<String, Integer> frequencies(String text, int limit) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        forEachTerm(text, term -> frequencies.merge(term, 1, Integer::sum));
+        if (frequencies.size() <= limit) {
+            return frequencies;
+        }
+
+        return frequencies.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Returns distinct terms of the specified search query in order of appearance.
+     *
+     * @param query search query
+     * @param limit maximum number of terms to return
+     *
+     * @return distinct terms of the query
+     */
+    public static List<String> of(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>();
+        forEachTerm(query, terms::add);
+        return new ArrayList<>(terms).subList(0, Math.min(limit, terms.size()));
+    }
+
+    private static void forEachTerm(String text, Consumer<String> action) {
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = (i < text.length()) ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+                continue;
+            }
+
+            if (term.length() == 0) {
+                continue;
+            }
+
+            String lowered = term.toString().toLowerCase(Locale.ROOT);
+            if (lowered.length() >= MIN_LENGTH && lowered.length() <= MAX_LENGTH) {
+                action.accept(lowered);
+            }
+
+            term.setLength(0);
+        }
+    }
+}
@@ -21,24 +21,24 @@ import org.springframework.boot.actuate.info.Info;
 import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.stereotype.Component;
 
-import resultsservice.service.result.ResultService;
+import resultsservice.service.counter.RowCounters;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Component
 public class ActuatorInfoContributor implements InfoContributor {
-    private final ResultService resultService;
+    private final RowCounters rowCounters;
 
     @Autowired
-    public ActuatorInfoContributor(ResultService resultService) {
-        this.resultService = resultService;
+    public ActuatorInfoContributor(RowCounters rowCounters) {
+        this.rowCounters = rowCounters;
     }
 
     @Override
     public void contribute(Info.Builder builder) {
         Map<String, Object> details = new HashMap<>();
-        details.put("The number of results: ", resultService.count());
+        details.put("The number of results: ", rowCounters.get(RowCounters.RESULTS));
 
         builder.withDetails(details);
     }
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.web.attachment;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import resultsservice.service.attachment.Attachment;
+import resultsservice.service.attachment.AttachmentService;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+@RestController
+@RequestMapping(path = "/results/{resultId}/attachments", produces = "application/json")
+@CrossOrigin(origins = "*")
+public class AttachmentController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this size sendfile setup costs more than copying
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private final AttachmentService attachmentService;
+    private final AttachmentModelAssembler modelAssembler;
+
+    @Autowired
+    public AttachmentController(AttachmentService attachmentService,
+                                AttachmentModelAssembler modelAssembler) {
+        this.attachmentService = attachmentService;
+        this.modelAssembler = modelAssembler;
+    }
+
+    @GetMapping
+    @PreAuthorize("@resultAccessHandler.canGetData(#resultId)")
+    public CollectionModel<EntityModel<Attachment>> getAll(@PathVariable Long resultId) {
+        List<Attachment> attachments = attachmentService.findAllByResultId(resultId);
+        CollectionModel<EntityModel<Attachment>> collectionModel = modelAssembler.toCollectionModel(attachments);
+        collectionModel.add(linkTo(AttachmentController.class, resultId).withSelfRel());
+        return collectionModel;
+    }
+
+    @GetMapping(path = "/{id}", produces = MediaType.ALL_VALUE)
+    @PreAuthorize("@resultAccessHandler.canGetData(#resultId)")
+    public void download(@PathVariable Long resultId,
+                         @PathVariable Long id,
+                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                         @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Attachment attachment = attachmentService.findById(resultId, id)
+                .orElseThrow(() -> new NoSuchElementException("Attachment not found: " + id));
+        Path file = attachmentService.pathOf(attachment);
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchElementException("Attachment content not found: " + id);
+        }
+
+        String etag = "\"" + attachment.getSha256() + "\"";
+        long length = Files.size(file);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.getFileName() != null ? attachment.getFileName() : attachment.getSha256(),
+                        StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setContentType(attachment.getContentType());
+
+        long start = 0;
+        long end = length - 1;
+        List<HttpRange> ranges = parseRanges(range, ifRange, etag);
+
+        // Multipart responses are not supported, several ranges get the whole content
+        if (ranges.size() == 1) {
+            HttpRange requested = ranges.get(0);
+            try {
+                start = requested.getRangeStart(length);
+                end = requested.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                start = length;
+            }
+
+            if (start >= length || start > end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The connector writes the file straight from the page cache to the socket
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        transfer(file, start, count, response);
+    }
+
+    private List<HttpRange> parseRanges(String range, String ifRange, String etag) {
+        // A range of content that has changed since the client cached it is useless
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            return List.of();
+        }
+
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            // Malformed ranges are ignored and the whole content is sent
+            return List.of();
+        }
+    }
+
+    private void transfer(Path file, long start, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    @PostMapping(consumes = MediaType.ALL_VALUE)
+    @PreAuthorize("@resultAccessHandler.canPatch(#resultId)")
+    public ResponseEntity<EntityModel<Attachment>> upload(
+            @PathVariable Long resultId,
+            @RequestParam(required = false) String name,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        String type = (contentType != null) ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        try (InputStream content = request.getInputStream()) {
+            Attachment saved = attachmentService.save(resultId, name, type, content);
+            EntityModel<Attachment> model = modelAssembler.toModel(saved);
+            return ResponseEntity.created(linkTo(AttachmentController.class, resultId).slash(saved.getId()).toUri())
+                    .body(model);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PreAuthorize("@resultAccessHandler.canPatch(#resultId)")
+    public void deleteById(@PathVariable Long resultId, @PathVariable Long id) {
+        attachmentService.deleteById(resultId, id);
+    }
+}
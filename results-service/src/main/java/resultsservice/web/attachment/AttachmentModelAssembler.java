@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.web.attachment;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import resultsservice.service.attachment.Attachment;
+import resultsservice.web.result.ResultController;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Converts an Attachment domain class into a RepresentationModel.
+ */
+@Component
+public class AttachmentModelAssembler implements RepresentationModelAssembler<Attachment, EntityModel<Attachment>> {
+
+    @Override
+    public EntityModel<Attachment> toModel(Attachment entity) {
+        return EntityModel.of(entity,
+                linkTo(AttachmentController.class, entity.getResultId()).slash(entity.getId()).withSelfRel(),
+                linkTo(methodOn(ResultController.class).getById(entity.getResultId(), null, null)).withRel("result"),
+                linkTo(AttachmentController.class, entity.getResultId()).withRel("all"));
+    }
+}
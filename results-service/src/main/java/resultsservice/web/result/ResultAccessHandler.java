@@ -21,13 +21,16 @@ import org.apache.logging.log4j.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import resultsservice.data.ResultOwners;
 import resultsservice.service.result.Result;
 import resultsservice.service.result.ResultService;
+import resultsservice.web.CallerIdResolver;
 
 import java.util.Collection;
 import java.util.Optional;
@@ -39,10 +42,12 @@ import java.util.Optional;
 public class ResultAccessHandler {
     private static final Logger logger = LogManager.getLogger(ResultAccessHandler.class);
     private final ResultService resultService;
+    private final CallerIdResolver callerIdResolver;
 
     @Autowired
-    public ResultAccessHandler(ResultService resultService) {
+    public ResultAccessHandler(ResultService resultService, CallerIdResolver callerIdResolver) {
         this.resultService = resultService;
+        this.callerIdResolver = callerIdResolver;
     }
 
     /**
@@ -110,27 +115,177 @@ public class ResultAccessHandler {
         return canGet(result);
     }
 
+    /**
+     * Decides whether the current user can access the result with the specified ID
+     * without loading the result. Ownership is resolved from IDs stored locally,
+     * so no remote calls are made.
+     *
+     * @param resultId ID of the result being accessed
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetById(long resultId) {
+        return isOwnerOrManager(resultId);
+    }
+
     /**
      * Decides whether the current user can patch the result with the specified ID.
+     * Ownership is resolved from IDs stored locally, so no remote calls are made.
      *
      * @param resultId ID if the result being patched
      *
      * @return true if access is available, false otherwise
      */
     public boolean canPatch(long resultId) {
+        return isOwnerOrManager(resultId);
+    }
+
+    private boolean isOwnerOrManager(long resultId) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (!authentication.isAuthenticated()) {
+                return false;
+            }
+
+            Optional<ResultOwners> owners = resultService.findOwnersById(resultId);
+            if (owners.isEmpty()) {
+                return false;
+            }
+
+            if (hasRole(authentication, "USER")) {
+                return isCaller(authentication, owners.get().getClientId());
+            }
+
+            if (hasRole(authentication, "DOCTOR")) {
+                return isCaller(authentication, owners.get().getDoctorId());
+            }
+
+            return hasRole(authentication, "TOP_MANAGER");
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isCaller(Authentication authentication, Long ownerId) {
+        return callerIdResolver.resolve(authentication)
+                .map(callerId -> callerId.equals(ownerId))
+                .orElse(false);
+    }
+
+    /**
+     * Decides whether the current user can get trends of the client with the specified ID.
+     * Clients get their own trends only. Doctors get trends built from their own results,
+     * so their IDs must be resolvable.
+     *
+     * @param clientId ID of the client
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetTrend(long clientId) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (!authentication.isAuthenticated()) {
+                return false;
+            }
+
+            if (hasRole(authentication, "USER")) {
+                return isCaller(authentication, clientId);
+            }
+
+            if (hasRole(authentication, "DOCTOR")) {
+                return callerIdResolver.resolve(authentication).isPresent();
+            }
+
+            return hasRole(authentication, "TOP_MANAGER");
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Decides whether the current user can search results of the client with the specified ID,
+     * or results of all clients if no ID is specified. Clients search their own results only.
+     * Doctors search results of their own, so their IDs must be resolvable.
+     *
+     * @param clientId ID of the client or null
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canSearch(Long clientId) {
         try {
-            Optional<Result> registration = resultService.findById(resultId);
-            if (registration.isEmpty()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (!authentication.isAuthenticated()) {
                 return false;
-            } else {
-                return canGet(registration.get());
             }
+
+            if (hasRole(authentication, "USER")) {
+                return callerIdResolver.resolve(authentication)
+                        .map(callerId -> clientId == null || callerId.equals(clientId))
+                        .orElse(false);
+            }
+
+            if (hasRole(authentication, "DOCTOR")) {
+                return callerIdResolver.resolve(authentication).isPresent();
+            }
+
+            return hasRole(authentication, "TOP_MANAGER");
         } catch (Exception e) {
             logger.error(e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Returns the ID of the current user if the user is a client,
+     * so queries of clients can be narrowed down to their own results.
+     *
+     * @return the client ID or Optional#empty() if the user is not a client
+     *
+     * @throws AccessDeniedException if the user is a client whose ID cannot be resolved
+     */
+    public Optional<Long> resolveClientScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!hasRole(authentication, "USER")) {
+            return Optional.empty();
+        }
+
+        Long clientId = callerIdResolver.resolve(authentication)
+                .orElseThrow(() -> new AccessDeniedException("Client ID cannot be resolved"));
+        return Optional.of(clientId);
+    }
+
+    /**
+     * Returns the ID of the current user if the user is a doctor,
+     * so queries of doctors can be narrowed down to their own results.
+     *
+     * @return the doctor ID or Optional#empty() if the user is not a doctor
+     *
+     * @throws AccessDeniedException if the user is a doctor whose ID cannot be resolved
+     */
+    public Optional<Long> resolveDoctorScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!hasRole(authentication, "DOCTOR")) {
+            return Optional.empty();
+        }
+
+        Long doctorId = callerIdResolver.resolve(authentication)
+                .orElseThrow(() -> new AccessDeniedException("Doctor ID cannot be resolved"));
+        return Optional.of(doctorId);
+    }
+
+    /**
+     * Decides whether the current user can get the payload of the result with the specified ID.
+     *
+     * @param resultId ID if the result whose payload is requested
+     *
+     * @return true if access is available, false otherwise
+     */
+    public boolean canGetData(long resultId) {
+        return canPatch(resultId);
+    }
+
     /**
      * Decides whether the current user can delete the result with the specified ID.
      *
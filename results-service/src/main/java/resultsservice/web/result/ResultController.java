@@ -16,10 +16,19 @@
 
 package resultsservice.web.result;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -32,46 +41,141 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import resultsservice.service.importing.CsvResultReader;
+import resultsservice.service.importing.ImportReport;
+import resultsservice.service.importing.NdjsonResultReader;
+import resultsservice.service.importing.ResultImportService;
+import resultsservice.service.importing.ResultReader;
+import resultsservice.service.measurement.MeasurementService;
+import resultsservice.service.measurement.Trend;
+import resultsservice.service.search.ResultSearchService;
+import resultsservice.service.search.SearchHit;
 import resultsservice.service.result.Result;
 import resultsservice.service.result.ResultService;
+import resultsservice.web.ETags;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @RestController
 @RequestMapping(path = "/results", produces = "application/json")
 @CrossOrigin(origins = "*")
 public class ResultController {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final int DEFAULT_TREND_BUCKETS = 100;
+    private static final int MAX_TREND_BUCKETS = 1000;
+    private static final int DEFAULT_SEARCH_HITS = 20;
+    private static final int MAX_SEARCH_HITS = 100;
+
     private final ResultService resultService;
+    private final ResultImportService importService;
+    private final MeasurementService measurementService;
+    private final ResultSearchService searchService;
     private final ResultModelAssembler modelAssembler;
+    private final ResultAccessHandler accessHandler;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     public ResultController(ResultService resultService,
-                            ResultModelAssembler modelAssembler) {
+                            ResultImportService importService,
+                            MeasurementService measurementService,
+                            ResultSearchService searchService,
+                            ResultModelAssembler modelAssembler,
+                            ResultAccessHandler accessHandler,
+                            ObjectMapper objectMapper) {
         this.resultService = resultService;
+        this.importService = importService;
+        this.measurementService = measurementService;
+        this.searchService = searchService;
         this.modelAssembler = modelAssembler;
+        this.accessHandler = accessHandler;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
     @PreAuthorize("hasAuthority('TOP_MANAGER')")
-    public CollectionModel<EntityModel<Result>> getAll() {
-        List<Result> results = resultService.findAll();
-        return modelAssembler.toCollectionModel(results);
+    public CollectionModel<EntityModel<Result>> getAll(@RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) Boolean hydrate) {
+        int limit = limit(size);
+        Slice<Result> page = resultService.findAll(cursor(after), limit);
+        hydrate(page.getContent(), hydrate);
+        CollectionModel<EntityModel<Result>> model = modelAssembler.toCollectionModel(page);
+        if (page.hasNext()) {
+            model.add(linkTo(methodOn(ResultController.class).getAll(lastId(page), limit, hydrate))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+
+        return model;
+    }
+
+    // Stored doctor and client data is returned unless live data is requested explicitly
+    private void hydrate(List<Result> results, Boolean hydrate) {
+        if (Boolean.TRUE.equals(hydrate)) {
+            resultService.hydrate(results);
+        }
+    }
+
+    private long cursor(Long after) {
+        return (after == null) ? 0 : after;
+    }
+
+    private int limit(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private long lastId(Slice<Result> page) {
+        List<Result> content = page.getContent();
+        return content.get(content.size() - 1).getId();
     }
 
     @GetMapping(params = "clientId")
     @PostAuthorize("@resultAccessHandler.canGetAnyByClientId(returnObject.content)")
-    public CollectionModel<EntityModel<Result>> getAllByClientId(Long clientId) {
-        List<Result> results = resultService.findAllByClientId(clientId);
+    public CollectionModel<EntityModel<Result>> getAllByClientId(@RequestParam Long clientId,
+                                                                @RequestParam(required = false) Long after,
+                                                                @RequestParam(required = false) Integer size,
+                                                                @RequestParam(required = false) Boolean hydrate) {
+        int limit = limit(size);
+        Slice<Result> page = resultService.findAllByClientId(clientId, cursor(after), limit);
+        hydrate(page.getContent(), hydrate);
+        List<Result> results = new ArrayList<>(page.getContent());
         filter(results);
-        return modelAssembler.toCollectionModel(results);
+
+        CollectionModel<EntityModel<Result>> model = modelAssembler.toCollectionModel(results);
+        if (page.hasNext()) {
+            model.add(linkTo(methodOn(ResultController.class)
+                    .getAllByClientId(clientId, lastId(page), limit, hydrate))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+
+        return model;
     }
 
     // Cannot use @PostFilter on CollectionModel :(
@@ -100,12 +204,121 @@ public class ResultController {
         return authentication.getName().equals(email);
     }
 
+    @GetMapping("/trends")
+    @PreAuthorize("@resultAccessHandler.canGetTrend(#clientId)")
+    public Trend getTrend(@RequestParam Long clientId,
+                          @RequestParam String analyte,
+                          @RequestParam(required = false) String unit,
+                          @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                          @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+                          @RequestParam(required = false) Integer buckets) {
+        // Doctors see measurements of their own results only
+        Long doctorId = accessHandler.resolveDoctorScope().orElse(null);
+        return measurementService.findTrend(clientId, doctorId, analyte, unit, from, to, bucketCount(buckets));
+    }
+
+    private int bucketCount(Integer buckets) {
+        if (buckets == null) {
+            return DEFAULT_TREND_BUCKETS;
+        }
+
+        return Math.max(1, Math.min(buckets, MAX_TREND_BUCKETS));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("@resultAccessHandler.canSearch(#clientId)")
+    public List<SearchHit> search(@RequestParam String q,
+                                  @RequestParam(required = false) Long clientId,
+                                  @RequestParam(required = false) Integer size) {
+        // Scopes are applied by the index query, so hits of other owners are never read
+        Long clientScope = accessHandler.resolveClientScope().orElse(clientId);
+        Long doctorScope = accessHandler.resolveDoctorScope().orElse(null);
+        return searchService.search(q, clientScope, doctorScope, hitLimit(size));
+    }
+
+    private int hitLimit(Integer size) {
+        if (size == null) {
+            return DEFAULT_SEARCH_HITS;
+        }
+
+        return Math.max(1, Math.min(size, MAX_SEARCH_HITS));
+    }
+
     @GetMapping("/{id}")
-    @PostAuthorize("@resultAccessHandler.canGet(returnObject.content)")
-    public EntityModel<Result> getById(@PathVariable Long id) {
+    @PostAuthorize("returnObject == null or @resultAccessHandler.canGet(returnObject.body.content)")
+    public ResponseEntity<EntityModel<Result>> getById(@PathVariable Long id,
+                                                       @RequestParam(required = false) Boolean hydrate,
+                                                       WebRequest request) {
+        // Hydrated representations carry remote data the version does not cover, so they are not tagged
+        if (Boolean.TRUE.equals(hydrate)) {
+            Result result = resultService.findById(id)
+                    .orElseThrow(() -> new NoSuchElementException("Result not found: " + id));
+            hydrate(List.of(result), hydrate);
+            return ResponseEntity.ok(modelAssembler.toModel(result));
+        }
+
+        // Nothing is returned only if the result is not modified and the caller may read it.
+        // Version and access are checked for conditional requests only, other requests are authorized after loading
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && accessHandler.canGetById(id)) {
+            Optional<Long> version = resultService.findVersionById(id);
+            if (version.isPresent() && request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
+
         Result result = resultService.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Result not found: " + id));
-        return modelAssembler.toModel(result);
+        if (!result.getUnresolved().isEmpty()) {
+            // A result with parts not loaded in time must not be revalidated later
+            return ResponseEntity.ok(modelAssembler.toModel(result));
+        }
+
+        return ResponseEntity.ok()
+                .eTag(ETags.of(result.getVersion()))
+                .body(modelAssembler.toModel(result));
+    }
+
+    @GetMapping(path = "/{id}/data", produces = MediaType.TEXT_PLAIN_VALUE)
+    @PreAuthorize("@resultAccessHandler.canGetData(#id)")
+    public ResponseEntity<StreamingResponseBody> getData(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+        boolean gzipAccepted = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = outputStream -> {
+            // Headers are not committed until the payload is written
+            boolean found = resultService.writeData(id, gzipAccepted, gzipped -> {
+                if (gzipped) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+
+                return outputStream;
+            });
+
+            if (!found) {
+                throw new NoSuchElementException("Result not found: " + id);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .body(body);
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+
+        return false;
     }
 
     @PostMapping(consumes = "application/json")
@@ -116,6 +329,17 @@ public class ResultController {
         return modelAssembler.toModel(saved);
     }
 
+    // The body is parsed while it is being received, so the input is never held in memory as a whole
+    @PostMapping(path = "/import", consumes = { NDJSON, CSV })
+    @PreAuthorize("hasAuthority('TOP_MANAGER')")
+    public ImportReport importAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                  InputStream body) {
+        ResultReader reader = contentType.isCompatibleWith(MediaType.valueOf(CSV))
+                ? new CsvResultReader(body)
+                : new NdjsonResultReader(body, objectMapper);
+        return importService.importAll(reader);
+    }
+
     @PatchMapping(path = "/{id}", consumes = "application/json")
     @PreAuthorize("@resultAccessHandler.canPatch(#id)")
     public EntityModel<Result> patchById(@PathVariable Long id,
@@ -24,6 +24,7 @@ import org.springframework.hateoas.server.mvc.BasicLinkBuilder;
 import org.springframework.stereotype.Component;
 
 import resultsservice.service.result.Result;
+import resultsservice.web.attachment.AttachmentController;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -50,8 +51,10 @@ public class ResultModelAssembler implements RepresentationModelAssembler<Result
                 .withRel("client");
 
         EntityModel<Result> entityModel = EntityModel.of(entity, dutyLink, doctorLink, clientLink);
-        entityModel.add(linkTo(methodOn(ResultController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(ResultController.class).getAll()).withRel("all"));
+        entityModel.add(linkTo(methodOn(ResultController.class).getById(entity.getId(), null, null)).withSelfRel(),
+                linkTo(ResultController.class).slash(entity.getId()).slash("data").withRel("data"),
+                linkTo(AttachmentController.class, entity.getId()).withRel("attachments"),
+                linkTo(methodOn(ResultController.class).getAll(null, null, null)).withRel("all"));
         return entityModel;
     }
 
@@ -59,7 +62,7 @@ public class ResultModelAssembler implements RepresentationModelAssembler<Result
     public CollectionModel<EntityModel<Result>> toCollectionModel(Iterable<? extends Result> entities) {
         CollectionModel<EntityModel<Result>> collectionModel =
                 RepresentationModelAssembler.super.toCollectionModel(entities);
-        collectionModel.add(linkTo(methodOn(ResultController.class).getAll()).withSelfRel());
+        collectionModel.add(linkTo(methodOn(ResultController.class).getAll(null, null, null)).withSelfRel());
         return collectionModel;
     }
 }
@@ -18,24 +18,37 @@ package resultsservice.config;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import resultsservice.config.properties.RemoteCallProperties;
 import resultsservice.data.ResultsRepository;
+import resultsservice.service.counter.RowCounters;
 import resultsservice.service.external.client.Client;
 import resultsservice.service.external.client.ClientServiceFeignClient;
 import resultsservice.service.external.employee.EmployeeServiceFeignClient;
 import resultsservice.service.external.employee.Doctor;
 import resultsservice.service.external.registration.Duty;
 import resultsservice.service.external.registration.RegistrationServiceFeignClient;
+import resultsservice.service.importing.ResultImportService;
+import resultsservice.service.importing.ResultImportServiceImpl;
+import resultsservice.service.measurement.MeasurementService;
+import resultsservice.service.result.OwnerSnapshotRefresher;
 import resultsservice.service.result.ResultService;
 import resultsservice.service.result.ResultServiceImpl;
+import resultsservice.service.search.ResultSearchService;
+import resultsservice.web.CallerIdResolver;
 
 import javax.validation.Validator;
 
 import java.math.BigDecimal;
+import java.util.concurrent.Executor;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -52,12 +65,55 @@ public class IntegrationTestConfig {
     @Autowired
     private Validator validator;
 
+    @Autowired
+    @Qualifier("remoteCallExecutor")
+    private Executor remoteCallExecutor;
+
+    @Autowired
+    private RemoteCallProperties remoteCallProperties;
+
+    @Autowired
+    private OwnerSnapshotRefresher snapshotRefresher;
+
+    @Autowired
+    private RowCounters rowCounters;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeasurementService measurementService;
+
+    @Autowired
+    private ResultSearchService searchService;
+
     @Bean
     @Primary
     public ResultService resultService() {
         return new ResultServiceImpl(resultsRepository,
                 clientServiceFeignClient(), employeeServiceFeignClient(),
-                registrationServiceFeignClient(), validator, circuitBreaker);
+                registrationServiceFeignClient(), validator, circuitBreaker,
+                remoteCallExecutor, remoteCallProperties, snapshotRefresher, measurementService, searchService,
+                rowCounters, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public ResultImportService resultImportService() {
+        return new ResultImportServiceImpl(resultsRepository,
+                clientServiceFeignClient(), employeeServiceFeignClient(),
+                registrationServiceFeignClient(), validator, circuitBreaker,
+                remoteCallExecutor, remoteCallProperties, transactionManager, measurementService, searchService,
+                rowCounters);
+    }
+
+    @Bean
+    @Primary
+    public CallerIdResolver testCallerIdResolver() {
+        return new CallerIdResolver(employeeServiceFeignClient(), clientServiceFeignClient(), circuitBreaker);
     }
 
     @Bean
@@ -77,6 +133,8 @@ public class IntegrationTestConfig {
         ClientServiceFeignClient feignClient = mock(ClientServiceFeignClient.class);
         when(feignClient.findClientById(1L)).thenReturn((firstClient));
         when(feignClient.findClientById(2L)).thenReturn((secondClient));
+        when(feignClient.findClientByEmail("emma@gmail.com")).thenReturn(firstClient);
+        when(feignClient.findClientByEmail("jain@gmail.com")).thenReturn(secondClient);
 
         return feignClient;
     }
@@ -100,6 +158,8 @@ public class IntegrationTestConfig {
         EmployeeServiceFeignClient feignClient = mock(EmployeeServiceFeignClient.class);
         when(feignClient.findDoctorById(1L)).thenReturn((firstDoctor));
         when(feignClient.findDoctorById(2L)).thenReturn((secondDoctor));
+        when(feignClient.findDoctorByEmail("mark@gmail.com")).thenReturn(firstDoctor);
+        when(feignClient.findDoctorByEmail("robert@gmail.com")).thenReturn(secondDoctor);
 
         return feignClient;
     }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Measures storage size and encode/decode throughput of compressed result payloads.
+ * Payloads are synthetic lab reports and JSON panels of a few hundred KB.
+ */
+@Tag("category.PerformanceTest")
+public class CompressedTextBenchmarkTest {
+    private static final int THRESHOLD = 1024;
+    private static final int PAYLOAD_LINES = 4000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+
+    @Test
+    public void shouldStoreLabReportsInLessThanHalfOfTheirSize() {
+        benchmark("lab report", labReport());
+    }
+
+    @Test
+    public void shouldStoreJsonPanelsInLessThanHalfOfTheirSize() {
+        benchmark("JSON panel", jsonPanel());
+    }
+
+    private void benchmark(String name, String payload) {
+        String stored = CompressedText.compress(payload, THRESHOLD);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            CompressedText.decompress(CompressedText.compress(payload, THRESHOLD));
+        }
+
+        long compressNanos = 0;
+        long decompressNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            String encoded = CompressedText.compress(payload, THRESHOLD);
+            compressNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            CompressedText.decompress(encoded);
+            decompressNanos += System.nanoTime() - start;
+        }
+
+        double ratio = (double) stored.length() / payload.length();
+        System.out.printf("%s: %d chars stored as %d chars (%.1f%%)%n",
+                name, payload.length(), stored.length(), ratio * 100);
+        System.out.printf("compress: %.1f MB/s, decompress: %.1f MB/s%n",
+                throughput(payload, compressNanos), throughput(payload, decompressNanos));
+
+        assertThat(ratio, lessThan(0.5));
+    }
+
+    private double throughput(String payload, long nanos) {
+        double megabytes = (double) payload.length() * ITERATIONS / (1024 * 1024);
+        double seconds = (double) nanos / TimeUnit.SECONDS.toNanos(1);
+        return megabytes / seconds;
+    }
+
+    private String labReport() {
+        String[] tests = { "Hemoglobin", "Hematocrit", "Leukocytes", "Platelets", "Glucose", "Creatinine" };
+        Random random = new Random(42);
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < PAYLOAD_LINES; i++) {
+            String test = tests[random.nextInt(tests.length)];
+            report.append(test).append(": ")
+                    .append(String.format("%.2f", random.nextDouble() * 100))
+                    .append(" units (reference 10.00 - 90.00) ")
+                    .append(random.nextBoolean() ? "normal" : "abnormal")
+                    .append('\n');
+        }
+
+        return report.toString();
+    }
+
+    private String jsonPanel() {
+        Random random = new Random(42);
+        StringBuilder panel = new StringBuilder("[");
+        for (int i = 0; i < PAYLOAD_LINES; i++) {
+            if (i > 0) {
+                panel.append(',');
+            }
+
+            panel.append("{\"code\":\"LAB-").append(random.nextInt(500))
+                    .append("\",\"value\":").append(random.nextInt(10000) / 100.0)
+                    .append(",\"unit\":\"mmol/L\",\"flag\":\"")
+                    .append(random.nextBoolean() ? "N" : "H")
+                    .append("\"}");
+        }
+
+        return panel.append(']').toString();
+    }
+}
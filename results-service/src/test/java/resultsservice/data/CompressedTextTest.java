@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.data;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+@Tag("category.UnitTest")
+public class CompressedTextTest {
+    private static final int THRESHOLD = 64;
+    private static final String REPORT = "Hemoglobin: 13.5 g/dL (reference 12.0 - 15.5)\n".repeat(50);
+
+    @Test
+    public void shouldCompressTextNotShorterThanThreshold() {
+        String stored = CompressedText.compress(REPORT, THRESHOLD);
+
+        assertThat(CompressedText.isCompressed(stored), is(true));
+        assertThat(stored.length(), is(lessThan(REPORT.length())));
+        assertThat(CompressedText.decompress(stored), is(equalTo(REPORT)));
+    }
+
+    @Test
+    public void shouldStoreTextShorterThanThresholdAsIs() {
+        String stored = CompressedText.compress("Data1", THRESHOLD);
+        assertThat(stored, is(equalTo("Data1")));
+    }
+
+    @Test
+    public void shouldCompressShortTextStartingWithHeader() {
+        String text = CompressedText.HEADER + "Data1";
+        String stored = CompressedText.compress(text, THRESHOLD);
+
+        assertThat(CompressedText.isCompressed(stored), is(true));
+        assertThat(CompressedText.decompress(stored), is(equalTo(text)));
+    }
+
+    @Test
+    public void shouldReadLegacyTextThatOnlyLooksCompressed() {
+        String legacy = CompressedText.HEADER + " not really compressed";
+        assertThat(CompressedText.decompress(legacy), is(equalTo(legacy)));
+    }
+
+    @Test
+    public void shouldStreamGzipBytesOfStoredText() throws Exception {
+        String stored = CompressedText.compress(REPORT, THRESHOLD);
+        StringReader base64 = new StringReader(stored.substring(CompressedText.HEADER.length()));
+
+        try (InputStream text = new GZIPInputStream(CompressedText.gzipStream(base64))) {
+            assertThat(new String(text.readAllBytes(), StandardCharsets.UTF_8), is(equalTo(REPORT)));
+        }
+    }
+}
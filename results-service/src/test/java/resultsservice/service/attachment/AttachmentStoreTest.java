@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.attachment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import resultsservice.service.attachment.AttachmentStore.StoredFile;
+import resultsservice.service.exception.IllegalModificationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("category.UnitTest")
+public class AttachmentStoreTest {
+    private static final byte[] CONTENT = "X-ray".getBytes(StandardCharsets.UTF_8);
+    private static final String CONTENT_SHA256 = "e0ab46db3d8eaf9cf55b401f4951549a4c99942bfcbf8364f10f88ed53182de2";
+
+    @TempDir
+    Path root;
+
+    private AttachmentStore store;
+
+    @BeforeEach
+    public void createStore() {
+        store = new AttachmentStore(root);
+    }
+
+    @Test
+    public void shouldStoreContentUnderItsHash() throws Exception {
+        StoredFile stored = store.write(new ByteArrayInputStream(CONTENT), 1024);
+
+        Path file = store.pathOf(stored.getSha256());
+        assertThat(stored.getSha256(), is(equalTo(CONTENT_SHA256)));
+        assertThat(stored.getSize(), is(equalTo((long) CONTENT.length)));
+        assertThat(Files.readAllBytes(file), is(equalTo(CONTENT)));
+        assertThat(file.getFileName().toString(), is(equalTo(stored.getSha256())));
+    }
+
+    @Test
+    public void shouldStoreSameContentOnce() throws Exception {
+        StoredFile first = store.write(new ByteArrayInputStream(CONTENT), 1024);
+        StoredFile second = store.write(new ByteArrayInputStream(CONTENT), 1024);
+
+        assertThat(second.getSha256(), is(equalTo(first.getSha256())));
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count(), is(equalTo(1L)));
+        }
+    }
+
+    @Test
+    public void shouldRejectContentExceedingMaxSize() throws Exception {
+        assertThrows(IllegalModificationException.class,
+                () -> store.write(new ByteArrayInputStream(CONTENT), CONTENT.length - 1));
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count(), is(equalTo(0L)));
+        }
+    }
+
+    @Test
+    public void shouldFindOnlyFilesModifiedBeforeInstant() throws Exception {
+        StoredFile stored = store.write(new ByteArrayInputStream(CONTENT), 1024);
+        Instant now = Instant.now();
+        assertThat(store.findAllModifiedBefore(now.minusSeconds(60)), is(empty()));
+
+        Files.setLastModifiedTime(store.pathOf(stored.getSha256()), FileTime.from(now.minusSeconds(120)));
+        assertThat(store.findAllModifiedBefore(now.minusSeconds(60)), contains(stored.getSha256()));
+    }
+
+    @Test
+    public void shouldDeleteAbandonedTemporaryFilesOnly() throws Exception {
+        Instant now = Instant.now();
+        Path abandoned = Files.write(root.resolve("tmp").resolve("upload1.part"), CONTENT);
+        Path active = Files.write(root.resolve("tmp").resolve("upload2.part"), CONTENT);
+        Files.setLastModifiedTime(abandoned, FileTime.from(now.minusSeconds(120)));
+
+        assertThat(store.findAllModifiedBefore(now.minusSeconds(60)), is(empty()));
+        assertThat(store.deleteAllTemporaryModifiedBefore(now.minusSeconds(60)), is(equalTo(1)));
+        assertThat(Files.exists(abandoned), is(false));
+        assertThat(Files.exists(active), is(true));
+    }
+
+    @Test
+    public void shouldDeleteFileModifiedBeforeInstant() throws Exception {
+        StoredFile stored = store.write(new ByteArrayInputStream(CONTENT), 1024);
+        Instant now = Instant.now();
+        Path file = store.pathOf(stored.getSha256());
+        Files.setLastModifiedTime(file, FileTime.from(now.minusSeconds(120)));
+
+        assertThat(store.deleteIfModifiedBefore(stored.getSha256(), now.minusSeconds(60)), is(true));
+        assertThat(Files.exists(file), is(false));
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count(), is(equalTo(0L)));
+        }
+    }
+
+    @Test
+    public void shouldKeepFileReusedBeforeDeletion() throws Exception {
+        StoredFile stored = store.write(new ByteArrayInputStream(CONTENT), 1024);
+        Instant now = Instant.now();
+        Path file = store.pathOf(stored.getSha256());
+        Files.setLastModifiedTime(file, FileTime.from(now.minusSeconds(120)));
+        store.write(new ByteArrayInputStream(CONTENT), 1024);
+
+        assertThat(store.deleteIfModifiedBefore(stored.getSha256(), now.minusSeconds(60)), is(false));
+        assertThat(Files.readAllBytes(file), is(equalTo(CONTENT)));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.importing;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import resultsservice.service.exception.IllegalModificationException;
+import resultsservice.service.result.Result;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("category.UnitTest")
+public class CsvResultReaderTest {
+
+    private CsvResultReader readerOf(String csv) {
+        return new CsvResultReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void shouldReadColumnsInAnyOrder() throws Exception {
+        CsvResultReader reader = readerOf("data,clientId,doctorId,dutyId\r\nBlood test,3,2,1\r\n");
+
+        ResultLine line = reader.next();
+        Result result = line.getResult();
+        assertThat(line.getNumber(), is(equalTo(2)));
+        assertThat(result.getData(), is(equalTo("Blood test")));
+        assertThat(result.getDuty().getId(), is(equalTo(1L)));
+        assertThat(result.getDoctor().getId(), is(equalTo(2L)));
+        assertThat(result.getClient().getId(), is(equalTo(3L)));
+        assertThat(reader.next(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReportRecordsUnderTheLineTheyStartOn() throws Exception {
+        CsvResultReader reader = readerOf("dutyId,doctorId,clientId,data\n" +
+                "1,1,1,\"First \"\"line\"\",\nsecond line\"\n" +
+                "\n" +
+                "1,1,\n");
+
+        ResultLine multiline = reader.next();
+        assertThat(multiline.getNumber(), is(equalTo(2)));
+        assertThat(multiline.getResult().getData(), is(equalTo("First \"line\",\nsecond line")));
+
+        ResultLine malformed = reader.next();
+        assertThat(malformed.getNumber(), is(equalTo(5)));
+        assertThat(malformed.getError(), is(equalTo("Expected 4 fields, found 3")));
+        assertThat(reader.next(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReportUnterminatedQuotedField() throws Exception {
+        CsvResultReader reader = readerOf("dutyId,doctorId,clientId,data\n1,1,1,\"Data\n");
+
+        ResultLine line = reader.next();
+        assertThat(line.isMalformed(), is(true));
+        assertThat(line.getError(), is(equalTo("Unterminated quoted field")));
+    }
+
+    @Test
+    public void shouldRejectHeaderWithoutMandatoryColumns() {
+        CsvResultReader reader = readerOf("dutyId,doctorId,data\n1,1,Data\n");
+        assertThrows(IllegalModificationException.class, reader::next);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.measurement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import resultsservice.service.external.client.Client;
+import resultsservice.service.external.employee.Doctor;
+import resultsservice.service.external.registration.Duty;
+import resultsservice.service.result.Result;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+
+@Tag("category.UnitTest")
+public class MeasurementParserTest {
+    private static final LocalDateTime SAVED_AT = LocalDateTime.of(2021, 3, 1, 12, 0);
+
+    private final MeasurementParser parser = new MeasurementParser(new ObjectMapper());
+
+    private Result resultWithData(String data) {
+        return Result.builder()
+                .withId(7L)
+                .withData(data)
+                .withDuty(Duty.builder().withId(1L).build())
+                .withClient(Client.builder().withId(2L).build())
+                .withDoctor(Doctor.builder().withId(3L).build())
+                .build();
+    }
+
+    @Test
+    public void shouldExtractMeasurementsFromStructuredPayload() {
+        String data = "{\"measurements\": [" +
+                "{\"analyte\": \" Glucose \", \"value\": 5.4, \"unit\": \"mmol/L\", " +
+                "\"takenAt\": \"2021-02-01T08:30:00\"}," +
+                "{\"analyte\": \"HbA1c\", \"value\": \"6.1\"}]}";
+
+        List<Measurement> measurements = parser.parse(resultWithData(data), SAVED_AT);
+
+        Measurement expectedGlucose = Measurement.builder()
+                .withResultId(7L)
+                .withClientId(2L)
+                .withDoctorId(3L)
+                .withAnalyte("glucose")
+                .withValue(5.4)
+                .withUnit("mmol/L")
+                .withTakenAt(LocalDateTime.of(2021, 2, 1, 8, 30))
+                .withRecordedAt(SAVED_AT)
+                .build();
+        assertThat(measurements, hasSize(2));
+        assertThat(measurements.get(0), is(equalTo(expectedGlucose)));
+        assertThat(measurements.get(1).getAnalyte(), is(equalTo("hba1c")));
+        assertThat(measurements.get(1).getValue(), is(equalTo(6.1)));
+        assertThat(measurements.get(1).getTakenAt(), is(equalTo(SAVED_AT)));
+    }
+
+    @Test
+    public void shouldSkipMeasurementsWithoutAnalyteOrNumericValue() {
+        String data = "[{\"value\": 1}, {\"analyte\": \"glucose\", \"value\": \"high\"}, " +
+                "{\"analyte\": \"glucose\", \"value\": 5, \"takenAt\": \"yesterday\"}, " +
+                "{\"analyte\": \"ldl\", \"value\": 2}]";
+
+        List<Measurement> measurements = parser.parse(resultWithData(data), SAVED_AT);
+
+        assertThat(measurements, hasSize(1));
+        assertThat(measurements.get(0).getAnalyte(), is(equalTo("ldl")));
+    }
+
+    @Test
+    public void shouldExtractNothingFromOpaquePayload() {
+        assertThat(parser.parse(resultWithData("Glucose: 5.4 mmol/L"), SAVED_AT), is(empty()));
+        assertThat(parser.parse(resultWithData("{not json"), SAVED_AT), is(empty()));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.measurement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import resultsservice.config.properties.ResultDataProperties;
+import resultsservice.data.MeasurementPoint;
+import resultsservice.data.MeasurementRepository;
+import resultsservice.service.external.client.Client;
+import resultsservice.service.external.employee.Doctor;
+import resultsservice.service.external.registration.Duty;
+import resultsservice.service.result.Result;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Tag("category.UnitTest")
+public class MeasurementServiceImplTest {
+    private static final LocalDateTime RECORDED_AT = LocalDateTime.of(2019, 5, 1, 9, 0);
+    private static final LocalDateTime FROM = LocalDateTime.of(2021, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2021, 2, 1, 0, 0);
+
+    private MeasurementRepository repository;
+    private MeasurementServiceImpl measurementService;
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(MeasurementRepository.class);
+        CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+        when(circuitBreaker.decorateSupplier(any())).then(returnsFirstArg());
+        when(circuitBreaker.decorateRunnable(any())).then(returnsFirstArg());
+
+        measurementService = new MeasurementServiceImpl(repository, new MeasurementParser(new ObjectMapper()),
+                circuitBreaker, new ResultDataProperties());
+    }
+
+    private Result resultWithData(String data) {
+        return Result.builder()
+                .withId(7L)
+                .withData(data)
+                .withDuty(Duty.builder().withId(1L).build())
+                .withClient(Client.builder().withId(2L).build())
+                .withDoctor(Doctor.builder().withId(3L).build())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldKeepRecordedTimeOnReplace() {
+        when(repository.findRecordedAtByResultId(7L)).thenReturn(Optional.of(RECORDED_AT));
+
+        measurementService.replaceMeasurements(resultWithData("[{\"analyte\": \"glucose\", \"value\": 5.4}]"));
+
+        ArgumentCaptor<List<Measurement>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).deleteAllByResultId(7L);
+        verify(repository).saveAll(saved.capture());
+        assertThat(saved.getValue(), hasSize(1));
+        assertThat(saved.getValue().get(0).getTakenAt(), is(equalTo(RECORDED_AT)));
+        assertThat(saved.getValue().get(0).getRecordedAt(), is(equalTo(RECORDED_AT)));
+    }
+
+    @Test
+    public void shouldBuildTrendFromMostFrequentUnitOnly() {
+        when(repository.streamPoints(2L, "glucose", FROM, TO)).thenReturn(Stream.of(
+                point(10, 5.0, "mmol/L"), point(11, 7.0, "mmol/L"), point(12, 120.0, "mg/dL")));
+
+        Trend trend = measurementService.findTrend(2L, null, "Glucose", null, FROM, TO, 1);
+
+        assertThat(trend.getUnit(), is(equalTo("mmol/L")));
+        assertThat(trend.getUnits(), contains("mg/dL", "mmol/L"));
+        assertThat(trend.getBuckets(), hasSize(1));
+        assertThat(trend.getBuckets().get(0).getCount(), is(equalTo(2L)));
+        assertThat(trend.getBuckets().get(0).getMax(), is(equalTo(7.0)));
+    }
+
+    @Test
+    public void shouldBuildTrendFromRequestedUnit() {
+        when(repository.streamPoints(2L, "glucose", FROM, TO)).thenReturn(Stream.of(
+                point(10, 5.0, "mmol/L"), point(11, 7.0, "mmol/L"), point(12, 120.0, "mg/dL")));
+
+        Trend trend = measurementService.findTrend(2L, null, "glucose", "mg/dL", FROM, TO, 1);
+
+        assertThat(trend.getUnit(), is(equalTo("mg/dL")));
+        assertThat(trend.getBuckets(), hasSize(1));
+        assertThat(trend.getBuckets().get(0).getCount(), is(equalTo(1L)));
+        assertThat(trend.getBuckets().get(0).getAverage(), is(equalTo(120.0)));
+    }
+
+    private MeasurementPoint point(int day, double value, String unit) {
+        return new MeasurementPoint() {
+            @Override
+            public LocalDateTime getTakenAt() {
+                return FROM.plusDays(day);
+            }
+
+            @Override
+            public double getNumericValue() {
+                return value;
+            }
+
+            @Override
+            public String getUnit() {
+                return unit;
+            }
+        };
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.result;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import resultsservice.config.properties.RemoteCallProperties;
+import resultsservice.data.ResultsRepository;
+import resultsservice.service.counter.RowCounters;
+import resultsservice.service.external.client.Client;
+import resultsservice.service.external.client.ClientServiceFeignClient;
+import resultsservice.service.external.employee.Doctor;
+import resultsservice.service.external.employee.EmployeeServiceFeignClient;
+import resultsservice.service.external.registration.Duty;
+import resultsservice.service.external.registration.RegistrationServiceFeignClient;
+import resultsservice.service.measurement.MeasurementService;
+import resultsservice.service.search.ResultSearchService;
+
+import javax.validation.Validator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares result hydration latency of GET /results?clientId= with sequential
+ * and concurrent remote lookups. Remote services are stubbed with a fixed delay.
+ */
+@Tag("category.PerformanceTest")
+public class ResultServiceImplBenchmarkTest {
+    private static final long REMOTE_DELAY_MILLIS = 5;
+    private static final int RESULTS_PER_CLIENT = 20;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 50;
+
+    private static ResultsRepository resultsRepository;
+    private static ClientServiceFeignClient clientService;
+    private static EmployeeServiceFeignClient employeeService;
+    private static RegistrationServiceFeignClient registrationService;
+    private static Validator validator;
+    private static CircuitBreaker circuitBreaker;
+    private static ThreadPoolTaskExecutor executor;
+
+    @BeforeAll
+    public static void setUpMocks() {
+        resultsRepository = mock(ResultsRepository.class);
+        when(resultsRepository.findAllByClientIdAndIdGreaterThan(anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> new SliceImpl<>(createResults()));
+
+        validator = mock(Validator.class);
+        circuitBreaker = mock(CircuitBreaker.class);
+        when(circuitBreaker.decorateSupplier(any())).then(returnsFirstArg());
+
+        clientService = mock(ClientServiceFeignClient.class);
+        when(clientService.findClientById(anyLong())).thenAnswer(invocation -> {
+            sleep();
+            return Client.builder().withId(invocation.getArgument(0)).build();
+        });
+
+        employeeService = mock(EmployeeServiceFeignClient.class);
+        when(employeeService.findDoctorById(anyLong())).thenAnswer(invocation -> {
+            sleep();
+            return Doctor.builder().withId(invocation.getArgument(0)).build();
+        });
+
+        registrationService = mock(RegistrationServiceFeignClient.class);
+        when(registrationService.findDutyById(anyLong())).thenAnswer(invocation -> {
+            sleep();
+            return Duty.builder().withId(invocation.getArgument(0)).build();
+        });
+    }
+
+    private static List<Result> createResults() {
+        return LongStream.rangeClosed(1, RESULTS_PER_CLIENT)
+                .mapToObj(id -> Result.builder()
+                        .withId(id)
+                        .withData("Data" + id)
+                        .withClient(Client.builder().withId(1L).build())
+                        .withDoctor(Doctor.builder().withId(id).build())
+                        .withDuty(Duty.builder().withId(id).build())
+                        .build())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static void sleep() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(REMOTE_DELAY_MILLIS);
+    }
+
+    @BeforeAll
+    public static void setUpExecutor() {
+        RemoteCallProperties properties = new RemoteCallProperties();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.initialize();
+    }
+
+    @AfterAll
+    public static void shutDownExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldLoadResultsFasterWhenRemoteCallsRunConcurrently() {
+        long[] sequential = measure(Runnable::run);
+        long[] concurrent = measure(executor);
+
+        System.out.printf("GET /results?clientId= with %d results, %d ms per remote call%n",
+                RESULTS_PER_CLIENT, REMOTE_DELAY_MILLIS);
+        System.out.printf("sequential: p50 %d ms, p99 %d ms%n",
+                percentile(sequential, 50), percentile(sequential, 99));
+        System.out.printf("concurrent: p50 %d ms, p99 %d ms%n",
+                percentile(concurrent, 50), percentile(concurrent, 99));
+
+        assertThat(percentile(concurrent, 50), lessThan(percentile(sequential, 50)));
+    }
+
+    private long[] measure(Executor executor) {
+        RemoteCallProperties properties = new RemoteCallProperties();
+        properties.setTimeout(Duration.ofMinutes(1));
+        ResultServiceImpl resultService = new ResultServiceImpl(resultsRepository, clientService,
+                employeeService, registrationService, validator, circuitBreaker, executor, properties,
+                mock(OwnerSnapshotRefresher.class), mock(MeasurementService.class), mock(ResultSearchService.class),
+                mock(RowCounters.class), new SimpleMeterRegistry());
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            resultService.findAllByClientId(1, 0, RESULTS_PER_CLIENT);
+        }
+
+        long[] latencies = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            resultService.findAllByClientId(1, 0, RESULTS_PER_CLIENT);
+            latencies[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -16,8 +16,13 @@
 
 package resultsservice.service.result;
 
+import feign.FeignException;
+
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -25,7 +30,13 @@ import org.junit.jupiter.api.Test;
 
 import org.mockito.Mockito;
 
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import resultsservice.config.properties.RemoteCallProperties;
 import resultsservice.data.ResultsRepository;
+import resultsservice.service.counter.RowCounters;
 import resultsservice.service.exception.IllegalModificationException;
 import resultsservice.service.external.client.Client;
 import resultsservice.service.external.client.ClientServiceFeignClient;
@@ -33,16 +44,26 @@ import resultsservice.service.external.employee.EmployeeServiceFeignClient;
 import resultsservice.service.external.employee.Doctor;
 import resultsservice.service.external.registration.Duty;
 import resultsservice.service.external.registration.RegistrationServiceFeignClient;
+import resultsservice.service.measurement.MeasurementService;
+import resultsservice.service.search.ResultSearchService;
 
 import javax.validation.Validator;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -50,6 +71,9 @@ import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Tag("category.UnitTest")
@@ -60,6 +84,7 @@ public class ResultServiceImplTest {
     private static ClientServiceFeignClient clientService;
     private static EmployeeServiceFeignClient employeeService;
     private static RegistrationServiceFeignClient registrationService;
+    private static OwnerSnapshotRefresher snapshotRefresher;
 
     private static Result result;
     private static Result updatedResult;
@@ -86,6 +111,8 @@ public class ResultServiceImplTest {
         registrationService = mock(RegistrationServiceFeignClient.class);
         Duty duty = Duty.builder().withId(1L).build();
         when(registrationService.findDutyById(any(Long.class))).thenReturn((duty));
+
+        snapshotRefresher = mock(OwnerSnapshotRefresher.class);
     }
 
     @BeforeAll
@@ -120,9 +147,11 @@ public class ResultServiceImplTest {
 
     @BeforeEach
     public void beforeEach() {
-        Mockito.reset(resultsRepository, validator);
+        Mockito.reset(resultsRepository, validator, snapshotRefresher);
         resultService = new ResultServiceImpl(resultsRepository, clientService, employeeService,
-                registrationService, validator, circuitBreaker);
+                registrationService, validator, circuitBreaker, Runnable::run, new RemoteCallProperties(),
+                snapshotRefresher, mock(MeasurementService.class), mock(ResultSearchService.class),
+                mock(RowCounters.class), new SimpleMeterRegistry());
     }
 
     @Test
@@ -136,7 +165,7 @@ public class ResultServiceImplTest {
     @Test
     public void shouldReturnListOfResultsWhenContainsMultipleResults() {
         List<Result> results = List.of(result, result, result);
-        when(resultsRepository.findAll()).thenReturn(results);
+        when(resultsRepository.findAllSummaries()).thenReturn(results);
 
         List<Result> saved = resultService.findAll();
         assertThat(saved, is(equalTo(results)));
@@ -151,6 +180,49 @@ public class ResultServiceImplTest {
         assertThat(saved, is(equalTo(results)));
     }
 
+    @Test
+    public void shouldMarkContentUnresolvedWhenRemoteServicesDoNotAnswerInTime() {
+        RemoteCallProperties properties = new RemoteCallProperties();
+        properties.setTimeout(Duration.ofMillis(10));
+        ResultServiceImpl stalledService = new ResultServiceImpl(resultsRepository, clientService,
+                employeeService, registrationService, validator, circuitBreaker, task -> { }, properties,
+                snapshotRefresher, mock(MeasurementService.class), mock(ResultSearchService.class),
+                mock(RowCounters.class), new SimpleMeterRegistry());
+
+        Result stalled = new Result(result);
+        when(resultsRepository.findAllByClientId(1)).thenReturn(List.of(stalled));
+
+        Result loaded = stalledService.findAllByClientId(1).get(0);
+        assertThat(loaded.getUnresolved(), is(equalTo(Set.of("duty", "doctor", "client"))));
+        assertThat(loaded.getDoctor().getId(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void shouldNotCallRemoteServicesForStoredDoctorsAndClients() {
+        Result stored = Result.builder(result)
+                .withDoctor(Doctor.builder().withId(1L).withEmail("doctor@gmail.com").build())
+                .withClient(Client.builder().withId(1L).withEmail("client@gmail.com").build())
+                .build();
+        when(resultsRepository.findAllByClientId(1)).thenReturn(List.of(stored));
+        Mockito.clearInvocations(employeeService, clientService);
+
+        Result loaded = resultService.findAllByClientId(1).get(0);
+        assertThat(loaded.getDoctor().getEmail(), is(equalTo("doctor@gmail.com")));
+        verify(employeeService, never()).findDoctorById(any(Long.class));
+        verify(clientService, never()).findClientById(any(Long.class));
+    }
+
+    @Test
+    public void shouldQueueRefreshWhenHydratedDoctorDiffersFromStoredOne() {
+        Result stored = Result.builder(result)
+                .withDoctor(Doctor.builder().withId(1L).withEmail("old@gmail.com").build())
+                .build();
+
+        resultService.hydrate(List.of(stored));
+        assertThat(stored.getDoctor().getEmail(), is(nullValue()));
+        verify(snapshotRefresher, times(1)).refresh(any(Doctor.class));
+    }
+
     @Test
     public void shouldCount5ResultsWhenContains5Results() {
         when(resultsRepository.count()).thenReturn(5L);
@@ -168,6 +240,86 @@ public class ResultServiceImplTest {
         assertThat(saved, equalTo(result));
     }
 
+    @Test
+    public void shouldRecordValidationOutcomePerReferencedService() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ResultServiceImpl service = new ResultServiceImpl(resultsRepository, clientService, employeeService,
+                registrationService, validator, circuitBreaker, Runnable::run, new RemoteCallProperties(),
+                snapshotRefresher, mock(MeasurementService.class), mock(ResultSearchService.class),
+                mock(RowCounters.class), meterRegistry);
+        when(resultsRepository.save(any(Result.class))).thenReturn(result);
+        when(validator.validate(any(Result.class))).thenReturn(Collections.emptySet());
+
+        service.save(result);
+        for (String dependency : List.of("duty", "doctor", "client")) {
+            long count = meterRegistry.get("result.reference.validation")
+                    .tags("dependency", dependency, "outcome", "found")
+                    .timer()
+                    .count();
+            assertThat(count, is(equalTo(1L)));
+        }
+    }
+
+    @Test
+    public void shouldFailValidationOnMissingReferenceWithoutWaitingForOtherChecks() {
+        FeignException notFound = mock(FeignException.class);
+        when(notFound.status()).thenReturn(404);
+        RegistrationServiceFeignClient missingDuties = mock(RegistrationServiceFeignClient.class);
+        when(missingDuties.findDutyById(any(Long.class))).thenThrow(notFound);
+        EmployeeServiceFeignClient slowEmployees = mock(EmployeeServiceFeignClient.class);
+        when(slowEmployees.findDoctorById(any(Long.class))).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return Doctor.builder().withId(1L).build();
+        });
+        when(validator.validate(any(Result.class))).thenReturn(Collections.emptySet());
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ResultServiceImpl service = new ResultServiceImpl(resultsRepository, clientService, slowEmployees,
+                    missingDuties, validator, circuitBreaker, executor, new RemoteCallProperties(),
+                    snapshotRefresher, mock(MeasurementService.class), mock(ResultSearchService.class),
+                    mock(RowCounters.class), new SimpleMeterRegistry());
+
+            long start = System.nanoTime();
+            assertThrows(IllegalModificationException.class, () -> service.save(new Result(result)));
+            assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), is(lessThan(1000L)));
+            verify(resultsRepository, never()).save(any(Result.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRecordAbandonedCheckWhenItEndsAfterValidationFailed() throws Exception {
+        FeignException notFound = mock(FeignException.class);
+        when(notFound.status()).thenReturn(404);
+        RegistrationServiceFeignClient missingDuties = mock(RegistrationServiceFeignClient.class);
+        when(missingDuties.findDutyById(any(Long.class))).thenThrow(notFound);
+        EmployeeServiceFeignClient slowEmployees = mock(EmployeeServiceFeignClient.class);
+        when(slowEmployees.findDoctorById(any(Long.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Doctor.builder().withId(1L).build();
+        });
+        when(validator.validate(any(Result.class))).thenReturn(Collections.emptySet());
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        ResultServiceImpl service = new ResultServiceImpl(resultsRepository, clientService, slowEmployees,
+                missingDuties, validator, circuitBreaker, executor, new RemoteCallProperties(),
+                snapshotRefresher, mock(MeasurementService.class), mock(ResultSearchService.class),
+                mock(RowCounters.class), meterRegistry);
+
+        assertThrows(IllegalModificationException.class, () -> service.save(new Result(result)));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS), is(true));
+
+        Timer abandoned = meterRegistry.get("result.reference.validation")
+                .tags("dependency", "doctor", "outcome", "abandoned")
+                .timer();
+        assertThat(abandoned.count(), is(equalTo(1L)));
+        assertThat(abandoned.totalTime(TimeUnit.MILLISECONDS), is(greaterThanOrEqualTo(200.0)));
+    }
+
     @Test
     public void shouldThrowExceptionWhenResultIsInvalid() {
         when(validator.validate(any(Result.class))).thenThrow(IllegalModificationException.class);
@@ -184,6 +336,24 @@ public class ResultServiceImplTest {
         assertThat(updated, equalTo(updatedResult));
     }
 
+    @Test
+    public void shouldFetchRemoteEntitiesOnceWhenResultIsUpdatedWithinRequest() {
+        when(resultsRepository.findById(1L)).thenReturn(Optional.of(new Result(result)));
+        when(resultsRepository.save(any(Result.class))).then(returnsFirstArg());
+        when(validator.validate(any(Result.class))).thenReturn(Collections.emptySet());
+        Mockito.clearInvocations(employeeService);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            resultService.findById(1);
+            resultService.update(result);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        verify(employeeService, times(1)).findDoctorById(1L);
+    }
+
     @Test
     public void shouldNotContainResultWhenDeletesThisResult() {
         when(resultsRepository.findById(any(Long.class))).thenReturn(Optional.of(result));
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.service.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.anEmptyMap;
+
+@Tag("category.UnitTest")
+public class TermsTest {
+
+    @Test
+    public void shouldSplitTextIntoLowerCaseTerms() {
+        Map<String, Integer> frequencies = Terms.frequencies("HbA1c: 6.1%, hba1c (repeat)", 10);
+
+        assertThat(frequencies, is(equalTo(Map.of("hba1c", 2, "repeat", 1))));
+    }
+
+    @Test
+    public void shouldSkipTermsOfWrongLength() {
+        String tooLong = "a".repeat(Terms.MAX_LENGTH + 1);
+        Map<String, Integer> frequencies = Terms.frequencies("x y " + tooLong, 10);
+
+        assertThat(frequencies, is(anEmptyMap()));
+    }
+
+    @Test
+    public void shouldKeepMostFrequentTermsOnly() {
+        Map<String, Integer> frequencies = Terms.frequencies("glucose glucose glucose urea urea sodium", 2);
+
+        assertThat(frequencies, is(aMapWithSize(2)));
+        assertThat(frequencies, is(equalTo(Map.of("glucose", 3, "urea", 2))));
+    }
+
+    @Test
+    public void shouldReturnDistinctQueryTermsInOrderOfAppearance() {
+        List<String> terms = Terms.of("Kell antibody, KELL titre", 10);
+
+        assertThat(terms, is(equalTo(List.of("kell", "antibody", "titre"))));
+    }
+
+    @Test
+    public void shouldLimitQueryTerms() {
+        List<String> terms = Terms.of("one two three", 2);
+
+        assertThat(terms, is(equalTo(List.of("one", "two"))));
+    }
+}
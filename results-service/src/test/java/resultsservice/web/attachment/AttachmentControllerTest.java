@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package resultsservice.web.attachment;
+
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import resultsservice.config.IntegrationTestConfig;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Tag("category.IntegrationTest")
+@SpringBootTest(properties = "spring.cloud.config.enabled=false")
+@ContextConfiguration(classes = IntegrationTestConfig.class)
+@AutoConfigureMockMvc
+public class AttachmentControllerTest {
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldSaveAttachmentOnAttachmentPostRequestWhenUserIsTopManager() throws Exception {
+        long id = upload(2, CONTENT);
+
+        mvc.perform(get("/results/2/attachments"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.attachmentList[?(@.id == " + id + ")].fileName")
+                        .value("scan.txt"));
+    }
+
+    private long upload(long resultId, byte[] content) throws Exception {
+        MvcResult result = mvc.perform(post("/results/" + resultId + "/attachments")
+                        .param("name", "scan.txt")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(content))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(HttpHeaders.LOCATION))
+                .andReturn();
+
+        return ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldStoreSameContentOnceOnAttachmentPostRequests() throws Exception {
+        long first = upload(2, CONTENT);
+        long second = upload(3, CONTENT);
+
+        String firstHash = getAndExpect(2, first, status().isOk()).getResponse().getHeader(HttpHeaders.ETAG);
+        String secondHash = getAndExpect(3, second, status().isOk()).getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(secondHash, is(equalTo(firstHash)));
+    }
+
+    private MvcResult getAndExpect(long resultId, long id, ResultMatcher status) throws Exception {
+        return mvc.perform(get("/results/" + resultId + "/attachments/" + id))
+                .andDo(print())
+                .andExpect(status)
+                .andReturn();
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnContentOnAttachmentGetRequest() throws Exception {
+        long id = upload(2, CONTENT);
+
+        mvc.perform(get("/results/2/attachments/" + id))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnPartialContentOnAttachmentRangeRequest() throws Exception {
+        long id = upload(2, CONTENT);
+
+        mvc.perform(get("/results/2/attachments/" + id).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andDo(print())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + CONTENT.length))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnRangeNotSatisfiableOnAttachmentRangeRequestBeyondContent() throws Exception {
+        long id = upload(2, CONTENT);
+
+        mvc.perform(get("/results/2/attachments/" + id).header(HttpHeaders.RANGE, "bytes=100-"))
+                .andDo(print())
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnNotFoundOnAttachmentGetRequestOfAnotherResult() throws Exception {
+        long id = upload(2, CONTENT);
+        getAndExpect(1, id, status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldDeleteAttachmentOnAttachmentDeleteRequest() throws Exception {
+        long id = upload(2, CONTENT);
+
+        mvc.perform(delete("/results/2/attachments/" + id))
+                .andDo(print())
+                .andExpect(status().isNoContent());
+        getAndExpect(2, id, status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldDenyAttachmentPostRequestWhenResultDoesNotExist() throws Exception {
+        mvc.perform(post("/results/100/attachments")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(CONTENT))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithAnonymousUser
+    public void shouldDenyAttachmentGetRequestWhenUserIsNotAuthenticated() throws Exception {
+        mvc.perform(get("/results/2/attachments"))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+}
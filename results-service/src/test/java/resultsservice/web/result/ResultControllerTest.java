@@ -16,6 +16,8 @@
 
 package resultsservice.web.result;
 
+import com.jayway.jsonpath.JsonPath;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -23,30 +25,45 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import resultsservice.config.IntegrationTestConfig;
+import resultsservice.service.external.client.Client;
+import resultsservice.service.external.employee.Doctor;
+import resultsservice.service.external.registration.Duty;
 import resultsservice.service.result.Result;
 import resultsservice.service.result.ResultService;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Tag("category.IntegrationTest")
@@ -97,6 +114,15 @@ public class ResultControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnLinkToNextPageOnResultsGetRequestWhenMoreResultsExist() throws Exception {
+        mvc.perform(get("/results").param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.next.href").exists());
+    }
+
     @Test
     @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "DOCTOR", "USER", "INTERNAL" })
     public void shouldDenyAccessToAllResultsWhenUserIsNotTopManager() throws Exception {
@@ -136,6 +162,117 @@ public class ResultControllerTest {
         getByIdAndExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnNotModifiedOnConditionalResultGetByIdRequestWhenUserIsTopManager() throws Exception {
+        String eTag = getETag();
+        getByIdIfNoneMatchAndExpect(eTag, status().isNotModified());
+    }
+
+    private String getETag() throws Exception {
+        return mvc.perform(get("/results/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private void getByIdIfNoneMatchAndExpect(String eTag, ResultMatcher status) throws Exception {
+        mvc.perform(get("/results/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(username = "mark@gmail.com", authorities = "DOCTOR")
+    public void shouldReturnNotModifiedOnConditionalResultGetByIdRequestWhenUserIsDoctorAndResourceOwner()
+            throws Exception {
+        String eTag = getETag();
+        getByIdIfNoneMatchAndExpect(eTag, status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(username = "robert@gmail.com", authorities = "DOCTOR")
+    public void shouldDenyConditionalResultGetByIdRequestWhenUserIsNotResourceOwner() throws Exception {
+        getByIdIfNoneMatchAndExpect("W/\"0\"", status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldNotTagResultOnResultGetByIdRequestWhenHydrationIsRequested() throws Exception {
+        mvc.perform(get("/results/1").param("hydrate", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnPayloadSizeInsteadOfPayloadOnResultsGetAllRequest() throws Exception {
+        mvc.perform(get("/results"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.resultList[0].data").doesNotExist())
+                .andExpect(jsonPath("$._embedded.resultList[0].dataSize").exists())
+                .andExpect(jsonPath("$._embedded.resultList[0]._links.data.href").exists());
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldStreamPayloadOnResultDataGetRequestWhenUserIsTopManager() throws Exception {
+        MvcResult result = mvc.perform(get("/results/1/data"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string("Data1"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldStreamStoredGzipOnResultDataGetRequestWhenClientAcceptsGzip() throws Exception {
+        String data = "Hemoglobin: 13.5 g/dL (reference 12.0 - 15.5)\\n".repeat(100);
+        String json = "{\"data\":\"" + data + "\"," +
+                "\"duty\" : {\"id\":1}," +
+                "\"client\" : {\"id\":2}," +
+                "\"doctor\" : {\"id\":1}}";
+        MvcResult saved = mvc.perform(post("/results")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Integer id = JsonPath.read(saved.getResponse().getContentAsString(), "$.id");
+
+        MvcResult result = mvc.perform(get("/results/" + id + "/data")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        try (InputStream text = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String expected = data.replace("\\n", "\n");
+            assertThat(new String(text.readAllBytes(), StandardCharsets.UTF_8), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "robert@gmail.com", authorities = "DOCTOR")
+    public void shouldDenyResultDataWhenUserIsNotResourceOwner() throws Exception {
+        mvc.perform(get("/results/1/data"))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser(authorities = { "ADMIN", "TEAM_MANAGER", "INTERNAL" })
     public void shouldDenyAccessToResultByIdWhenUserIsNotTopManager() throws Exception {
@@ -263,6 +400,193 @@ public class ResultControllerTest {
         postAndExpect(newResult1Json, status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnDownsampledTrendOnTrendsGetRequestWhenUserIsTopManager() throws Exception {
+        saveMeasuredResult("Glucose", 1);
+
+        getTrendAndExpect("glucose", status().isOk())
+                .andExpect(jsonPath("$.unit").value("mmol/L"))
+                .andExpect(jsonPath("$.buckets.length()").value(2))
+                .andExpect(jsonPath("$.buckets[0].count").value(2))
+                .andExpect(jsonPath("$.buckets[0].min").value(5.4))
+                .andExpect(jsonPath("$.buckets[0].max").value(7.0))
+                .andExpect(jsonPath("$.buckets[1].count").value(1));
+    }
+
+    // Saves a result of client 2 with three measurements: two in January 2021 and one in June 2021
+    private void saveMeasuredResult(String analyte, long doctorId) {
+        String data = "{\"measurements\":[" +
+                measurementJson(analyte, "5.4", "2021-01-10T08:00:00") + "," +
+                measurementJson(analyte, "7.0", "2021-01-20T08:00:00") + "," +
+                measurementJson(analyte, "6.1", "2021-06-01T08:00:00") + "]}";
+        Result result = Result.builder()
+                .withData(data)
+                .withDuty(Duty.builder().withId(1L).build())
+                .withClient(Client.builder().withId(2L).build())
+                .withDoctor(Doctor.builder().withId(doctorId).build())
+                .build();
+
+        resultService.save(result);
+    }
+
+    private String measurementJson(String analyte, String value, String takenAt) {
+        return "{\"analyte\":\"" + analyte + "\",\"value\":" + value +
+                ",\"unit\":\"mmol/L\",\"takenAt\":\"" + takenAt + "\"}";
+    }
+
+    private ResultActions getTrendAndExpect(String analyte, ResultMatcher status) throws Exception {
+        return mvc.perform(get("/results/trends")
+                        .param("clientId", "2")
+                        .param("analyte", analyte)
+                        .param("from", "2021-01-01T00:00:00")
+                        .param("to", "2022-01-01T00:00:00")
+                        .param("buckets", "12"))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(username = "jain@gmail.com", authorities = "USER")
+    public void shouldReturnTrendOnTrendsGetRequestWhenUserIsClient() throws Exception {
+        getTrendAndExpect("cholesterol", status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "emma@gmail.com", authorities = "USER")
+    public void shouldDenyAccessToTrendWhenUserIsAnotherClient() throws Exception {
+        getTrendAndExpect("cholesterol", status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "robert@gmail.com", authorities = "DOCTOR")
+    public void shouldBuildTrendFromOwnResultsOnlyWhenUserIsDoctor() throws Exception {
+        saveMeasuredResult("HbA1c", 1);
+
+        getTrendAndExpect("hba1c", status().isOk())
+                .andExpect(jsonPath("$.buckets.length()").value(0));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldReturnRankedHitsWithSnippetsOnSearchRequestWhenUserIsTopManager() throws Exception {
+        Result partial = saveSearchableResult("Antibody screen: negative", 1);
+        Result full = saveSearchableResult("Antibody screen: positive, anti-Kell titre 1:16", 1);
+
+        searchAndExpect("kell antibody", null, status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].resultId").value(full.getId()))
+                .andExpect(jsonPath("$[0].matchedTerms").value(2))
+                .andExpect(jsonPath("$[0].snippet").value("Antibody screen: positive, anti-Kell titre 1:16"))
+                .andExpect(jsonPath("$[1].resultId").value(partial.getId()));
+    }
+
+    private Result saveSearchableResult(String data, long doctorId) {
+        Result result = Result.builder()
+                .withData(data)
+                .withDuty(Duty.builder().withId(1L).build())
+                .withClient(Client.builder().withId(2L).build())
+                .withDoctor(Doctor.builder().withId(doctorId).build())
+                .build();
+
+        return resultService.save(result);
+    }
+
+    private ResultActions searchAndExpect(String query, Long clientId, ResultMatcher status) throws Exception {
+        MockHttpServletRequestBuilder request = get("/results/search").param("q", query);
+        if (clientId != null) {
+            request.param("clientId", clientId.toString());
+        }
+
+        return mvc.perform(request)
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(username = "jain@gmail.com", authorities = "USER")
+    public void shouldSearchOwnResultsWhenUserIsClient() throws Exception {
+        saveSearchableResult("Urine culture: Proteus mirabilis isolated", 1);
+
+        searchAndExpect("mirabilis", null, status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].clientId").value(2));
+    }
+
+    @Test
+    @WithMockUser(username = "emma@gmail.com", authorities = "USER")
+    public void shouldNotReturnHitsOfOtherClientsWhenUserIsClient() throws Exception {
+        saveSearchableResult("Stool test: Giardia lamblia cysts found", 1);
+
+        searchAndExpect("giardia", null, status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        searchAndExpect("giardia", 2L, status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "robert@gmail.com", authorities = "DOCTOR")
+    public void shouldNotReturnHitsOfOtherDoctorsWhenUserIsDoctor() throws Exception {
+        saveSearchableResult("Throat swab: Streptococcus pyogenes detected", 1);
+
+        searchAndExpect("pyogenes", null, status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldImportValidLinesAndReportRejectedOnesOnNdjsonImportRequest() throws Exception {
+        int initialCount = resultService.findAll().size();
+        String lines = newResult1Json + "\n" +
+                "{\"data\":\n" +
+                "{\"data\":\"New Data\",\"duty\":{\"id\":1},\"client\":{\"id\":1},\"doctor\":{\"id\":99}}\n";
+
+        importAndExpect("application/x-ndjson", lines, status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].line").value(3))
+                .andExpect(jsonPath("$.errors[1].error").value("No doctor with id 99"));
+
+        int newCount = resultService.findAll().size();
+        assertThat(newCount, is(initialCount + 1));
+    }
+
+    private ResultActions importAndExpect(String contentType, String body, ResultMatcher status) throws Exception {
+        return mvc.perform(post("/results/import")
+                        .contentType(contentType)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status);
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldImportQuotedMultilineFieldsOnCsvImportRequest() throws Exception {
+        String records = "clientId,dutyId,doctorId,data\n" +
+                "1,2,2,\"Line 1,\nLine \"\"2\"\"\"\n" +
+                "1,abc,2,Data\n";
+
+        importAndExpect("text/csv", records, status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[0].error").value("Invalid duty ID: abc"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "TOP_MANAGER")
+    public void shouldRejectCsvImportWhenHeaderLacksColumns() throws Exception {
+        importAndExpect("text/csv", "clientId,doctorId,data\n1,1,Data\n", status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(authorities = "DOCTOR")
+    public void shouldDenyResultImportWhenUserIsNotTopManager() throws Exception {
+        importAndExpect("application/x-ndjson", newResult1Json, status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser(authorities = "TOP_MANAGER")
     public void shouldReturnUpdatedResultOnResultPatchRequestWhenUserIsTopManager() throws Exception {